@@ -0,0 +1,120 @@
+package com.leanstacks.ws;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.leanstacks.ws.util.RequestContextTaskDecorator;
+
+/**
+ * <p>
+ * The AsyncConfiguration class configures the executors used by the asynchronous web service controllers. The
+ * configuration is activated by the <code>async</code> profile.
+ * </p>
+ * <p>
+ * Each workload class has a dedicated, bounded ThreadPoolTaskExecutor so that a burst of slow writes cannot starve
+ * reads of threads. When an executor's threads and queue are exhausted, the task is rejected immediately and the
+ * request is answered with HTTP status 503 rather than waiting for a Tomcat request thread or JDBC connection. The
+ * RequestContext of the submitting thread is propagated to the executing thread. Executor statistics are published on
+ * the Actuator <code>metrics</code> endpoint as <code>executor.*</code>.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+@Profile("async")
+public class AsyncConfiguration {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfiguration.class);
+
+    /**
+     * The number of threads for read requests.
+     */
+    @Value("${ws.async.read.pool-size:20}")
+    private int readPoolSize;
+
+    /**
+     * The queue capacity for read requests.
+     */
+    @Value("${ws.async.read.queue-capacity:100}")
+    private int readQueueCapacity;
+
+    /**
+     * The number of threads for write requests.
+     */
+    @Value("${ws.async.write.pool-size:10}")
+    private int writePoolSize;
+
+    /**
+     * The queue capacity for write requests.
+     */
+    @Value("${ws.async.write.queue-capacity:50}")
+    private int writeQueueCapacity;
+
+    /**
+     * Create the executor for read requests.
+     *
+     * @param counterService A CounterService used to record rejected tasks.
+     * @return A ThreadPoolTaskExecutor.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor readTaskExecutor(final CounterService counterService) {
+        return createExecutor("read", readPoolSize, readQueueCapacity, counterService);
+    }
+
+    /**
+     * Create the executor for write requests.
+     *
+     * @param counterService A CounterService used to record rejected tasks.
+     * @return A ThreadPoolTaskExecutor.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor writeTaskExecutor(final CounterService counterService) {
+        return createExecutor("write", writePoolSize, writeQueueCapacity, counterService);
+    }
+
+    /**
+     * Create a bounded ThreadPoolTaskExecutor which rejects tasks when its threads and queue are exhausted.
+     *
+     * @param name The workload class name.
+     * @param poolSize The number of threads.
+     * @param queueCapacity The maximum number of queued tasks.
+     * @param counterService A CounterService used to record rejected tasks.
+     * @return A ThreadPoolTaskExecutor.
+     */
+    private ThreadPoolTaskExecutor createExecutor(final String name, final int poolSize, final int queueCapacity,
+            final CounterService counterService) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-exec-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        executor.setRejectedExecutionHandler(new RejectedExecutionHandler() {
+
+            @Override
+            public void rejectedExecution(final Runnable task, final ThreadPoolExecutor threadPoolExecutor) {
+                logger.warn("Rejected {} task. Active:{} Queued:{}", name, threadPoolExecutor.getActiveCount(),
+                        threadPoolExecutor.getQueue().size());
+                counterService.increment("executor." + name + ".rejected");
+                throw new RejectedExecutionException("The " + name + " executor is saturated.");
+            }
+
+        });
+        return executor;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.leanstacks.ws;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.leanstacks.ws.service.LoggingOutboxEventSink;
+import com.leanstacks.ws.service.OutboxEventSink;
+
+/**
+ * The BatchConfiguration class enables <code>@Scheduled</code> batch processes when the <code>batch</code> profile is
+ * active, and supplies the default OutboxEventSink used by the outbox relay.
+ * 
+ * @author Matt Warman
+ */
+@Configuration
+@Profile("batch")
+@EnableScheduling
+public class BatchConfiguration {
+
+    /**
+     * Create the default OutboxEventSink, which logs each change event. Applications publish change events to a
+     * message broker by defining their own OutboxEventSink bean.
+     * 
+     * @return An OutboxEventSink.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OutboxEventSink.class)
+    public OutboxEventSink outboxEventSink() {
+        return new LoggingOutboxEventSink();
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.leanstacks.ws;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import com.leanstacks.ws.cache.InvalidationBus;
+import com.leanstacks.ws.cache.LocalInvalidationBus;
+import com.leanstacks.ws.cache.MulticastInvalidationBus;
+import com.leanstacks.ws.cache.PeerInvalidationBus;
+
+/**
+ * <p>
+ * The CacheInvalidationConfiguration class configures the InvalidationBus which broadcasts second-level cache
+ * invalidations to the nodes of a cluster.
+ * </p>
+ * <p>
+ * The transport is selected by the <code>ws.cache.invalidation.transport</code> property: <code>local</code> (the
+ * default, for a single node), <code>multicast</code> (UDP multicast) or <code>peer</code> (TCP connections to a
+ * configured list of peers). The network transports authenticate each message with an HMAC under the secret
+ * <code>ws.cache.invalidation.secret</code>, which must be set to the same value on every node.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+public class CacheInvalidationConfiguration {
+
+    /**
+     * The property which selects the InvalidationBus transport.
+     */
+    private static final String PROPERTY_TRANSPORT = "ws.cache.invalidation.transport";
+
+    /**
+     * The identifier of this node. Defaults to a random identifier generated at startup.
+     */
+    @Value("${ws.cache.invalidation.node-id:}")
+    private String nodeId;
+
+    /**
+     * The secret shared by the nodes of the cluster, which authenticates the messages of the network transports.
+     */
+    @Value("${ws.cache.invalidation.secret:}")
+    private String secret;
+
+    /**
+     * Create the in-JVM InvalidationBus for a single node deployment.
+     *
+     * @return An InvalidationBus.
+     */
+    @Bean
+    @ConditionalOnProperty(name = PROPERTY_TRANSPORT, havingValue = "local", matchIfMissing = true)
+    public InvalidationBus localInvalidationBus() {
+        return new LocalInvalidationBus(nodeId(), new CopyOnWriteArrayList<LocalInvalidationBus>());
+    }
+
+    /**
+     * Create the UDP multicast InvalidationBus.
+     *
+     * @param group The multicast group address.
+     * @param port The multicast port.
+     * @param timeToLive The multicast time-to-live.
+     * @return An InvalidationBus.
+     * @throws UnknownHostException Thrown if the group address cannot be resolved.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = PROPERTY_TRANSPORT, havingValue = "multicast")
+    public MulticastInvalidationBus multicastInvalidationBus(
+            @Value("${ws.cache.invalidation.multicast.group:239.255.27.1}") final String group,
+            @Value("${ws.cache.invalidation.multicast.port:45566}") final int port,
+            @Value("${ws.cache.invalidation.multicast.ttl:1}") final int timeToLive) throws UnknownHostException {
+        return new MulticastInvalidationBus(nodeId(), secret, InetAddress.getByName(group), port, timeToLive);
+    }
+
+    /**
+     * Create the TCP peer InvalidationBus.
+     *
+     * @param bindAddress The address on which this node accepts connections from its peers; all interfaces if empty.
+     * @param port The port on which this node accepts connections from its peers.
+     * @param peers A comma-delimited list of peer <code>host:port</code> addresses.
+     * @param maxConnections The maximum number of open inbound connections.
+     * @param connectTimeout The timeout, in milliseconds, to establish a connection to a peer.
+     * @param writeTimeout The timeout, in milliseconds, to write a message to a peer.
+     * @return An InvalidationBus.
+     * @throws UnknownHostException Thrown if the bind address cannot be resolved.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = PROPERTY_TRANSPORT, havingValue = "peer")
+    public PeerInvalidationBus peerInvalidationBus(
+            @Value("${ws.cache.invalidation.peer.bind-address:}") final String bindAddress,
+            @Value("${ws.cache.invalidation.peer.port:45567}") final int port,
+            @Value("${ws.cache.invalidation.peer.addresses:}") final String peers,
+            @Value("${ws.cache.invalidation.peer.max-connections:16}") final int maxConnections,
+            @Value("${ws.cache.invalidation.peer.connect-timeout:1000}") final int connectTimeout,
+            @Value("${ws.cache.invalidation.peer.write-timeout:1000}") final int writeTimeout)
+            throws UnknownHostException {
+        final List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+        for (final String peer : StringUtils.commaDelimitedListToStringArray(peers)) {
+            final String address = peer.trim();
+            final int separator = address.lastIndexOf(':');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid invalidation peer address: " + address);
+            }
+            addresses.add(InetSocketAddress.createUnresolved(address.substring(0, separator),
+                    Integer.parseInt(address.substring(separator + 1))));
+        }
+        return new PeerInvalidationBus(nodeId(), secret,
+                StringUtils.hasText(bindAddress) ? InetAddress.getByName(bindAddress.trim()) : null, port, addresses,
+                maxConnections, connectTimeout, writeTimeout);
+    }
+
+    /**
+     * Returns the configured node identifier, or a random identifier if none is configured.
+     *
+     * @return The node identifier.
+     */
+    private String nodeId() {
+        return StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+    }
+
+}
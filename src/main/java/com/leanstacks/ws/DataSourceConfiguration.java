@@ -0,0 +1,115 @@
+package com.leanstacks.ws;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.leanstacks.ws.datasource.ReadWriteRoutingDataSource;
+
+import liquibase.integration.spring.SpringLiquibase;
+
+/**
+ * <p>
+ * The DataSourceConfiguration class configures read/write DataSource routing. The configuration is activated when a
+ * replica connection URL is supplied via the <code>spring.datasource.replica.url</code> property.
+ * </p>
+ * <p>
+ * The primary connection pool is configured with the standard <code>spring.datasource.*</code> properties. The
+ * replica connection pool is configured with the <code>spring.datasource.replica.*</code> properties, which are bound
+ * directly to a Tomcat JDBC pool. Read-only transactions are routed to the replica and all other work is routed to the
+ * primary. Pool metrics for both pools are published by the Actuator as <code>datasource.primary.*</code> and
+ * <code>datasource.replica.*</code>.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica",
+        name = "url")
+public class DataSourceConfiguration {
+
+    /**
+     * The number of milliseconds the replica is bypassed after a connection failure.
+     */
+    @Value("${ws.datasource.replica.fallback-millis:30000}")
+    private long replicaFallbackMillis;
+
+    /**
+     * Create the primary (read-write) connection pool.
+     *
+     * @param properties The standard <code>spring.datasource.*</code> properties.
+     * @return A Tomcat JDBC pool DataSource.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.tomcat")
+    public org.apache.tomcat.jdbc.pool.DataSource primaryDataSource(final DataSourceProperties properties) {
+        return (org.apache.tomcat.jdbc.pool.DataSource) properties.initializeDataSourceBuilder()
+                .type(org.apache.tomcat.jdbc.pool.DataSource.class).build();
+    }
+
+    /**
+     * Create the replica (read-only) connection pool.
+     *
+     * @return A Tomcat JDBC pool DataSource.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.replica")
+    public org.apache.tomcat.jdbc.pool.DataSource replicaDataSource() {
+        return new org.apache.tomcat.jdbc.pool.DataSource();
+    }
+
+    /**
+     * Create the application DataSource. The routing DataSource is wrapped in a LazyConnectionDataSourceProxy so that
+     * the physical Connection is obtained after the transaction read-only flag is established.
+     *
+     * @param primaryDataSource The primary connection pool.
+     * @param replicaDataSource The replica connection pool.
+     * @param counterService A CounterService used to record routing metrics.
+     * @return A DataSource.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") final DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") final DataSource replicaDataSource,
+            final CounterService counterService) {
+        final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+                replicaDataSource, counterService, replicaFallbackMillis);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Applies the Liquibase change logs to the replica. Used when the replica is a standalone database which is not
+     * populated by replication, e.g. a second HSQLDB instance for local development. The SpringLiquibase is not exposed
+     * as a bean so that the Liquibase auto-configuration for the primary DataSource is not disabled.
+     *
+     * @param replicaDataSource The replica connection pool.
+     * @param properties The standard <code>liquibase.*</code> properties.
+     * @param resourceLoader The ResourceLoader used to read the change logs.
+     * @return An InitializingBean which applies the change logs.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ws.datasource.replica.liquibase-enabled")
+    public InitializingBean replicaLiquibase(@Qualifier("replicaDataSource") final DataSource replicaDataSource,
+            final LiquibaseProperties properties, final ResourceLoader resourceLoader) {
+        final SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(replicaDataSource);
+        liquibase.setChangeLog(properties.getChangeLog());
+        liquibase.setContexts(properties.getContexts());
+        liquibase.setResourceLoader(resourceLoader);
+        return liquibase::afterPropertiesSet;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.leanstacks.ws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * <p>
+ * The EntityLifecycleConfiguration class configures the executor on which the EntityLifecycleDispatcher delivers
+ * committed entity changes to subscribers.
+ * </p>
+ * <p>
+ * The executor has a single thread, so events are delivered in commit order, and a queue of
+ * <code>ws.entity.lifecycle.queue-capacity</code> events. When the queue is full the overflow policy applies:
+ * <code>block</code> (the default) makes the committing thread wait, after its transaction has completed, until the
+ * event can be queued, slowing the producer rather than losing the event or delivering it out of order;
+ * <code>discard</code> drops the event. Each overflow increments the <code>executor.entityLifecycle.overflow</code>
+ * counter. Queue statistics are published as
+ * <code>executor.entityLifecycleTaskExecutor.*</code> metrics.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+public class EntityLifecycleConfiguration {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(EntityLifecycleConfiguration.class);
+
+    /**
+     * The overflow policy which drops events.
+     */
+    private static final String OVERFLOW_DISCARD = "discard";
+
+    /**
+     * The overflow policy which blocks the producer.
+     */
+    private static final String OVERFLOW_BLOCK = "block";
+
+    /**
+     * The capacity of the event queue.
+     */
+    @Value("${ws.entity.lifecycle.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * The overflow policy: <code>block</code> or <code>discard</code>.
+     */
+    @Value("${ws.entity.lifecycle.overflow:" + OVERFLOW_BLOCK + "}")
+    private String overflow;
+
+    /**
+     * Create the executor on which entity lifecycle events are delivered.
+     *
+     * @param counterService A CounterService used to record overflow metrics.
+     * @return A ThreadPoolTaskExecutor.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor entityLifecycleTaskExecutor(final CounterService counterService) {
+        final boolean discard = OVERFLOW_DISCARD.equalsIgnoreCase(overflow);
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("entity-lifecycle-");
+        executor.setDaemon(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setRejectedExecutionHandler((task, threadPoolExecutor) -> {
+            counterService.increment("executor.entityLifecycle.overflow");
+            if (discard || threadPoolExecutor.isShutdown()) {
+                logger.warn("Discarded entity lifecycle event. Queued:{}", threadPoolExecutor.getQueue().size());
+                return;
+            }
+            try {
+                // queue behind the events already waiting, so that delivery remains in commit order
+                threadPoolExecutor.getQueue().put(task);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while queueing entity lifecycle event; the event is discarded.");
+            }
+        });
+        return executor;
+    }
+
+}
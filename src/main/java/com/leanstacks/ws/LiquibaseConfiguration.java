@@ -0,0 +1,73 @@
+package com.leanstacks.ws;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.leanstacks.ws.datasource.ChangelogChecksumLiquibase;
+
+import liquibase.integration.spring.SpringLiquibase;
+
+/**
+ * <p>
+ * The LiquibaseConfiguration class replaces the Liquibase auto-configuration with a ChangelogChecksumLiquibase, which
+ * skips the Liquibase update when the change logs are unchanged since they were last applied. The configuration is
+ * activated by the <code>ws.liquibase.skip-unchanged</code> property, e.g. in the <code>lazy</code> profile.
+ * </p>
+ * <p>
+ * The bean is configured with the standard <code>liquibase.*</code> properties. The change log files whose checksum
+ * is compared is computed by the build and read from <code>ws.liquibase.change-log-checksum</code>, or, when that
+ * resource is absent, computed at startup from the files located by the <code>ws.liquibase.change-log-locations</code>
+ * pattern.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+@ConditionalOnProperty(name = "ws.liquibase.skip-unchanged")
+@EnableConfigurationProperties(LiquibaseProperties.class)
+public class LiquibaseConfiguration {
+
+    /**
+     * The location pattern of the change log files.
+     */
+    @Value("${ws.liquibase.change-log-locations:classpath*:data/changelog/*.xml}")
+    private String changeLogLocations;
+
+    /**
+     * The location of the change log checksum computed by the build.
+     */
+    @Value("${ws.liquibase.change-log-checksum:classpath:data/changelog/changelog.sha256}")
+    private String changeLogChecksumLocation;
+
+    /**
+     * Create the SpringLiquibase which applies the change logs to the application DataSource. The bean is named
+     * <code>liquibase</code> so that the JPA EntityManagerFactory is created after the change logs are applied.
+     *
+     * @param dataSource The application DataSource.
+     * @param properties The standard <code>liquibase.*</code> properties.
+     * @return A ChangelogChecksumLiquibase.
+     */
+    @Bean
+    public SpringLiquibase liquibase(final DataSource dataSource, final LiquibaseProperties properties) {
+        final ChangelogChecksumLiquibase liquibase = new ChangelogChecksumLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(properties.getChangeLog());
+        liquibase.setChangeLogLocations(changeLogLocations);
+        liquibase.setChangeLogChecksumLocation(changeLogChecksumLocation);
+        liquibase.setContexts(properties.getContexts());
+        liquibase.setLabels(properties.getLabels());
+        liquibase.setDefaultSchema(properties.getDefaultSchema());
+        liquibase.setDropFirst(properties.isDropFirst());
+        liquibase.setShouldRun(properties.isEnabled());
+        liquibase.setChangeLogParameters(properties.getParameters());
+        liquibase.setRollbackFile(properties.getRollbackFile());
+        return liquibase;
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.leanstacks.ws;
+
+import java.util.Collections;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * <p>
+ * The OptimisticLockRetryConfiguration class configures the RetryTemplate used by business services to re-execute
+ * idempotent updates which fail due to an optimistic locking conflict.
+ * </p>
+ * <p>
+ * Each retry waits for an exponentially increasing, randomized (jittered) interval so that competing writers do not
+ * collide again in lock step. Retry attempts and exhausted retries are recorded as Actuator counter metrics.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+public class OptimisticLockRetryConfiguration {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetryConfiguration.class);
+
+    /**
+     * The maximum number of attempts, including the first attempt.
+     */
+    @Value("${ws.retry.optimistic-lock.max-attempts:3}")
+    private int maxAttempts;
+
+    /**
+     * The interval in milliseconds before the first retry.
+     */
+    @Value("${ws.retry.optimistic-lock.initial-interval:20}")
+    private long initialInterval;
+
+    /**
+     * The multiplier applied to the interval for each subsequent retry.
+     */
+    @Value("${ws.retry.optimistic-lock.multiplier:2.0}")
+    private double multiplier;
+
+    /**
+     * The maximum interval in milliseconds between retries.
+     */
+    @Value("${ws.retry.optimistic-lock.max-interval:500}")
+    private long maxInterval;
+
+    /**
+     * Create the RetryTemplate for optimistic locking conflicts.
+     *
+     * @param counterService A CounterService used to record retry metrics.
+     * @return A RetryTemplate.
+     */
+    @Bean
+    public RetryTemplate optimisticLockRetryTemplate(final CounterService counterService) {
+        final SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(maxAttempts, Collections
+                .<Class<? extends Throwable>, Boolean> singletonMap(OptimisticLockingFailureException.class, true),
+                true);
+
+        final ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(initialInterval);
+        backOffPolicy.setMultiplier(multiplier);
+        backOffPolicy.setMaxInterval(maxInterval);
+
+        final RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(retryPolicy);
+        retryTemplate.setBackOffPolicy(backOffPolicy);
+        retryTemplate.registerListener(new RetryListenerSupport() {
+
+            @Override
+            public <T, E extends Throwable> void onError(final RetryContext context,
+                    final RetryCallback<T, E> callback, final Throwable throwable) {
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    logger.debug("Optimistic locking conflict on attempt {}. {}", context.getRetryCount(),
+                            throwable.getMessage());
+                    counterService.increment("retry.optimisticlock.conflict");
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(final RetryContext context,
+                    final RetryCallback<T, E> callback, final Throwable throwable) {
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    counterService.increment("retry.optimisticlock.exhausted");
+                } else if (throwable == null && context.getRetryCount() > 0) {
+                    counterService.increment("retry.optimisticlock.recovered");
+                }
+            }
+
+        });
+        return retryTemplate;
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.leanstacks.ws;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.leanstacks.ws.security.LoginAttemptTracker;
+
+/**
+ * <p>
+ * The PasswordVerificationConfiguration class configures the components which isolate password verification from
+ * the Tomcat request threads.
+ * </p>
+ * <p>
+ * Password hashes are computed on a dedicated, bounded executor sized to the number of processors. When its threads
+ * and queue are exhausted, the verification is rejected immediately and the request is answered with HTTP status 503,
+ * so a burst of authentication attempts cannot occupy every request thread. Rejections increment the
+ * <code>executor.passwordVerification.rejected</code> counter and queue statistics are published as
+ * <code>executor.passwordVerificationTaskExecutor.*</code> metrics.
+ * </p>
+ * <p>
+ * The LoginAttemptTracker locks a username for <code>ws.security.lockout.duration</code> milliseconds after
+ * <code>ws.security.lockout.max-failures</code> failed attempts within <code>ws.security.lockout.window</code>
+ * milliseconds. The password of a locked username is not verified.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+public class PasswordVerificationConfiguration {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerificationConfiguration.class);
+
+    /**
+     * The number of verification threads. A value of <code>0</code> uses the number of processors.
+     */
+    @Value("${ws.security.verification.pool-size:0}")
+    private int poolSize;
+
+    /**
+     * The maximum number of queued verifications.
+     */
+    @Value("${ws.security.verification.queue-capacity:50}")
+    private int queueCapacity;
+
+    /**
+     * The number of failed attempts which locks a username.
+     */
+    @Value("${ws.security.lockout.max-failures:5}")
+    private int maxFailures;
+
+    /**
+     * The period in which failed attempts are counted, in milliseconds.
+     */
+    @Value("${ws.security.lockout.window:60000}")
+    private long window;
+
+    /**
+     * The period for which a username is locked, in milliseconds.
+     */
+    @Value("${ws.security.lockout.duration:300000}")
+    private long duration;
+
+    /**
+     * Create the executor on which passwords are hashed and verified.
+     *
+     * @param counterService A CounterService used to record rejected verifications.
+     * @return A ThreadPoolTaskExecutor.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordVerificationTaskExecutor(final CounterService counterService) {
+        final int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-verification-");
+        executor.setDaemon(true);
+        executor.setRejectedExecutionHandler((task, threadPoolExecutor) -> {
+            logger.warn("Rejected password verification. Active:{} Queued:{}", threadPoolExecutor.getActiveCount(),
+                    threadPoolExecutor.getQueue().size());
+            counterService.increment("executor.passwordVerification.rejected");
+            throw new RejectedExecutionException("The password verification executor is saturated.");
+        });
+        return executor;
+    }
+
+    /**
+     * Create the LoginAttemptTracker which counts failed attempts per username.
+     *
+     * @return A LoginAttemptTracker.
+     */
+    @Bean
+    public LoginAttemptTracker loginAttemptTracker() {
+        return new LoginAttemptTracker(maxFailures, TimeUnit.MILLISECONDS.toNanos(window),
+                TimeUnit.MILLISECONDS.toNanos(duration), System::nanoTime);
+    }
+
+}
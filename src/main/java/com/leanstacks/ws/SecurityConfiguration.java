@@ -1,6 +1,10 @@
 package com.leanstacks.ws;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -12,8 +16,12 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 
+import com.leanstacks.ws.security.AccountAuthenticationEntryPoint;
 import com.leanstacks.ws.security.AccountAuthenticationProvider;
+import com.leanstacks.ws.security.BCryptCostCalibrator;
+import com.leanstacks.ws.security.DelegatingPasswordEncoder;
 
 /**
  * The SecurityConfiguration class provides a centralized location for
@@ -38,11 +46,38 @@ public class SecurityConfiguration {
      * PasswordEncoder is used by the AuthenticationProvider to perform one-way
      * hash operations on passwords for credential comparison.
      * 
+     * Encoded passwords are prefixed with the id of their algorithm, so
+     * passwords hashed by different algorithms or BCrypt costs are verified
+     * side by side. Unprefixed passwords are verified as BCrypt hashes.
+     * 
+     * @param algorithm The id of the algorithm which encodes new passwords.
+     * @param bcryptCost The BCrypt cost. A value of <code>0</code> selects the
+     *        cost by benchmarking the host against the latency budget.
+     * @param bcryptMinCost The minimum BCrypt cost selected by the benchmark.
+     * @param bcryptMaxCost The maximum BCrypt cost selected by the benchmark.
+     * @param latencyBudget The latency budget of one password hash, in
+     *        milliseconds.
      * @return A PasswordEncoder.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DelegatingPasswordEncoder passwordEncoder(
+            @Value("${ws.security.password.algorithm:bcrypt}") final String algorithm,
+            @Value("${ws.security.password.bcrypt.cost:0}") final int bcryptCost,
+            @Value("${ws.security.password.bcrypt.min-cost:10}") final int bcryptMinCost,
+            @Value("${ws.security.password.bcrypt.max-cost:14}") final int bcryptMaxCost,
+            @Value("${ws.security.password.latency-budget:100}") final long latencyBudget) {
+        final int cost = bcryptCost > 0 ? bcryptCost
+                : new BCryptCostCalibrator().calibrate(latencyBudget,
+                        bcryptMinCost, bcryptMaxCost);
+
+        final Map<String, PasswordEncoder> encoders =
+                new HashMap<String, PasswordEncoder>();
+        encoders.put(DelegatingPasswordEncoder.BCRYPT,
+                new BCryptPasswordEncoder(cost));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+
+        return new DelegatingPasswordEncoder(algorithm,
+                DelegatingPasswordEncoder.BCRYPT, encoders, cost);
     }
 
     /**
@@ -65,6 +100,8 @@ public class SecurityConfiguration {
     /**
      * This inner class configures the WebSecurityConfigurerAdapter instance for
      * the web service API context paths.
+     * Role checks are delegated to the RoleAuthorizer, which tests the role mask
+     * of the authenticated Account.
      * 
      * @author Matt Warman
      */
@@ -73,6 +110,12 @@ public class SecurityConfiguration {
     public static class ApiWebSecurityConfigurerAdapter
             extends WebSecurityConfigurerAdapter {
 
+        /**
+         * The AuthenticationEntryPoint which answers Basic Auth failures.
+         */
+        @Autowired
+        private transient AccountAuthenticationEntryPoint entryPoint;
+
         @Override
         protected void configure(final HttpSecurity http) throws Exception {
 
@@ -83,9 +126,10 @@ public class SecurityConfiguration {
             .csrf().disable()			
             .antMatcher("/api/**")
               .authorizeRequests()
-                .anyRequest().hasRole("USER")
+                .anyRequest().access("@roleAuthorizer.hasRole(authentication, 'USER')")
             .and()
             .httpBasic()
+              .authenticationEntryPoint(entryPoint)
             .and()
             .sessionManagement()
               .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
@@ -107,6 +151,12 @@ public class SecurityConfiguration {
     public static class ActuatorWebSecurityConfigurerAdapter
             extends WebSecurityConfigurerAdapter {
 
+        /**
+         * The AuthenticationEntryPoint which answers Basic Auth failures.
+         */
+        @Autowired
+        private transient AccountAuthenticationEntryPoint entryPoint;
+
         @Override
         protected void configure(final HttpSecurity http) throws Exception {
 
@@ -116,9 +166,10 @@ public class SecurityConfiguration {
             .csrf().disable()
             .antMatcher("/actuators/**")
               .authorizeRequests()
-                .anyRequest().hasRole("SYSADMIN")
+                .anyRequest().access("@roleAuthorizer.hasRole(authentication, 'SYSADMIN')")
             .and()
             .httpBasic()
+              .authenticationEntryPoint(entryPoint)
             .and()
             .sessionManagement()
               .sessionCreationPolicy(SessionCreationPolicy.STATELESS); 
@@ -0,0 +1,72 @@
+package com.leanstacks.ws;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.leanstacks.ws.actuator.endpoint.StartupEndpoint;
+import com.leanstacks.ws.startup.LazyInitializationBeanFactoryPostProcessor;
+import com.leanstacks.ws.startup.StartupTimeline;
+
+/**
+ * <p>
+ * The StartupConfiguration class configures the components which measure and reduce the application startup time.
+ * </p>
+ * <p>
+ * The StartupTimeline records the creation time of every singleton bean until the application is ready. The slowest
+ * beans and their sources, i.e. configuration and auto-configuration classes, are reported by the Actuator
+ * <code>startup</code> endpoint and written as JSON to <code>ws.startup.report.file</code>.
+ * </p>
+ * <p>
+ * When the <code>lazy</code> profile is active, the beans of non-critical components selected by the
+ * <code>ws.startup.lazy.*</code> properties are created on first use rather than at startup.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+public class StartupConfiguration {
+
+    /**
+     * Create the StartupTimeline. The bean post-processor is declared <code>static</code> so that it is registered
+     * before the beans it measures are created.
+     *
+     * @param maximumEntries The maximum number of beans and sources in the report.
+     * @param reportFile The path of the JSON report file; empty if the report is not written to a file.
+     * @return A StartupTimeline.
+     */
+    @Bean
+    public static StartupTimeline startupTimeline(
+            @Value("${ws.startup.report.maximum-entries:50}") final int maximumEntries,
+            @Value("${ws.startup.report.file:}") final String reportFile) {
+        return new StartupTimeline(maximumEntries, reportFile);
+    }
+
+    /**
+     * Create the Actuator endpoint which exposes the StartupTimeline report.
+     *
+     * @param startupTimeline The StartupTimeline.
+     * @return A StartupEndpoint.
+     */
+    @Bean
+    public StartupEndpoint startupEndpoint(final StartupTimeline startupTimeline) {
+        return new StartupEndpoint(startupTimeline);
+    }
+
+    /**
+     * Create the BeanFactoryPostProcessor which marks the beans of non-critical components as lazily initialized.
+     *
+     * @param includes The class name prefixes of lazily initialized beans.
+     * @param excludes The names of beans which are never lazily initialized.
+     * @return A LazyInitializationBeanFactoryPostProcessor.
+     */
+    @Bean
+    @Profile("lazy")
+    public static LazyInitializationBeanFactoryPostProcessor lazyInitializationBeanFactoryPostProcessor(
+            @Value("${ws.startup.lazy.include:}") final String[] includes,
+            @Value("${ws.startup.lazy.exclude:}") final String[] excludes) {
+        return new LazyInitializationBeanFactoryPostProcessor(includes, excludes);
+    }
+
+}
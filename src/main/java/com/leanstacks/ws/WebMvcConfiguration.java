@@ -0,0 +1,139 @@
+package com.leanstacks.ws;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import com.leanstacks.ws.web.interceptor.ConcurrencyLimitInterceptor;
+import com.leanstacks.ws.web.interceptor.ConcurrencyLimitInterceptor.LimitProperties;
+import com.leanstacks.ws.web.interceptor.RateLimitInterceptor;
+import com.leanstacks.ws.web.interceptor.RateLimitProperties;
+
+/**
+ * <p>
+ * The WebMvcConfiguration class registers the Spring MVC HandlerInterceptors applied to the web service endpoints.
+ * </p>
+ * <p>
+ * The RateLimitInterceptor is applied to all <code>/api/**</code> endpoints when the <code>ws.ratelimit.enabled</code>
+ * property is <code>true</code>. It precedes the concurrency limit so that requests rejected by the rate limit do not
+ * occupy concurrency permits. Rate limits are configured with the <code>ws.ratelimit.*</code> properties.
+ * </p>
+ * <p>
+ * The ConcurrencyLimitInterceptor is applied to all <code>/api/**</code> endpoints when the
+ * <code>ws.concurrency.enabled</code> property is <code>true</code>. Limits are configured for each route with the
+ * <code>ws.concurrency.route.*</code> properties and for each caller with the <code>ws.concurrency.user.*</code>
+ * properties. The change stream endpoints are excluded; a stream holds its connection for minutes and would otherwise
+ * occupy a permit and be treated as a slow request.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class WebMvcConfiguration extends WebMvcConfigurerAdapter {
+
+    /**
+     * The path pattern of the long-lived change stream endpoints, which are not concurrency limited.
+     */
+    private static final String PATTERN_STREAM = "/api/*/stream";
+
+    /**
+     * Indicates if concurrency limiting is enabled.
+     */
+    @Value("${ws.concurrency.enabled:true}")
+    private boolean concurrencyEnabled;
+
+    /**
+     * The initial concurrency limit of each route.
+     */
+    @Value("${ws.concurrency.route.initial-limit:20}")
+    private int routeInitialLimit;
+
+    /**
+     * The minimum concurrency limit of each route.
+     */
+    @Value("${ws.concurrency.route.min-limit:2}")
+    private int routeMinLimit;
+
+    /**
+     * The maximum concurrency limit of each route.
+     */
+    @Value("${ws.concurrency.route.max-limit:200}")
+    private int routeMaxLimit;
+
+    /**
+     * The initial concurrency limit of each caller.
+     */
+    @Value("${ws.concurrency.user.initial-limit:10}")
+    private int userInitialLimit;
+
+    /**
+     * The minimum concurrency limit of each caller.
+     */
+    @Value("${ws.concurrency.user.min-limit:1}")
+    private int userMinLimit;
+
+    /**
+     * The maximum concurrency limit of each caller.
+     */
+    @Value("${ws.concurrency.user.max-limit:20}")
+    private int userMaxLimit;
+
+    /**
+     * The ratio applied to a limit when requests are slow or fail.
+     */
+    @Value("${ws.concurrency.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    /**
+     * The latency, in milliseconds, above which a request is considered slow.
+     */
+    @Value("${ws.concurrency.latency-threshold-millis:500}")
+    private long latencyThresholdMillis;
+
+    /**
+     * The rate limit configuration.
+     */
+    private final RateLimitProperties rateLimitProperties;
+
+    /**
+     * The CounterService, when Actuator metrics are available.
+     */
+    private final ObjectProvider<CounterService> counterServiceProvider;
+
+    /**
+     * Construct a WebMvcConfiguration.
+     *
+     * @param rateLimitProperties The rate limit configuration.
+     * @param counterServiceProvider An ObjectProvider of the CounterService.
+     */
+    public WebMvcConfiguration(final RateLimitProperties rateLimitProperties,
+            final ObjectProvider<CounterService> counterServiceProvider) {
+        super();
+        this.rateLimitProperties = rateLimitProperties;
+        this.counterServiceProvider = counterServiceProvider;
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        if (rateLimitProperties.isEnabled()) {
+            registry.addInterceptor(
+                    new RateLimitInterceptor(rateLimitProperties, counterServiceProvider.getIfAvailable()))
+                    .addPathPatterns("/api/**");
+        }
+        if (concurrencyEnabled) {
+            final LimitProperties routeProperties = new LimitProperties(routeInitialLimit, routeMinLimit,
+                    routeMaxLimit, backoffRatio, latencyThresholdMillis);
+            final LimitProperties userProperties = new LimitProperties(userInitialLimit, userMinLimit, userMaxLimit,
+                    backoffRatio, latencyThresholdMillis);
+            registry.addInterceptor(new ConcurrencyLimitInterceptor(routeProperties, userProperties,
+                    counterServiceProvider.getIfAvailable())).addPathPatterns("/api/**")
+                    .excludePathPatterns(PATTERN_STREAM);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.leanstacks.ws.actuator.endpoint;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.leanstacks.ws.startup.StartupTimeline;
+
+/**
+ * <p>
+ * An Actuator endpoint which exposes the report of the StartupTimeline: the time until the application was ready and
+ * the slowest beans and bean sources, i.e. configuration and auto-configuration classes.
+ * </p>
+ * <p>
+ * The endpoint is available at <code>[management.context-path]/startup</code> and is sensitive by default.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@ConfigurationProperties(prefix = "endpoints.startup")
+public class StartupEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    /**
+     * The StartupTimeline.
+     */
+    private final transient StartupTimeline startupTimeline;
+
+    /**
+     * Construct a StartupEndpoint.
+     *
+     * @param startupTimeline The StartupTimeline.
+     */
+    public StartupEndpoint(final StartupTimeline startupTimeline) {
+        super("startup");
+        this.startupTimeline = startupTimeline;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        return startupTimeline.getReport();
+    }
+
+}
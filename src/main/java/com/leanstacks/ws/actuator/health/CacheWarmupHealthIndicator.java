@@ -0,0 +1,45 @@
+package com.leanstacks.ws.actuator.health;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import com.leanstacks.ws.service.CacheWarmupService;
+
+/**
+ * <p>
+ * A HealthIndicator which reports the readiness of the Hibernate second-level cache to the Actuator
+ * <code>health</code> endpoint.
+ * </p>
+ * <p>
+ * The status is <code>OUT_OF_SERVICE</code> until the initial cache warm-up completes, allowing a load balancer to
+ * withhold traffic from an instance with a cold cache. A background refresh after a cache eviction is reported in the
+ * <code>refreshing</code> detail but does not take the instance out of service; requests load evicted entities on
+ * demand meanwhile.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class CacheWarmupHealthIndicator extends AbstractHealthIndicator {
+
+    /**
+     * The CacheWarmupService.
+     */
+    @Autowired
+    private transient CacheWarmupService cacheWarmupService;
+
+    @Override
+    protected void doHealthCheck(final Health.Builder builder) throws Exception {
+        final boolean warm = cacheWarmupService.isWarm();
+        final boolean warming = cacheWarmupService.isWarming();
+        if (warm) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+        builder.withDetail("warm", warm).withDetail("refreshing", warm && warming);
+    }
+
+}
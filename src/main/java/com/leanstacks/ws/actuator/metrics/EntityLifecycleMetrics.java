@@ -0,0 +1,31 @@
+package com.leanstacks.ws.actuator.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.stereotype.Component;
+
+import com.leanstacks.ws.event.EntityLifecycleEvent;
+import com.leanstacks.ws.event.EntityLifecycleSubscriber;
+
+/**
+ * An EntityLifecycleSubscriber which counts committed entity changes. Counts are published to the Actuator
+ * <code>metrics</code> endpoint as <code>counter.entity.[entity type].[created|updated|deleted]</code>.
+ *
+ * @author Matt Warman
+ */
+@Component
+public class EntityLifecycleMetrics implements EntityLifecycleSubscriber {
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    @Override
+    public void onEntityLifecycleEvent(final EntityLifecycleEvent event) {
+        counterService.increment("entity." + event.getEntityClass().getSimpleName().toLowerCase() + "."
+                + event.getChangeType().name().toLowerCase());
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.leanstacks.ws.actuator.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * A PublicMetrics implementation which publishes the statistics of every ThreadPoolTaskExecutor bean to the Actuator
+ * <code>metrics</code> endpoint.
+ * </p>
+ * <p>
+ * Statistics are published as <code>executor.[bean name].[active|pool|queue|completed]</code>.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class ExecutorPublicMetrics implements PublicMetrics {
+
+    /**
+     * The ThreadPoolTaskExecutor beans, keyed by bean name.
+     */
+    @Autowired(required = false)
+    private transient Map<String, ThreadPoolTaskExecutor> executors = Collections.emptyMap();
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final Set<Metric<?>> metrics = new LinkedHashSet<Metric<?>>();
+
+        for (final Map.Entry<String, ThreadPoolTaskExecutor> entry : executors.entrySet()) {
+            final ThreadPoolExecutor executor = entry.getValue().getThreadPoolExecutor();
+            final String prefix = "executor." + entry.getKey() + ".";
+            metrics.add(new Metric<Integer>(prefix + "active", executor.getActiveCount()));
+            metrics.add(new Metric<Integer>(prefix + "pool", executor.getPoolSize()));
+            metrics.add(new Metric<Integer>(prefix + "queue", executor.getQueue().size()));
+            metrics.add(new Metric<Long>(prefix + "completed", executor.getCompletedTaskCount()));
+        }
+
+        return metrics;
+    }
+
+}
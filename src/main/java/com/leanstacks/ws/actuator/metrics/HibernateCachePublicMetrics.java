@@ -0,0 +1,66 @@
+package com.leanstacks.ws.actuator.metrics;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * A PublicMetrics implementation which publishes Hibernate second-level cache and query cache statistics to the
+ * Actuator <code>metrics</code> endpoint.
+ * </p>
+ * <p>
+ * Region statistics are published as <code>hibernate.cache.[region].[hit|miss|put|size]</code>. Query cache statistics
+ * are published as <code>hibernate.querycache.[hit|miss|put]</code>. Statistics are only collected when the
+ * <code>hibernate.generate_statistics</code> property is <code>true</code>.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class HibernateCachePublicMetrics implements PublicMetrics {
+
+    /**
+     * The JPA EntityManagerFactory.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final Set<Metric<?>> metrics = new LinkedHashSet<Metric<?>>();
+
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return metrics;
+        }
+
+        for (final String region : statistics.getSecondLevelCacheRegionNames()) {
+            final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(region);
+            if (regionStatistics != null) {
+                final String prefix = "hibernate.cache." + region + ".";
+                metrics.add(new Metric<Long>(prefix + "hit", regionStatistics.getHitCount()));
+                metrics.add(new Metric<Long>(prefix + "miss", regionStatistics.getMissCount()));
+                metrics.add(new Metric<Long>(prefix + "put", regionStatistics.getPutCount()));
+                metrics.add(new Metric<Long>(prefix + "size", regionStatistics.getElementCountInMemory()));
+            }
+        }
+
+        metrics.add(new Metric<Long>("hibernate.querycache.hit", statistics.getQueryCacheHitCount()));
+        metrics.add(new Metric<Long>("hibernate.querycache.miss", statistics.getQueryCacheMissCount()));
+        metrics.add(new Metric<Long>("hibernate.querycache.put", statistics.getQueryCachePutCount()));
+
+        return metrics;
+    }
+
+}
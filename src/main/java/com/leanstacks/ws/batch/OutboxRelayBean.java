@@ -0,0 +1,90 @@
+package com.leanstacks.ws.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.leanstacks.ws.service.OutboxEventSink;
+import com.leanstacks.ws.service.OutboxService;
+
+/**
+ * <p>
+ * The OutboxRelayBean contains <code>@Scheduled</code> methods operating on the transactional outbox.
+ * </p>
+ * <p>
+ * Each execution relays batches of unpublished change events to the OutboxEventSink until the outbox is drained or the
+ * configured number of batches has been relayed. Each batch is published and marked published in its own transaction.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@Profile("batch")
+@Component
+public class OutboxRelayBean {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayBean.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The OutboxService.
+     */
+    @Autowired
+    private transient OutboxService outboxService;
+
+    /**
+     * The OutboxEventSink to which change events are published.
+     */
+    @Autowired
+    private transient OutboxEventSink outboxEventSink;
+
+    /**
+     * The maximum number of events published in a batch.
+     */
+    @Value("${ws.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * The maximum number of batches relayed by each execution.
+     */
+    @Value("${ws.outbox.relay.max-batches:10}")
+    private int maxBatches;
+
+    /**
+     * Relay unpublished change events. Executes with a fixed delay between the end of one execution and the start of
+     * the next.
+     */
+    @Scheduled(initialDelayString = "${ws.outbox.relay.initial-delay:5000}",
+            fixedDelayString = "${ws.outbox.relay.fixed-delay:1000}")
+    public void relayOutboxEvents() {
+        logger.debug("> relayOutboxEvents");
+
+        counterService.increment("method.invoked.outboxRelayBean.relayOutboxEvents");
+
+        try {
+            int batches = 0;
+            while (batches < maxBatches && outboxService.relay(batchSize, outboxEventSink) == batchSize) {
+                batches++;
+            }
+        } catch (RuntimeException ex) {
+            // the failed batch remains unpublished and is retried by the next execution
+            logger.error("Failed to relay outbox events.", ex);
+            counterService.increment("outbox.relay.failed");
+        }
+
+        logger.debug("< relayOutboxEvents");
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.leanstacks.ws.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import com.leanstacks.ws.util.LogSampler;
+
+/**
+ * <p>
+ * The AbstractInvalidationBus class manages subscribers and the delivery of received Invalidation messages for
+ * InvalidationBus implementations.
+ * </p>
+ * <p>
+ * A bus which sends messages over the network is constructed with a secret shared by the nodes of the cluster. Each
+ * message is the encoded Invalidation followed by a tab and the Base64-encoded HMAC-SHA256 of the encoded Invalidation
+ * under the secret; received messages without a valid HMAC are ignored. A captured message may be replayed, which
+ * only evicts the named entities again. Rejected messages are logged at most once every ten seconds.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public abstract class AbstractInvalidationBus implements InvalidationBus {
+
+    /**
+     * The Logger for this Class.
+     */
+    protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * The maximum length of a message: an encoded Invalidation, a tab and the Base64-encoded HMAC.
+     */
+    public static final int MAX_MESSAGE_LENGTH = Invalidation.MAX_LENGTH + 1 + 44;
+
+    /**
+     * The separator between an encoded Invalidation and its HMAC.
+     */
+    private static final char MAC_SEPARATOR = '\t';
+
+    /**
+     * The MAC algorithm which authenticates messages.
+     */
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * The minimum time, in milliseconds, between warnings of the same kind about rejected messages or connections.
+     */
+    private static final long WARNING_INTERVAL = 10000L;
+
+    /**
+     * The identifier of the local node.
+     */
+    private final String nodeId;
+
+    /**
+     * The registered subscribers.
+     */
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<Consumer<Invalidation>>();
+
+    /**
+     * The key which authenticates messages, or <code>null</code> if the bus does not send messages over the network.
+     */
+    private final SecretKeySpec key;
+
+    /**
+     * Limits the warnings about rejected messages and connections.
+     */
+    private final LogSampler logSampler = new LogSampler(TimeUnit.MILLISECONDS.toNanos(WARNING_INTERVAL),
+            System::nanoTime);
+
+    /**
+     * Construct an AbstractInvalidationBus which does not send messages over the network.
+     *
+     * @param nodeId The identifier of the local node.
+     */
+    protected AbstractInvalidationBus(final String nodeId) {
+        this.nodeId = nodeId;
+        this.key = null;
+    }
+
+    /**
+     * Construct an AbstractInvalidationBus which authenticates its messages with a shared secret.
+     *
+     * @param nodeId The identifier of the local node.
+     * @param secret The secret shared by the nodes of the cluster.
+     */
+    protected AbstractInvalidationBus(final String nodeId, final String secret) {
+        if (!StringUtils.hasText(secret)) {
+            throw new IllegalArgumentException("A shared secret is required to send invalidations over the network.");
+        }
+        this.nodeId = nodeId;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void subscribe(final Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Deliver a received Invalidation to the subscribers. Messages published by the local node are ignored.
+     *
+     * @param invalidation A received Invalidation.
+     */
+    protected void deliver(final Invalidation invalidation) {
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        for (final Consumer<Invalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException ex) {
+                logger.error("Invalidation subscriber failed for {}.", invalidation, ex);
+            }
+        }
+    }
+
+    /**
+     * Encode an Invalidation and its HMAC as a message.
+     *
+     * @param invalidation An Invalidation.
+     * @return The message.
+     */
+    protected String encode(final Invalidation invalidation) {
+        final String encoded = invalidation.encode();
+        return encoded + MAC_SEPARATOR + Base64.getEncoder().encodeToString(mac(encoded));
+    }
+
+    /**
+     * Authenticate, decode and deliver a received message. Unauthenticated and malformed messages are ignored.
+     *
+     * @param message A message produced by <code>encode</code>.
+     * @return <code>true</code> if the message was delivered, <code>false</code> if it was ignored.
+     */
+    protected boolean deliver(final String message) {
+        final int separator = message.lastIndexOf(MAC_SEPARATOR);
+        if (separator < 0 || !authentic(message.substring(0, separator), message.substring(separator + 1))) {
+            warn("unauthenticated", "Ignored unauthenticated invalidation message.");
+            return false;
+        }
+        final Invalidation invalidation = Invalidation.decode(message.substring(0, separator));
+        if (invalidation == null) {
+            warn("malformed", "Ignored malformed invalidation message.");
+            return false;
+        }
+        deliver(invalidation);
+        return true;
+    }
+
+    /**
+     * Log a warning about a rejected message or connection, unless a warning of the same kind was logged recently.
+     *
+     * @param kind The kind of warning.
+     * @param message The warning.
+     */
+    protected void warn(final String kind, final String message) {
+        final long suppressed = logSampler.sample(kind);
+        if (suppressed != LogSampler.SUPPRESSED) {
+            logger.warn("{} Suppressed:{}", message, suppressed);
+        }
+    }
+
+    /**
+     * Verify the HMAC of an encoded Invalidation, in constant time.
+     *
+     * @param encoded The encoded Invalidation.
+     * @param mac The Base64-encoded HMAC received with it.
+     * @return <code>true</code> if the HMAC is valid.
+     */
+    private boolean authentic(final String encoded, final String mac) {
+        try {
+            return MessageDigest.isEqual(mac(encoded), Base64.getDecoder().decode(mac));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Compute the HMAC of an encoded Invalidation.
+     *
+     * @param encoded The encoded Invalidation.
+     * @return The HMAC.
+     */
+    private byte[] mac(final String encoded) {
+        if (key == null) {
+            throw new IllegalStateException("The bus has no shared secret.");
+        }
+        try {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encoded.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Failed to compute invalidation HMAC.", ex);
+        }
+    }
+
+}
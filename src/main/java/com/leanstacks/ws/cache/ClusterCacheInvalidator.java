@@ -0,0 +1,143 @@
+package com.leanstacks.ws.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.stereotype.Component;
+
+import com.leanstacks.ws.event.EntityLifecycleEvent;
+import com.leanstacks.ws.event.EntityLifecycleSubscriber;
+
+/**
+ * <p>
+ * The ClusterCacheInvalidator keeps the second-level caches of the nodes of a cluster consistent. It subscribes to
+ * committed entity changes and broadcasts an Invalidation on the InvalidationBus for each, and evicts the entities
+ * named by Invalidation messages received from other nodes.
+ * </p>
+ * <p>
+ * The invalidator is a synchronous EntityLifecycleSubscriber: Invalidations are published on the committing thread,
+ * so they are not lost when the entity lifecycle queue discards events on overflow. Publishing does not wait on the
+ * network.
+ * </p>
+ * <p>
+ * Metrics are published as <code>cache.invalidation.[published|received|ignored]</code>.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class ClusterCacheInvalidator implements InitializingBean, EntityLifecycleSubscriber {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The JPA EntityManagerFactory.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The InvalidationBus.
+     */
+    @Autowired
+    private transient InvalidationBus invalidationBus;
+
+    /**
+     * The entity classes, keyed by JPA entity name. Received messages may only evict these classes.
+     */
+    private final Map<String, Class<?>> entityClasses = new HashMap<String, Class<?>>();
+
+    @Override
+    public void afterPropertiesSet() {
+        for (final EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            entityClasses.put(entityType.getName(), entityType.getJavaType());
+        }
+        invalidationBus.subscribe(this::evict);
+    }
+
+    /**
+     * Invalidate a committed entity change on the other nodes of the cluster. Created entities are not cached on other
+     * nodes, but their Invalidation admits them to the MissingEntityCache of each node.
+     *
+     * @param event An EntityLifecycleEvent.
+     */
+    @Override
+    public void onEntityLifecycleEvent(final EntityLifecycleEvent event) {
+        publish(new Invalidation(invalidationBus.getNodeId(), entityName(event.getEntityClass()),
+                event.getEntityId()));
+    }
+
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+
+    /**
+     * Invalidate all entities of a type on the other nodes of the cluster. The Invalidation is published immediately.
+     *
+     * @param entityClass The entity class.
+     */
+    public void invalidateAll(final Class<?> entityClass) {
+        publish(new Invalidation(invalidationBus.getNodeId(), entityName(entityClass), null));
+    }
+
+    /**
+     * Publish an Invalidation on the InvalidationBus.
+     *
+     * @param invalidation An Invalidation.
+     */
+    private void publish(final Invalidation invalidation) {
+        logger.debug("Publishing invalidation {}.", invalidation);
+        counterService.increment("cache.invalidation.published");
+        invalidationBus.publish(invalidation);
+    }
+
+    /**
+     * Evict the entities named by an Invalidation received from another node.
+     *
+     * @param invalidation A received Invalidation.
+     */
+    private void evict(final Invalidation invalidation) {
+        final Class<?> entityClass = entityClasses.get(invalidation.getEntityName());
+        if (entityClass == null) {
+            logger.warn("Ignored invalidation of unknown entity {}.", invalidation);
+            counterService.increment("cache.invalidation.ignored");
+            return;
+        }
+        logger.debug("Evicting {}.", invalidation);
+        counterService.increment("cache.invalidation.received");
+        if (invalidation.getId() == null) {
+            entityManagerFactory.getCache().evict(entityClass);
+        } else {
+            entityManagerFactory.getCache().evict(entityClass, invalidation.getId());
+        }
+    }
+
+    /**
+     * Returns the JPA entity name of an entity class.
+     *
+     * @param entityClass The entity class.
+     * @return The entity name.
+     */
+    private String entityName(final Class<?> entityClass) {
+        return entityManagerFactory.getMetamodel().entity(entityClass).getName();
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.leanstacks.ws.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * <p>
+ * An ExistenceFilter is a Bloom filter of the identifiers of the entities of one type which exist, or have existed.
+ * An identifier which the filter has never seen certainly never existed, so its lookup may be answered without
+ * querying the database. An identifier which the filter may have seen must still be looked up.
+ * </p>
+ * <p>
+ * Deleted identifiers cannot be removed from a Bloom filter, and identifiers created by other nodes may be missed if
+ * an invalidation message is lost, so the filter is periodically rebuilt from the identifiers in the database.
+ * Identifiers added while a rebuild is in progress are carried over to the rebuilt filter.
+ * </p>
+ * <p>
+ * The Guava BloomFilter is not thread-safe, so reads share and writes hold a ReadWriteLock.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class ExistenceFilter {
+
+    /**
+     * The expected number of identifiers.
+     */
+    private final int expectedInsertions;
+
+    /**
+     * The desired false positive probability.
+     */
+    private final double fpp;
+
+    /**
+     * Guards the filter.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The identifiers added while a rebuild is in progress.
+     */
+    private final List<Long> addedDuringRebuild = new ArrayList<Long>();
+
+    /**
+     * The Bloom filter, or <code>null</code> until first built.
+     */
+    private BloomFilter<Long> filter;
+
+    /**
+     * Indicates if a rebuild is in progress.
+     */
+    private boolean rebuilding;
+
+    /**
+     * Construct an ExistenceFilter. The filter admits every identifier until it is first rebuilt.
+     *
+     * @param expectedInsertions The expected number of identifiers.
+     * @param fpp The desired false positive probability, e.g. <code>0.01</code>.
+     */
+    public ExistenceFilter(final int expectedInsertions, final double fpp) {
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+    }
+
+    /**
+     * Indicates if an entity with the supplied identifier may exist.
+     *
+     * @param id An entity identifier.
+     * @return <code>false</code> if the identifier certainly never existed, otherwise <code>true</code>.
+     */
+    public boolean mightExist(final Long id) {
+        lock.readLock().lock();
+        try {
+            return filter == null || filter.mightContain(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the identifier of a created entity.
+     *
+     * @param id An entity identifier.
+     */
+    public void add(final Long id) {
+        lock.writeLock().lock();
+        try {
+            if (filter != null) {
+                filter.put(id);
+            }
+            if (rebuilding) {
+                addedDuringRebuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mark the start of a rebuild. Identifiers added from now on are carried over to the rebuilt filter.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            addedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the filter with one built from the supplied identifiers, which must have been read after
+     * <code>beginRebuild</code> was invoked.
+     *
+     * @param ids The identifiers of the existing entities.
+     */
+    public void completeRebuild(final Collection<Long> ids) {
+        final BloomFilter<Long> rebuilt =
+                BloomFilter.create(Funnels.longFunnel(), Math.max(expectedInsertions, ids.size()), fpp);
+        for (final Long id : ids) {
+            rebuilt.put(id);
+        }
+        lock.writeLock().lock();
+        try {
+            for (final Long id : addedDuringRebuild) {
+                rebuilt.put(id);
+            }
+            addedDuringRebuild.clear();
+            rebuilding = false;
+            filter = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+}
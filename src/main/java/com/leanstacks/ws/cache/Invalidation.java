@@ -0,0 +1,102 @@
+package com.leanstacks.ws.cache;
+
+/**
+ * <p>
+ * An Invalidation is a message broadcast to the nodes of a cluster instructing each node to evict an entity, or all
+ * entities of a type, from its second-level cache.
+ * </p>
+ * <p>
+ * The wire format is a single line of tab-separated values: the origin node identifier, the entity name and the entity
+ * identifier. The entity identifier is empty when the entire entity region is invalidated.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class Invalidation {
+
+    /**
+     * The field separator of the wire format.
+     */
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * The maximum length of an encoded Invalidation.
+     */
+    public static final int MAX_LENGTH = 512;
+
+    /**
+     * The identifier of the node which published the Invalidation.
+     */
+    private final String origin;
+
+    /**
+     * The JPA entity name.
+     */
+    private final String entityName;
+
+    /**
+     * The entity identifier, or <code>null</code> if all entities of the type are invalidated.
+     */
+    private final Long id;
+
+    /**
+     * Construct an Invalidation.
+     *
+     * @param origin The identifier of the node which published the Invalidation.
+     * @param entityName The JPA entity name.
+     * @param id The entity identifier, or <code>null</code> if all entities of the type are invalidated.
+     */
+    public Invalidation(final String origin, final String entityName, final Long id) {
+        this.origin = origin;
+        this.entityName = entityName;
+        this.id = id;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encode this Invalidation in the wire format.
+     *
+     * @return The encoded Invalidation.
+     */
+    public String encode() {
+        return origin + SEPARATOR + entityName + SEPARATOR + (id == null ? "" : id.toString());
+    }
+
+    /**
+     * Decode an Invalidation from the wire format.
+     *
+     * @param value The encoded Invalidation.
+     * @return An Invalidation, or <code>null</code> if the value is malformed.
+     */
+    public static Invalidation decode(final String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return null;
+        }
+        final String[] fields = value.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length != 3 || fields[0].isEmpty() || fields[1].isEmpty()) {
+            return null;
+        }
+        try {
+            return new Invalidation(fields[0], fields[1], fields[2].isEmpty() ? null : Long.valueOf(fields[2]));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return entityName + (id == null ? "" : "#" + id) + " from " + origin;
+    }
+
+}
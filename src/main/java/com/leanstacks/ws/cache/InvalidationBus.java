@@ -0,0 +1,41 @@
+package com.leanstacks.ws.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * The InvalidationBus interface defines the transport which broadcasts cache Invalidation messages to the nodes of a
+ * cluster.
+ * </p>
+ * <p>
+ * Subscribers receive the Invalidation messages published by other nodes; messages published by the local node are
+ * not delivered locally. Delivery is best-effort: a message lost in transit leaves a stale entry on the affected node
+ * until the entry expires from the cache.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public interface InvalidationBus {
+
+    /**
+     * Returns the identifier of the local node.
+     *
+     * @return The node identifier.
+     */
+    String getNodeId();
+
+    /**
+     * Broadcast an Invalidation to the other nodes of the cluster.
+     *
+     * @param invalidation An Invalidation.
+     */
+    void publish(Invalidation invalidation);
+
+    /**
+     * Register a subscriber which receives the Invalidation messages published by other nodes.
+     *
+     * @param subscriber A Consumer of Invalidation messages.
+     */
+    void subscribe(Consumer<Invalidation> subscriber);
+
+}
@@ -0,0 +1,43 @@
+package com.leanstacks.ws.cache;
+
+import java.util.List;
+
+/**
+ * <p>
+ * An in-JVM InvalidationBus. Each LocalInvalidationBus joins a group of buses supplied at construction; an Invalidation
+ * published on one bus is delivered synchronously to the other buses of the group.
+ * </p>
+ * <p>
+ * A single-node deployment uses a group with one member, so published messages have no effect. Tests may construct
+ * several buses sharing a group to simulate a cluster.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class LocalInvalidationBus extends AbstractInvalidationBus {
+
+    /**
+     * The members of the group, including this bus.
+     */
+    private final List<LocalInvalidationBus> group;
+
+    /**
+     * Construct a LocalInvalidationBus and add it to the supplied group.
+     *
+     * @param nodeId The identifier of the local node.
+     * @param group The thread-safe list of group members shared by the buses of the simulated cluster.
+     */
+    public LocalInvalidationBus(final String nodeId, final List<LocalInvalidationBus> group) {
+        super(nodeId);
+        this.group = group;
+        group.add(this);
+    }
+
+    @Override
+    public void publish(final Invalidation invalidation) {
+        for (final LocalInvalidationBus member : group) {
+            member.deliver(invalidation);
+        }
+    }
+
+}
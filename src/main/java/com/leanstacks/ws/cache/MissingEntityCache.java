@@ -0,0 +1,374 @@
+package com.leanstacks.ws.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.leanstacks.ws.event.EntityLifecycleEvent;
+import com.leanstacks.ws.event.EntityLifecycleSubscriber;
+import com.leanstacks.ws.model.Account;
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+
+/**
+ * <p>
+ * The MissingEntityCache answers lookups of entities which do not exist without querying the database, so that
+ * clients requesting unknown identifiers or usernames do not consume JDBC connections.
+ * </p>
+ * <p>
+ * Lookups by identifier of the Greeting and Country entities are fronted by an ExistenceFilter, which rejects
+ * identifiers that never existed, and a NegativeCache, which remembers identifiers recently found to be missing.
+ * Lookups of Accounts by username are fronted by a NegativeCache. Each NegativeCache entry expires after
+ * <code>ws.cache.negative.ttl</code> milliseconds and the ExistenceFilters are rebuilt every
+ * <code>ws.cache.negative.bloom.rebuild-interval</code> milliseconds.
+ * </p>
+ * <p>
+ * Created entities are admitted when the creating service invokes <code>created</code> and again after its
+ * transaction commits. Entities created on other nodes are admitted when their Invalidation is received from the
+ * InvalidationBus. Metrics are published as <code>cache.negative.[filtered|hit|recorded]</code>.
+ * </p>
+ * <p>
+ * A lookup which found nothing may complete after the entity was created and admitted, e.g. when it read a replica
+ * which had not yet received the insert. Each admission is therefore timestamped, and a missing identifier is not
+ * recorded when its lookup started before the admission plus <code>ws.cache.negative.replica-lag</code> milliseconds.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class MissingEntityCache implements InitializingBean, DisposableBean, EntityLifecycleSubscriber {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MissingEntityCache.class);
+
+    /**
+     * The entity classes whose lookups by identifier are fronted by an ExistenceFilter.
+     */
+    private static final List<Class<?>> FILTERED_CLASSES = Arrays.<Class<?>> asList(Greeting.class, Country.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The JPA EntityManagerFactory.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The InvalidationBus, which carries the identifiers of entities created on other nodes.
+     */
+    @Autowired
+    private transient InvalidationBus invalidationBus;
+
+    /**
+     * Indicates if missing entity caching is enabled.
+     */
+    @Value("${ws.cache.negative.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * The maximum number of keys held by each NegativeCache.
+     */
+    @Value("${ws.cache.negative.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * The time for which a missing key is remembered, in milliseconds.
+     */
+    @Value("${ws.cache.negative.ttl:30000}")
+    private long ttl;
+
+    /**
+     * The maximum time, in milliseconds, by which a replica may trail the primary.
+     */
+    @Value("${ws.cache.negative.replica-lag:1000}")
+    private long replicaLag;
+
+    /**
+     * The expected number of identifiers of each filtered entity class.
+     */
+    @Value("${ws.cache.negative.bloom.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    /**
+     * The desired false positive probability of each ExistenceFilter.
+     */
+    @Value("${ws.cache.negative.bloom.fpp:0.01}")
+    private double fpp;
+
+    /**
+     * The interval, in milliseconds, between ExistenceFilter rebuilds. Zero disables scheduled rebuilds.
+     */
+    @Value("${ws.cache.negative.bloom.rebuild-interval:300000}")
+    private long rebuildInterval;
+
+    /**
+     * The ExistenceFilters keyed by entity class.
+     */
+    private Map<Class<?>, ExistenceFilter> filters;
+
+    /**
+     * The NegativeCaches of missing identifiers keyed by entity class.
+     */
+    private Map<Class<?>, NegativeCache<Long>> missingIds;
+
+    /**
+     * The times, from <code>System.nanoTime()</code>, at which identifiers were admitted keyed by entity class.
+     */
+    private Map<Class<?>, Cache<Long, Long>> admissions;
+
+    /**
+     * The NegativeCache of missing Account usernames.
+     */
+    private NegativeCache<String> missingUsernames;
+
+    /**
+     * The entity classes keyed by JPA entity name.
+     */
+    private final Map<String, Class<?>> entityClasses = new HashMap<String, Class<?>>();
+
+    /**
+     * The executor which performs scheduled rebuilds.
+     */
+    private transient ScheduledExecutorService scheduler;
+
+    @Override
+    public void afterPropertiesSet() {
+        final Map<Class<?>, ExistenceFilter> filterMap = new HashMap<Class<?>, ExistenceFilter>();
+        final Map<Class<?>, NegativeCache<Long>> missingMap = new HashMap<Class<?>, NegativeCache<Long>>();
+        final Map<Class<?>, Cache<Long, Long>> admissionMap = new HashMap<Class<?>, Cache<Long, Long>>();
+        for (final Class<?> entityClass : FILTERED_CLASSES) {
+            filterMap.put(entityClass, new ExistenceFilter(expectedInsertions, fpp));
+            missingMap.put(entityClass, new NegativeCache<Long>(maximumSize, ttl));
+            admissionMap.put(entityClass, Caffeine.newBuilder().maximumSize(maximumSize)
+                    .expireAfterWrite(ttl + replicaLag, TimeUnit.MILLISECONDS).<Long, Long> build());
+            entityClasses.put(entityManagerFactory.getMetamodel().entity(entityClass).getName(), entityClass);
+        }
+        entityClasses.put(entityManagerFactory.getMetamodel().entity(Account.class).getName(), Account.class);
+        filters = Collections.unmodifiableMap(filterMap);
+        missingIds = Collections.unmodifiableMap(missingMap);
+        admissions = Collections.unmodifiableMap(admissionMap);
+        missingUsernames = new NegativeCache<String>(maximumSize, ttl);
+
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        invalidationBus.subscribe(this::onInvalidation);
+        if (rebuildInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "existence-filter-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException ex) {
+                    // keep the previous filters; the next rebuild retries
+                    logger.error("Failed to rebuild existence filters.", ex);
+                }
+            }, rebuildInterval, rebuildInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Indicates if the entity with the supplied identifier is known not to exist.
+     *
+     * @param entityClass The entity class.
+     * @param id The entity identifier.
+     * @return <code>true</code> if the entity certainly or recently did not exist, otherwise <code>false</code>.
+     */
+    public boolean isMissing(final Class<?> entityClass, final Long id) {
+        if (!enabled || id == null) {
+            return false;
+        }
+        if (!filters.get(entityClass).mightExist(id)) {
+            counterService.increment("cache.negative.filtered");
+            return true;
+        }
+        if (missingIds.get(entityClass).isMissing(id)) {
+            counterService.increment("cache.negative.hit");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record that the entity with the supplied identifier was not found, unless the entity was admitted after, or
+     * shortly before, the lookup started. The admission is checked again after recording, so an admission concurrent
+     * with this method cannot leave a stale entry.
+     *
+     * @param entityClass The entity class.
+     * @param id The entity identifier.
+     * @param readStart The <code>System.nanoTime()</code> at which the lookup started.
+     */
+    public void recordMissing(final Class<?> entityClass, final Long id, final long readStart) {
+        if (enabled && id != null && !admittedSince(entityClass, id, readStart)) {
+            counterService.increment("cache.negative.recorded");
+            missingIds.get(entityClass).recordMissing(id);
+            if (admittedSince(entityClass, id, readStart)) {
+                missingIds.get(entityClass).invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * Indicates if the Account with the supplied username is known not to exist.
+     *
+     * @param username A username.
+     * @return <code>true</code> if the Account recently did not exist, otherwise <code>false</code>.
+     */
+    public boolean isMissingUsername(final String username) {
+        if (enabled && missingUsernames.isMissing(username)) {
+            counterService.increment("cache.negative.hit");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record that the Account with the supplied username was not found.
+     *
+     * @param username A username.
+     */
+    public void recordMissingUsername(final String username) {
+        if (enabled) {
+            counterService.increment("cache.negative.recorded");
+            missingUsernames.recordMissing(username);
+        }
+    }
+
+    /**
+     * Admit a created entity. Invoked by the creating service after the entity is saved; the entity is admitted
+     * immediately and again after the transaction commits, so a concurrent lookup cannot leave a stale negative entry.
+     *
+     * @param entityClass The entity class.
+     * @param id The entity identifier.
+     */
+    public void created(final Class<?> entityClass, final Long id) {
+        admit(entityClass, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    admit(entityClass, id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Forget the usernames known to be missing when an Account is created.
+     *
+     * @param event An EntityLifecycleEvent.
+     */
+    @Override
+    public void onEntityLifecycleEvent(final EntityLifecycleEvent event) {
+        if (event.getChangeType() == ChangeType.CREATED && Account.class.equals(event.getEntityClass())) {
+            missingUsernames.invalidateAll();
+        }
+    }
+
+    /**
+     * Rebuild the ExistenceFilters from the identifiers in the database.
+     */
+    public void rebuild() {
+        logger.info("> rebuild");
+
+        for (final Map.Entry<Class<?>, ExistenceFilter> entry : filters.entrySet()) {
+            final ExistenceFilter filter = entry.getValue();
+            filter.beginRebuild();
+            final EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                filter.completeRebuild(entityManager
+                        .createQuery("SELECT e.id FROM " + entry.getKey().getSimpleName() + " e", Long.class)
+                        .getResultList());
+            } finally {
+                entityManager.close();
+            }
+        }
+
+        logger.info("< rebuild");
+    }
+
+    /**
+     * Admit an entity which may have been created on another node.
+     *
+     * @param invalidation An Invalidation received from another node.
+     */
+    private void onInvalidation(final Invalidation invalidation) {
+        final Class<?> entityClass = entityClasses.get(invalidation.getEntityName());
+        if (Account.class.equals(entityClass)) {
+            missingUsernames.invalidateAll();
+        } else if (entityClass != null && invalidation.getId() == null) {
+            missingIds.get(entityClass).invalidateAll();
+        } else if (entityClass != null) {
+            admit(entityClass, invalidation.getId());
+        }
+    }
+
+    /**
+     * Add an identifier to the ExistenceFilter, timestamp its admission and remove it from the NegativeCache.
+     *
+     * @param entityClass The entity class.
+     * @param id The entity identifier.
+     */
+    private void admit(final Class<?> entityClass, final Long id) {
+        if (enabled) {
+            filters.get(entityClass).add(id);
+            admissions.get(entityClass).put(id, System.nanoTime());
+            missingIds.get(entityClass).invalidate(id);
+        }
+    }
+
+    /**
+     * Indicates if the supplied identifier was admitted too recently for a lookup started at the supplied time to
+     * prove it missing.
+     *
+     * @param entityClass The entity class.
+     * @param id The entity identifier.
+     * @param readStart The <code>System.nanoTime()</code> at which the lookup started.
+     * @return <code>true</code> if the lookup may not have seen the entity, otherwise <code>false</code>.
+     */
+    private boolean admittedSince(final Class<?> entityClass, final Long id, final long readStart) {
+        final Long admitted = admissions.get(entityClass).getIfPresent(id);
+        return admitted != null && readStart - admitted < TimeUnit.MILLISECONDS.toNanos(replicaLag);
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.leanstacks.ws.cache;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * An InvalidationBus which broadcasts Invalidation messages as UDP multicast datagrams. Every node joins the same
+ * multicast group and port; each datagram carries a single encoded Invalidation and its HMAC. Any host which can
+ * reach the group can send datagrams to it, so datagrams without a valid HMAC under the shared secret are ignored.
+ * </p>
+ * <p>
+ * UDP delivery is unacknowledged. The transport suits a cluster on a single network segment where multicast is
+ * permitted; otherwise use the PeerInvalidationBus.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class MulticastInvalidationBus extends AbstractInvalidationBus {
+
+    /**
+     * The multicast group address.
+     */
+    private final InetAddress group;
+
+    /**
+     * The multicast port.
+     */
+    private final int port;
+
+    /**
+     * The multicast time-to-live, i.e. the number of network hops a datagram may traverse.
+     */
+    private final int timeToLive;
+
+    /**
+     * The multicast socket.
+     */
+    private MulticastSocket socket;
+
+    /**
+     * The thread which receives datagrams.
+     */
+    private Thread receiver;
+
+    /**
+     * Construct a MulticastInvalidationBus.
+     *
+     * @param nodeId The identifier of the local node.
+     * @param secret The secret shared by the nodes of the cluster, which authenticates messages.
+     * @param group The multicast group address.
+     * @param port The multicast port.
+     * @param timeToLive The multicast time-to-live.
+     */
+    public MulticastInvalidationBus(final String nodeId, final String secret, final InetAddress group, final int port,
+            final int timeToLive) {
+        super(nodeId, secret);
+        this.group = group;
+        this.port = port;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Join the multicast group and begin receiving datagrams.
+     *
+     * @throws IOException Thrown if the multicast socket cannot be opened.
+     */
+    public void start() throws IOException {
+        logger.info("Joining invalidation multicast group {}:{}.", group.getHostAddress(), port);
+        socket = new MulticastSocket(port);
+        socket.setTimeToLive(timeToLive);
+        socket.joinGroup(group);
+
+        receiver = new Thread(this::receive, "invalidation-multicast");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Leave the multicast group and stop receiving datagrams.
+     */
+    public void stop() {
+        if (socket != null) {
+            try {
+                socket.leaveGroup(group);
+            } catch (IOException ex) {
+                logger.warn("Failed to leave invalidation multicast group.", ex);
+            }
+            socket.close();
+        }
+    }
+
+    @Override
+    public void publish(final Invalidation invalidation) {
+        final byte[] data = encode(invalidation).getBytes(StandardCharsets.UTF_8);
+        try {
+            socket.send(new DatagramPacket(data, data.length, group, port));
+        } catch (IOException ex) {
+            logger.warn("Failed to publish invalidation {}.", invalidation, ex);
+        }
+    }
+
+    /**
+     * Receive datagrams until the socket is closed.
+     */
+    private void receive() {
+        final byte[] buffer = new byte[MAX_MESSAGE_LENGTH];
+        while (!socket.isClosed()) {
+            final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                deliver(new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                if (!socket.isClosed()) {
+                    logger.warn("Failed to receive invalidation datagram.", ex);
+                }
+            }
+        }
+    }
+
+}
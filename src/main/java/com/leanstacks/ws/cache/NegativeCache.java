@@ -0,0 +1,74 @@
+package com.leanstacks.ws.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * <p>
+ * A NegativeCache remembers, for a short time, the keys of lookups which found nothing, so that repeated lookups of a
+ * missing key are answered without querying the database.
+ * </p>
+ * <p>
+ * The cache is bounded and each entry expires a fixed time after it was recorded. An entry must be invalidated when
+ * the key is created.
+ * </p>
+ *
+ * @author Matt Warman
+ * @param <K> The key type.
+ */
+public class NegativeCache<K> {
+
+    /**
+     * The keys known to be missing.
+     */
+    private final Cache<K, Boolean> missing;
+
+    /**
+     * Construct a NegativeCache.
+     *
+     * @param maximumSize The maximum number of keys held.
+     * @param ttlMillis The time for which a key is remembered, in milliseconds.
+     */
+    public NegativeCache(final long maximumSize, final long ttlMillis) {
+        this.missing = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Indicates if the supplied key was recently found to be missing.
+     *
+     * @param key A key.
+     * @return <code>true</code> if the key is known to be missing, otherwise <code>false</code>.
+     */
+    public boolean isMissing(final K key) {
+        return missing.getIfPresent(key) != null;
+    }
+
+    /**
+     * Record that the supplied key was found to be missing.
+     *
+     * @param key A key.
+     */
+    public void recordMissing(final K key) {
+        missing.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Forget that the supplied key was missing, e.g. when it is created.
+     *
+     * @param key A key.
+     */
+    public void invalidate(final K key) {
+        missing.invalidate(key);
+    }
+
+    /**
+     * Forget all missing keys.
+     */
+    public void invalidateAll() {
+        missing.invalidateAll();
+    }
+
+}
@@ -0,0 +1,470 @@
+package com.leanstacks.ws.cache;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An InvalidationBus which sends Invalidation messages over TCP to a configured list of peer nodes. Each node listens
+ * on a port for connections from its peers and keeps one outbound connection to each peer, re-established on failure.
+ * Messages are newline-delimited encoded Invalidations, each followed by its HMAC.
+ * </p>
+ * <p>
+ * The node listens on the configured bind address, or on all interfaces if none is configured. Connections are only
+ * accepted from the hosts of the configured peers, which are resolved again for each connection, and at most
+ * <code>maxConnections</code> are open at once. A connection is closed as soon as it sends a line longer than a
+ * message, or a message without a valid HMAC.
+ * </p>
+ * <p>
+ * Each peer has its own sender thread and bounded queue, so publishing never blocks the caller on the network and an
+ * unreachable or slow peer cannot delay the messages for the others. A connection attempt is bounded by the connect
+ * timeout and each write by the write timeout. After a failure the peer is not contacted again until a backoff, which
+ * starts at one second and doubles with each consecutive failure up to 30 seconds, has elapsed; messages for the peer
+ * are dropped meanwhile.
+ * When a peer's queue is full, the message for that peer is dropped and a warning is logged.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class PeerInvalidationBus extends AbstractInvalidationBus {
+
+    /**
+     * The capacity of the outbound message queue of each peer.
+     */
+    private static final int QUEUE_CAPACITY = 1000;
+
+    /**
+     * The time, in milliseconds, for which a peer is not contacted after its first failure.
+     */
+    private static final long INITIAL_BACKOFF = 1000L;
+
+    /**
+     * The maximum time, in milliseconds, for which a failing peer is not contacted.
+     */
+    private static final long MAX_BACKOFF = 30000L;
+
+    /**
+     * The address on which the node accepts connections from its peers, or <code>null</code> for all interfaces.
+     */
+    private final InetAddress bindAddress;
+
+    /**
+     * The port on which the node accepts connections from its peers.
+     */
+    private final int port;
+
+    /**
+     * The maximum number of open inbound connections.
+     */
+    private final int maxConnections;
+
+    /**
+     * The addresses of the peer nodes.
+     */
+    private final List<InetSocketAddress> peers;
+
+    /**
+     * The timeout, in milliseconds, to establish a connection to a peer.
+     */
+    private final int connectTimeout;
+
+    /**
+     * The timeout, in milliseconds, to write a message to a peer.
+     */
+    private final int writeTimeout;
+
+    /**
+     * The senders, one for each peer.
+     */
+    private final List<PeerSender> senders;
+
+    /**
+     * The inbound connections from the peers.
+     */
+    private final Set<Socket> inbound = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+    /**
+     * The socket which accepts connections from the peers.
+     */
+    private ServerSocket serverSocket;
+
+    /**
+     * Construct a PeerInvalidationBus.
+     *
+     * @param nodeId The identifier of the local node.
+     * @param secret The secret shared by the nodes of the cluster, which authenticates messages.
+     * @param bindAddress The address on which the node accepts connections from its peers, or <code>null</code> for
+     *        all interfaces.
+     * @param port The port on which the node accepts connections from its peers.
+     * @param peers The addresses of the peer nodes.
+     * @param maxConnections The maximum number of open inbound connections.
+     * @param connectTimeout The timeout, in milliseconds, to establish a connection to a peer.
+     * @param writeTimeout The timeout, in milliseconds, to write a message to a peer.
+     */
+    public PeerInvalidationBus(final String nodeId, final String secret, final InetAddress bindAddress, final int port,
+            final List<InetSocketAddress> peers, final int maxConnections, final int connectTimeout,
+            final int writeTimeout) {
+        super(nodeId, secret);
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.peers = peers;
+        this.maxConnections = maxConnections;
+        this.connectTimeout = connectTimeout;
+        this.writeTimeout = writeTimeout;
+        final List<PeerSender> peerSenders = new ArrayList<PeerSender>();
+        for (final InetSocketAddress peer : peers) {
+            peerSenders.add(new PeerSender(peer));
+        }
+        this.senders = Collections.unmodifiableList(peerSenders);
+    }
+
+    /**
+     * Begin accepting connections from the peers.
+     *
+     * @throws IOException Thrown if the server socket cannot be opened.
+     */
+    public void start() throws IOException {
+        logger.info("Accepting invalidation peer connections on {}:{}; peers {}.",
+                bindAddress == null ? "*" : bindAddress.getHostAddress(), port, peers);
+        serverSocket = new ServerSocket(port, 0, bindAddress);
+        daemon(this::accept, "invalidation-acceptor").start();
+    }
+
+    /**
+     * Stop accepting connections and close the outbound and inbound connections.
+     */
+    public void stop() {
+        for (final PeerSender sender : senders) {
+            sender.stop();
+        }
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close invalidation server socket.", ex);
+            }
+        }
+        for (final Socket socket : inbound) {
+            close(socket);
+        }
+    }
+
+    /**
+     * Returns the port on which the node accepts connections, which is the bound port when constructed with port 0.
+     *
+     * @return The local port.
+     */
+    public int getLocalPort() {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void publish(final Invalidation invalidation) {
+        final byte[] message = (encode(invalidation) + '\n').getBytes(StandardCharsets.UTF_8);
+        for (final PeerSender sender : senders) {
+            sender.publish(message, invalidation);
+        }
+    }
+
+    /**
+     * Accept peer connections until the server socket is closed. Connections from unknown hosts and connections beyond
+     * the limit are closed.
+     */
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                if (!isPeer(socket.getInetAddress())) {
+                    warn("unknown-peer", "Rejected invalidation connection from unknown host "
+                            + socket.getInetAddress().getHostAddress() + ".");
+                    close(socket);
+                    continue;
+                }
+                if (inbound.size() >= maxConnections) {
+                    warn("connection-limit",
+                            "Rejected invalidation connection; " + maxConnections + " connections are open.");
+                    close(socket);
+                    continue;
+                }
+                inbound.add(socket);
+                daemon(() -> read(socket), "invalidation-reader-" + socket.getRemoteSocketAddress()).start();
+            } catch (IOException ex) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Failed to accept invalidation peer connection.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether an address is an address of a configured peer host.
+     *
+     * @param address The remote address of a connection.
+     * @return <code>true</code> if the address belongs to a peer.
+     */
+    private boolean isPeer(final InetAddress address) {
+        for (final InetSocketAddress peer : peers) {
+            try {
+                for (final InetAddress peerAddress : InetAddress.getAllByName(peer.getHostString())) {
+                    if (peerAddress.equals(address)) {
+                        return true;
+                    }
+                }
+            } catch (UnknownHostException ex) {
+                logger.debug("Failed to resolve invalidation peer {}: {}", peer, ex.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read messages from a peer connection until it is closed, or until it sends a message which is rejected.
+     *
+     * @param socket The peer connection.
+     */
+    private void read(final Socket socket) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = readLine(reader)) != null) {
+                if (!deliver(line)) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            logger.debug("Invalidation peer connection closed: {}", ex.getMessage());
+        } finally {
+            inbound.remove(socket);
+            close(socket);
+        }
+    }
+
+    /**
+     * Read a newline-terminated line of at most <code>MAX_MESSAGE_LENGTH</code> characters.
+     *
+     * @param reader The Reader of a peer connection.
+     * @return The line, without its terminator, or <code>null</code> at the end of the stream.
+     * @throws IOException Thrown if reading fails or the line is too long.
+     */
+    private static String readLine(final Reader reader) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                return line.toString();
+            }
+            if (line.length() == MAX_MESSAGE_LENGTH) {
+                throw new IOException("Invalidation message exceeds " + MAX_MESSAGE_LENGTH + " characters");
+            }
+            line.append((char) c);
+        }
+        return null;
+    }
+
+    /**
+     * Close a connection, ignoring failures.
+     *
+     * @param closeable A Socket, SocketChannel or Selector. May be <code>null</code>.
+     */
+    private void close(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                logger.debug("Failed to close invalidation peer connection: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Create a daemon Thread.
+     *
+     * @param runnable The Runnable executed by the Thread.
+     * @param name The Thread name.
+     * @return A Thread.
+     */
+    private static Thread daemon(final Runnable runnable, final String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Sends messages to one peer on its own thread. The connection and backoff state are accessed only by that
+     * thread, except that <code>stop</code> closes the connection.
+     */
+    private class PeerSender {
+
+        /**
+         * The peer address.
+         */
+        private final InetSocketAddress peer;
+
+        /**
+         * The executor which sends messages to the peer.
+         */
+        private final ThreadPoolExecutor executor;
+
+        /**
+         * The connection to the peer, or <code>null</code> if not connected.
+         */
+        private volatile SocketChannel channel;
+
+        /**
+         * The Selector which waits for the connection to become writable.
+         */
+        private volatile Selector selector;
+
+        /**
+         * The current backoff, in milliseconds, or <code>0</code> if the last attempt succeeded.
+         */
+        private long backoff;
+
+        /**
+         * The time, from <code>System.nanoTime</code>, before which the peer is not contacted.
+         */
+        private long retryAt;
+
+        /**
+         * Construct a PeerSender.
+         *
+         * @param peer The peer address.
+         */
+        PeerSender(final InetSocketAddress peer) {
+            this.peer = peer;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY),
+                    runnable -> daemon(runnable, "invalidation-sender-" + peer));
+        }
+
+        /**
+         * Queue a message for the peer.
+         *
+         * @param message The newline-terminated, encoded Invalidation.
+         * @param invalidation The Invalidation, for logging.
+         */
+        void publish(final byte[] message, final Invalidation invalidation) {
+            try {
+                executor.execute(() -> send(message));
+            } catch (RejectedExecutionException ex) {
+                logger.warn("Dropped invalidation {} for peer {}; the send queue is full.", invalidation, peer);
+            }
+        }
+
+        /**
+         * Stop sending and close the connection.
+         */
+        void stop() {
+            executor.shutdownNow();
+            disconnect();
+        }
+
+        /**
+         * Send a message to the peer, connecting if required. Invoked on the sender thread.
+         *
+         * @param message The newline-terminated, encoded Invalidation.
+         */
+        private void send(final byte[] message) {
+            if (backoff > 0 && System.nanoTime() - retryAt < 0) {
+                return;
+            }
+            try {
+                if (channel == null) {
+                    connect();
+                }
+                write(ByteBuffer.wrap(message));
+                backoff = 0;
+            } catch (IOException ex) {
+                if (executor.isShutdown()) {
+                    disconnect();
+                    return;
+                }
+                backoff = backoff == 0 ? INITIAL_BACKOFF : Math.min(backoff * 2, MAX_BACKOFF);
+                retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+                logger.warn("Failed to send invalidation to peer {}; retrying in {} ms: {}", peer, backoff,
+                        ex.getMessage());
+                disconnect();
+            }
+        }
+
+        /**
+         * Connect to the peer within the connect timeout.
+         *
+         * @throws IOException Thrown if the connection cannot be established.
+         */
+        private void connect() throws IOException {
+            final SocketChannel socketChannel = SocketChannel.open();
+            try {
+                // resolve the peer host on each connection attempt, since peer addresses may change
+                socketChannel.socket().connect(new InetSocketAddress(peer.getHostString(), peer.getPort()),
+                        connectTimeout);
+                socketChannel.configureBlocking(false);
+                final Selector writeSelector = Selector.open();
+                socketChannel.register(writeSelector, SelectionKey.OP_WRITE);
+                selector = writeSelector;
+                channel = socketChannel;
+            } catch (IOException ex) {
+                close(socketChannel);
+                throw ex;
+            }
+        }
+
+        /**
+         * Write a buffer to the peer within the write timeout.
+         *
+         * @param buffer The bytes to write.
+         * @throws IOException Thrown if the write fails or times out.
+         */
+        private void write(final ByteBuffer buffer) throws IOException {
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writeTimeout);
+            while (buffer.hasRemaining()) {
+                if (channel.write(buffer) > 0) {
+                    continue;
+                }
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("Write timed out after " + writeTimeout + " ms");
+                }
+                selector.select(remaining);
+                selector.selectedKeys().clear();
+            }
+        }
+
+        /**
+         * Close the connection to the peer.
+         */
+        private void disconnect() {
+            final SocketChannel socketChannel = channel;
+            final Selector writeSelector = selector;
+            channel = null;
+            selector = null;
+            close(socketChannel);
+            close(writeSelector);
+        }
+
+    }
+
+}
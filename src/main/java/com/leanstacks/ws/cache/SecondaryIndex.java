@@ -0,0 +1,148 @@
+package com.leanstacks.ws.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * <p>
+ * The SecondaryIndex maps the values of an entity attribute to the identifiers of the entities holding each value, so
+ * that the entities with a value are found without scanning the table.
+ * </p>
+ * <p>
+ * The identifiers of a key are loaded on first use and maintained thereafter by <code>put</code> and
+ * <code>remove</code>, which the owning service invokes after each change commits. Keys which have not been loaded are
+ * not maintained; they are loaded from the database when next used. A load which overlaps a change is returned but not
+ * retained, so the index cannot keep identifiers read before the change. The check and the store of a load are made
+ * under the same lock as each change, so no change can be lost between them.
+ * </p>
+ * <p>
+ * Keys without entities are not retained, at most <code>maximumSize</code> keys are held, and each key expires a
+ * fixed time after it was loaded, so arbitrary lookup values cannot exhaust memory and a key missed by a lost change
+ * notification is eventually reloaded.
+ * </p>
+ *
+ * @param <K> The type of the indexed attribute.
+ * @author Matt Warman
+ */
+public class SecondaryIndex<K> {
+
+    /**
+     * The identifiers keyed by attribute value.
+     */
+    private final Cache<K, Set<Long>> ids;
+
+    /**
+     * Incremented by every change, so that a load can detect a change which overlapped it. Guarded by
+     * <code>this</code>.
+     */
+    private long generation;
+
+    /**
+     * Construct a SecondaryIndex.
+     *
+     * @param maximumSize The maximum number of keys held.
+     * @param ttlNanos The time, in nanoseconds, for which a loaded key is held.
+     * @param clock The clock, in nanoseconds, e.g. <code>System::nanoTime</code>.
+     */
+    public SecondaryIndex(final long maximumSize, final long ttlNanos, final LongSupplier clock) {
+        this.ids = Caffeine.newBuilder().maximumSize(maximumSize).ticker(clock::getAsLong)
+                .expireAfterWrite(ttlNanos, TimeUnit.NANOSECONDS).build();
+    }
+
+    /**
+     * Returns the identifiers of the entities holding the supplied key, loading them if the key is not held.
+     *
+     * @param key An attribute value.
+     * @param loader Queries the identifiers of the entities holding a key.
+     * @return An unmodifiable Set of identifiers.
+     */
+    public Set<Long> get(final K key, final Function<K, Collection<Long>> loader) {
+        final Set<Long> loaded = ids.getIfPresent(key);
+        if (loaded != null) {
+            return Collections.unmodifiableSet(loaded);
+        }
+        final long start = currentGeneration();
+        final Set<Long> values = ConcurrentHashMap.newKeySet();
+        values.addAll(loader.apply(key));
+        if (!values.isEmpty()) {
+            synchronized (this) {
+                if (generation == start) {
+                    final Set<Long> existing = ids.asMap().putIfAbsent(key, values);
+                    if (existing != null) {
+                        return Collections.unmodifiableSet(existing);
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    /**
+     * Indicates if the identifiers of the supplied key are held.
+     *
+     * @param key An attribute value.
+     * @return <code>true</code> if the key is held, otherwise <code>false</code>.
+     */
+    public boolean isLoaded(final K key) {
+        return ids.getIfPresent(key) != null;
+    }
+
+    /**
+     * Index an entity under the supplied key, removing it from any other key. An entity without a value is only
+     * removed.
+     *
+     * @param key The attribute value of the entity, or <code>null</code>.
+     * @param id The entity identifier.
+     */
+    public synchronized void put(final K key, final Long id) {
+        generation++;
+        for (final Map.Entry<K, Set<Long>> entry : ids.asMap().entrySet()) {
+            if (!entry.getKey().equals(key)) {
+                entry.getValue().remove(id);
+            }
+        }
+        final Set<Long> values = key == null ? null : ids.getIfPresent(key);
+        if (values != null) {
+            values.add(id);
+        }
+    }
+
+    /**
+     * Remove an entity from the index.
+     *
+     * @param id The entity identifier.
+     */
+    public synchronized void remove(final Long id) {
+        generation++;
+        for (final Set<Long> values : ids.asMap().values()) {
+            values.remove(id);
+        }
+    }
+
+    /**
+     * Discard all keys. Each key is loaded again when next used.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        ids.invalidateAll();
+    }
+
+    /**
+     * Returns the current generation.
+     *
+     * @return The generation.
+     */
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+}
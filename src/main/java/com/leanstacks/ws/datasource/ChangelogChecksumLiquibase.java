@@ -0,0 +1,233 @@
+package com.leanstacks.ws.datasource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import liquibase.snapshot.SnapshotGeneratorFactory;
+
+/**
+ * <p>
+ * A SpringLiquibase which skips the Liquibase update, including the parsing and validation of the change logs, when
+ * the change logs have not changed since they were last applied to the database.
+ * </p>
+ * <p>
+ * A SHA-256 checksum of the change log files, contexts and labels is compared to the checksum recorded in the
+ * <code>ChangelogChecksum</code> table when the change logs were last applied. When they are equal, Liquibase is not
+ * run. The checksum of the files is computed by the build and read from the change log checksum resource; when the
+ * resource is absent, e.g. when running from an IDE, the files are read and hashed at startup. The Maven and Gradle
+ * builds and the startup fallback compute the same checksum, that of the Ant <code>checksum</code> task's
+ * <code>totalproperty</code>. The marker table is created by the change logs, so the first update of a database
+ * always runs.
+ * </p>
+ * <p>
+ * When the checksums differ, the pending change sets are listed before the update. The Liquibase lock is taken only
+ * when change sets are pending, so instances starting in parallel against an up-to-date database do not serialize on
+ * the lock. Listing the change sets creates the Liquibase tables when they do not exist, so on a database without them
+ * the update is run directly, under the lock. The new checksum is recorded after the update.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class ChangelogChecksumLiquibase extends SpringLiquibase {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ChangelogChecksumLiquibase.class);
+
+    /**
+     * The identifier of the marker row.
+     */
+    private static final int MARKER_ID = 1;
+
+    /**
+     * The location pattern of the change log files, e.g. <code>classpath*:data/changelog/*.xml</code>.
+     */
+    private String changeLogLocations;
+
+    /**
+     * The location of the change log checksum computed by the build, e.g.
+     * <code>classpath:data/changelog/changelog.sha256</code>.
+     */
+    private String changeLogChecksumLocation;
+
+    /**
+     * Set the location pattern of the change log files whose checksum is compared to the marker row.
+     *
+     * @param changeLogLocations A resource location pattern.
+     */
+    public void setChangeLogLocations(final String changeLogLocations) {
+        this.changeLogLocations = changeLogLocations;
+    }
+
+    /**
+     * Set the location of the change log checksum computed by the build.
+     *
+     * @param changeLogChecksumLocation A resource location.
+     */
+    public void setChangeLogChecksumLocation(final String changeLogChecksumLocation) {
+        this.changeLogChecksumLocation = changeLogChecksumLocation;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        if (!shouldRun || isDropFirst()) {
+            super.afterPropertiesSet();
+            return;
+        }
+        final String checksum = computeChecksum();
+        if (checksum != null && checksum.equals(readMarker())) {
+            logger.info("Liquibase change logs are unchanged (checksum {}). Skipping the Liquibase update.", checksum);
+            return;
+        }
+        super.afterPropertiesSet();
+        if (checksum != null) {
+            writeMarker(checksum);
+        }
+    }
+
+    /**
+     * Apply the pending change sets. The Liquibase lock is not taken when no change sets are pending, unless the
+     * Liquibase tables do not yet exist.
+     *
+     * @param liquibase The Liquibase instance.
+     * @throws LiquibaseException Thrown if the change logs cannot be read or applied.
+     */
+    @Override
+    protected void performUpdate(final Liquibase liquibase) throws LiquibaseException {
+        final Database database = liquibase.getDatabase();
+        final SnapshotGeneratorFactory snapshots = SnapshotGeneratorFactory.getInstance();
+        if (!snapshots.hasDatabaseChangeLogTable(database) || !snapshots.hasDatabaseChangeLogLockTable(database)) {
+            logger.info("No Liquibase tables found. Applying the change logs.");
+            super.performUpdate(liquibase);
+            return;
+        }
+        final List<ChangeSet> pending = liquibase.listUnrunChangeSets(new Contexts(getContexts()),
+                new LabelExpression(getLabels()));
+        if (pending.isEmpty()) {
+            logger.info("No pending Liquibase change sets.");
+            return;
+        }
+        logger.info("Applying {} pending Liquibase change sets.", pending.size());
+        super.performUpdate(liquibase);
+    }
+
+    /**
+     * Compute the checksum of the change log files, contexts and labels. The files are hashed as by the Ant
+     * <code>checksum</code> task's <code>totalproperty</code>: the digest of each file followed by its name, in name
+     * order.
+     *
+     * @return The hexadecimal SHA-256 checksum, or <code>null</code> if the change log files cannot be read.
+     */
+    protected String computeChecksum() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((getContexts() + "|" + getLabels()).getBytes(StandardCharsets.UTF_8));
+            final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(
+                    getResourceLoader());
+            final Resource buildChecksum = changeLogChecksumLocation == null ? null
+                    : resolver.getResource(changeLogChecksumLocation);
+            if (buildChecksum != null && buildChecksum.exists()) {
+                try (InputStream in = buildChecksum.getInputStream()) {
+                    digest.update(StreamUtils.copyToByteArray(in));
+                }
+                return toHex(digest.digest());
+            }
+            final Resource[] resources = resolver.getResources(changeLogLocations);
+            if (resources.length == 0) {
+                logger.warn("No Liquibase change logs found at {}.", changeLogLocations);
+                return null;
+            }
+            final List<Resource> sorted = Arrays.asList(resources);
+            sorted.sort(Comparator.comparing(Resource::getFilename));
+            final MessageDigest total = MessageDigest.getInstance("SHA-256");
+            final MessageDigest file = MessageDigest.getInstance("SHA-256");
+            for (final Resource resource : sorted) {
+                try (InputStream in = resource.getInputStream()) {
+                    total.update(file.digest(StreamUtils.copyToByteArray(in)));
+                }
+                total.update(resource.getFilename().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(toHex(total.digest()).getBytes(StandardCharsets.UTF_8));
+            return toHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            logger.warn("Failed to compute the Liquibase change log checksum. {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the checksum of the change logs last applied to the database.
+     *
+     * @return The recorded checksum, or <code>null</code> if none is recorded.
+     */
+    protected String readMarker() {
+        try {
+            final List<String> checksums = new JdbcTemplate(getDataSource())
+                    .queryForList("SELECT checksum FROM ChangelogChecksum WHERE id = ?", String.class, MARKER_ID);
+            return checksums.isEmpty() ? null : checksums.get(0);
+        } catch (DataAccessException ex) {
+            // the marker table does not exist until the change logs are first applied
+            logger.debug("No Liquibase change log checksum recorded. {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Record the checksum of the change logs applied to the database.
+     *
+     * @param checksum The checksum.
+     */
+    protected void writeMarker(final String checksum) {
+        try {
+            final JdbcTemplate jdbcTemplate = new JdbcTemplate(getDataSource());
+            final Timestamp now = new Timestamp(System.currentTimeMillis());
+            final int updated = jdbcTemplate.update(
+                    "UPDATE ChangelogChecksum SET checksum = ?, updatedAt = ? WHERE id = ?", checksum, now, MARKER_ID);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO ChangelogChecksum (id, checksum, updatedAt) VALUES (?, ?, ?)",
+                        MARKER_ID, checksum, now);
+            }
+        } catch (DataAccessException ex) {
+            // the next start runs the update again
+            logger.warn("Failed to record the Liquibase change log checksum. {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Convert a digest to hexadecimal.
+     *
+     * @param bytes A digest.
+     * @return The lower case hexadecimal representation.
+     */
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.leanstacks.ws.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * A routing DataSource which sends connections requested within read-only transactions to a replica DataSource and all
+ * other connections to the primary DataSource.
+ * </p>
+ * <p>
+ * The routing decision is made when the Connection is obtained. The transaction read-only flag is only available once
+ * the transaction has been started, so this DataSource must be wrapped by a <code>LazyConnectionDataSourceProxy</code>
+ * which defers obtaining the physical Connection until the first statement is executed.
+ * </p>
+ * <p>
+ * If a Connection cannot be obtained from the replica, the request falls back to the primary DataSource and the
+ * replica is bypassed for a configurable interval before it is tried again.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    /**
+     * The routing lookup keys.
+     */
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    /**
+     * The primary (read-write) DataSource.
+     */
+    private final transient DataSource primaryDataSource;
+
+    /**
+     * The replica (read-only) DataSource.
+     */
+    private final transient DataSource replicaDataSource;
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    private final transient CounterService counterService;
+
+    /**
+     * The number of milliseconds the replica is bypassed after a failure to obtain a Connection from it.
+     */
+    private final long fallbackMillis;
+
+    /**
+     * The timestamp before which read-only requests are routed to the primary because the replica recently failed.
+     */
+    private volatile long replicaRetryAt;
+
+    /**
+     * Construct a ReadWriteRoutingDataSource.
+     *
+     * @param primaryDataSource The primary (read-write) DataSource.
+     * @param replicaDataSource The replica (read-only) DataSource.
+     * @param counterService A CounterService used to record routing metrics.
+     * @param fallbackMillis The number of milliseconds to bypass the replica after a failure.
+     */
+    public ReadWriteRoutingDataSource(final DataSource primaryDataSource, final DataSource replicaDataSource,
+            final CounterService counterService, final long fallbackMillis) {
+        super();
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.counterService = counterService;
+        this.fallbackMillis = fallbackMillis;
+
+        final Map<Object, Object> targetDataSources = new HashMap<Object, Object>();
+        targetDataSources.put(Route.PRIMARY, primaryDataSource);
+        targetDataSources.put(Route.REPLICA, replicaDataSource);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && System.currentTimeMillis() >= replicaRetryAt) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                final Connection connection = replicaDataSource.getConnection();
+                counterService.increment("datasource.routing.replica");
+                return connection;
+            } catch (SQLException ex) {
+                onReplicaFailure(ex);
+            }
+        }
+        counterService.increment("datasource.routing.primary");
+        return primaryDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                final Connection connection = replicaDataSource.getConnection(username, password);
+                counterService.increment("datasource.routing.replica");
+                return connection;
+            } catch (SQLException ex) {
+                onReplicaFailure(ex);
+            }
+        }
+        counterService.increment("datasource.routing.primary");
+        return primaryDataSource.getConnection(username, password);
+    }
+
+    /**
+     * Records a failure to obtain a Connection from the replica and suspends routing to the replica for the fallback
+     * interval.
+     *
+     * @param ex The SQLException thrown by the replica DataSource.
+     */
+    private void onReplicaFailure(final SQLException ex) {
+        logger.warn("Unable to obtain a replica connection. Falling back to primary for {} ms. {}", fallbackMillis,
+                ex.getMessage());
+        counterService.increment("datasource.routing.fallback");
+        replicaRetryAt = System.currentTimeMillis() + fallbackMillis;
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.leanstacks.ws.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.leanstacks.ws.model.TransactionalEntityListener;
+
+/**
+ * <p>
+ * The EntityLifecycleDispatcher delivers EntityLifecycleEvents to every EntityLifecycleSubscriber bean after the
+ * transaction which produced them commits. Events of a rolled back transaction are discarded.
+ * </p>
+ * <p>
+ * Events are produced by a TransactionalEntityListener, which the dispatcher registers as a Hibernate post-commit
+ * event listener on the EntityManagerFactory of its application context on initialization. Each application context
+ * therefore dispatches the events of its own EntityManagerFactory.
+ * </p>
+ * <p>
+ * Delivery runs on the <code>entityLifecycleTaskExecutor</code>, so subscribers add no latency to the write
+ * transaction. The executor is bounded; its backpressure behavior and statistics are described by the
+ * EntityLifecycleConfiguration. The delay between a change and its delivery is published as the
+ * <code>gauge.entity.lifecycle.delay</code> metric, in milliseconds. Synchronous subscribers are instead notified on
+ * the committing thread before the event is queued, so they receive every event even when the executor discards
+ * events on overflow.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@Component
+public class EntityLifecycleDispatcher implements InitializingBean {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(EntityLifecycleDispatcher.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The <code>GaugeService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient GaugeService gaugeService;
+
+    /**
+     * The bounded executor on which events are delivered.
+     */
+    @Autowired
+    @Qualifier("entityLifecycleTaskExecutor")
+    private transient TaskExecutor entityLifecycleTaskExecutor;
+
+    /**
+     * The JPA EntityManagerFactory whose committed changes are dispatched.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The subscribers.
+     */
+    @Autowired(required = false)
+    private transient List<EntityLifecycleSubscriber> subscribers = Collections.emptyList();
+
+    /**
+     * The subscribers notified on the committing thread.
+     */
+    private final transient List<EntityLifecycleSubscriber> synchronousSubscribers =
+            new ArrayList<EntityLifecycleSubscriber>();
+
+    /**
+     * The subscribers notified on the executor.
+     */
+    private final transient List<EntityLifecycleSubscriber> asynchronousSubscribers =
+            new ArrayList<EntityLifecycleSubscriber>();
+
+    @Override
+    public void afterPropertiesSet() {
+        for (final EntityLifecycleSubscriber subscriber : subscribers) {
+            if (subscriber.isSynchronous()) {
+                synchronousSubscribers.add(subscriber);
+            } else {
+                asynchronousSubscribers.add(subscriber);
+            }
+        }
+
+        final EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        final TransactionalEntityListener listener = new TransactionalEntityListener(this);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * Dispatch an event of a committed change. The event is delivered without waiting for a transaction.
+     * 
+     * @param event An EntityLifecycleEvent.
+     */
+    public void dispatchCommitted(final EntityLifecycleEvent event) {
+        submit(event);
+    }
+
+    /**
+     * Publish an event. When a transaction is active the event is delivered after the transaction commits and
+     * discarded if it rolls back; otherwise it is delivered immediately. Business services use this method for changes
+     * which bypass the Hibernate event listeners, e.g. bulk updates.
+     * 
+     * @param event An EntityLifecycleEvent.
+     */
+    public void publish(final EntityLifecycleEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    submit(event);
+                }
+            });
+        } else {
+            submit(event);
+        }
+    }
+
+    /**
+     * Notify the synchronous subscribers of an event and submit its delivery to the other subscribers to the executor.
+     * 
+     * @param event An EntityLifecycleEvent.
+     */
+    private void submit(final EntityLifecycleEvent event) {
+        counterService.increment("entity.lifecycle.published");
+        for (final EntityLifecycleSubscriber subscriber : synchronousSubscribers) {
+            notify(subscriber, event);
+        }
+        entityLifecycleTaskExecutor.execute(() -> deliver(event));
+    }
+
+    /**
+     * Deliver an event to every asynchronous subscriber. Invoked on the executor.
+     * 
+     * @param event An EntityLifecycleEvent.
+     */
+    private void deliver(final EntityLifecycleEvent event) {
+        gaugeService.submit("entity.lifecycle.delay",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - event.getCreatedNanos()));
+        for (final EntityLifecycleSubscriber subscriber : asynchronousSubscribers) {
+            notify(subscriber, event);
+        }
+    }
+
+    /**
+     * Notify a subscriber of an event. A failure is logged and counted.
+     * 
+     * @param subscriber An EntityLifecycleSubscriber.
+     * @param event An EntityLifecycleEvent.
+     */
+    private void notify(final EntityLifecycleSubscriber subscriber, final EntityLifecycleEvent event) {
+        try {
+            subscriber.onEntityLifecycleEvent(event);
+        } catch (RuntimeException ex) {
+            logger.error("Subscriber {} failed to handle {}.", subscriber.getClass().getSimpleName(), event, ex);
+            counterService.increment("entity.lifecycle.failed");
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.leanstacks.ws.event;
+
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+
+/**
+ * An EntityLifecycleEvent describes a committed change to a TransactionalEntity. It carries the entity version before
+ * and after the change; the old version is <code>null</code> for a created entity and the new version is
+ * <code>null</code> for a deleted entity. The reference identifier is <code>null</code> for a versioned update, which
+ * does not read the entity.
+ * 
+ * @author Matt Warman
+ */
+public class EntityLifecycleEvent {
+
+    private final Class<?> entityClass;
+
+    private final Long entityId;
+
+    private final String referenceId;
+
+    private final Integer oldVersion;
+
+    private final Integer newVersion;
+
+    private final ChangeType changeType;
+
+    /**
+     * The value of <code>System.nanoTime()</code> when the change was made.
+     */
+    private final long createdNanos = System.nanoTime();
+
+    public EntityLifecycleEvent(final Class<?> entityClass, final Long entityId, final String referenceId,
+            final Integer oldVersion, final Integer newVersion, final ChangeType changeType) {
+        super();
+        this.entityClass = entityClass;
+        this.entityId = entityId;
+        this.referenceId = referenceId;
+        this.oldVersion = oldVersion;
+        this.newVersion = newVersion;
+        this.changeType = changeType;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getReferenceId() {
+        return referenceId;
+    }
+
+    public Integer getOldVersion() {
+        return oldVersion;
+    }
+
+    public Integer getNewVersion() {
+        return newVersion;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    @Override
+    public String toString() {
+        return changeType + " " + entityClass.getSimpleName() + " " + entityId + " " + oldVersion + "->" + newVersion;
+    }
+
+}
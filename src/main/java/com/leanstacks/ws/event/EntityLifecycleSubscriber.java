@@ -0,0 +1,36 @@
+package com.leanstacks.ws.event;
+
+/**
+ * <p>
+ * The EntityLifecycleSubscriber interface is implemented by beans which react to committed changes to
+ * TransactionalEntity instances, e.g. to invalidate caches, update search indexes or record metrics.
+ * </p>
+ * <p>
+ * Events are delivered by the EntityLifecycleDispatcher after the transaction commits, on the dispatcher thread, or on
+ * the committing thread for a synchronous subscriber. A subscriber must not assume that a transaction or
+ * RequestContext is available. An exception thrown by a subscriber is logged and does not affect other subscribers.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+public interface EntityLifecycleSubscriber {
+
+    /**
+     * Handle a committed change.
+     * 
+     * @param event An EntityLifecycleEvent.
+     */
+    void onEntityLifecycleEvent(EntityLifecycleEvent event);
+
+    /**
+     * Indicates whether the subscriber is notified on the committing thread, before the event is queued for the other
+     * subscribers. A synchronous subscriber receives every event even when the queue discards events on overflow, but
+     * adds its latency to the committing thread, so it must not block. Subscribers are asynchronous by default.
+     * 
+     * @return <code>true</code> if the subscriber is notified on the committing thread.
+     */
+    default boolean isSynchronous() {
+        return false;
+    }
+
+}
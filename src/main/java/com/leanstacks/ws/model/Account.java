@@ -2,21 +2,28 @@ package com.leanstacks.ws.model;
 
 import java.util.Set;
 
-import javax.persistence.CascadeType;
+import javax.persistence.Cacheable;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * The Account class is an entity model object. An Account describes the security credentials and authentication flags
- * that permit access to application functionality.
+ * that permit access to application functionality. An Account references its Roles by identifier; Roles are resolved
+ * against the in-memory ReferenceDataService rather than joined from the database.
  * 
  * @author Matt Warman
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Account extends TransactionalEntity {
 
     private static final long serialVersionUID = 1L;
@@ -39,14 +46,13 @@ public class Account extends TransactionalEntity {
     @NotNull
     private boolean locked;
 
-    @ManyToMany(fetch = FetchType.EAGER,
-            cascade = CascadeType.ALL)
-    @JoinTable(name = "AccountRole",
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "AccountRole",
             joinColumns = @JoinColumn(name = "accountId",
-                    referencedColumnName = "id"),
-            inverseJoinColumns = @JoinColumn(name = "roleId",
                     referencedColumnName = "id"))
-    private Set<Role> roles;
+    @Column(name = "roleId")
+    private Set<Long> roleIds;
 
     public Account() {
         super();
@@ -65,17 +71,17 @@ public class Account extends TransactionalEntity {
     }
 
     /**
-     * Create a new Account object with the supplied username, password, and Set of Role objects.
+     * Create a new Account object with the supplied username, password, and Set of Role identifiers.
      * 
      * @param username A String username value.
      * @param password A String clear text password value.
-     * @param roles A Set of Role objects.
+     * @param roleIds A Set of Role primary key identifiers.
      */
-    public Account(final String username, final String password, final Set<Role> roles) {
+    public Account(final String username, final String password, final Set<Long> roleIds) {
         super();
         this.username = username;
         this.password = password;
-        this.roles = roles;
+        this.roleIds = roleIds;
     }
 
     public String getUsername() {
@@ -126,12 +132,12 @@ public class Account extends TransactionalEntity {
         this.locked = locked;
     }
 
-    public Set<Role> getRoles() {
-        return roles;
+    public Set<Long> getRoleIds() {
+        return roleIds;
     }
 
-    public void setRoles(final Set<Role> roles) {
-        this.roles = roles;
+    public void setRoleIds(final Set<Long> roleIds) {
+        this.roleIds = roleIds;
     }
 
 }
@@ -0,0 +1,71 @@
+package com.leanstacks.ws.model;
+
+import org.joda.time.DateTime;
+
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+
+/**
+ * The ChangeEvent class is a model object describing a committed change to an entity. ChangeEvents are streamed to
+ * clients of the change stream endpoints. The <code>sequence</code> orders the ChangeEvents of an entity type and is
+ * the Server-Sent Events id. The <code>referenceId</code> of a versioned update (<code>PATCH</code>) is
+ * <code>null</code>, because the entity is not read.
+ * 
+ * @author Matt Warman
+ */
+public class ChangeEvent {
+
+    private final long sequence;
+
+    private final String entityType;
+
+    private final Long entityId;
+
+    private final Integer entityVersion;
+
+    private final String referenceId;
+
+    private final ChangeType changeType;
+
+    private final DateTime occurredAt;
+
+    public ChangeEvent(final long sequence, final String entityType, final Long entityId, final Integer entityVersion,
+            final String referenceId, final ChangeType changeType) {
+        super();
+        this.sequence = sequence;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.entityVersion = entityVersion;
+        this.referenceId = referenceId;
+        this.changeType = changeType;
+        this.occurredAt = new DateTime();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Integer getEntityVersion() {
+        return entityVersion;
+    }
+
+    public String getReferenceId() {
+        return referenceId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public DateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+}
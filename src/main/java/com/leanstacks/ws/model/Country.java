@@ -1,9 +1,15 @@
 package com.leanstacks.ws.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Country extends TransactionalEntity {
 
     private static final long serialVersionUID = 1L;
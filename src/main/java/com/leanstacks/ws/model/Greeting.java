@@ -1,14 +1,20 @@
 package com.leanstacks.ws.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
- * The Greeting class is an entity model object.
+ * The Greeting class is an entity model object. Greeting instances are held in the second-level cache.
  * 
  * @author Matt Warman
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Greeting extends TransactionalEntity {
 
     private static final long serialVersionUID = 1L;
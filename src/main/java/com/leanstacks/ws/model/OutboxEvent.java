@@ -0,0 +1,164 @@
+package com.leanstacks.ws.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.validation.constraints.NotNull;
+
+import org.joda.time.DateTime;
+
+/**
+ * <p>
+ * The OutboxEvent class is an entity model object. An OutboxEvent records a change to a TransactionalEntity and is
+ * written in the same transaction as the change. A relay process publishes unpublished events in <code>id</code>
+ * order and marks them published.
+ * </p>
+ * <p>
+ * OutboxEvent instances are not cached.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@Entity
+public class OutboxEvent implements Serializable {
+
+    /**
+     * The type of change recorded by an OutboxEvent.
+     */
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The primary key identifier, which also orders the events.
+     */
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    /**
+     * The simple class name of the changed entity.
+     */
+    @NotNull
+    private String entityType;
+
+    /**
+     * The primary key identifier of the changed entity.
+     */
+    @NotNull
+    private Long entityId;
+
+    /**
+     * The version of the changed entity after the change.
+     */
+    private Integer entityVersion;
+
+    /**
+     * The reference identifier of the changed entity.
+     */
+    private String referenceId;
+
+    /**
+     * The type of change.
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    /**
+     * The timestamp when the change was recorded.
+     */
+    @NotNull
+    private DateTime createdAt;
+
+    /**
+     * The timestamp when the event was published, or <code>null</code> if not yet published.
+     */
+    private DateTime publishedAt;
+
+    public OutboxEvent() {
+        super();
+    }
+
+    public OutboxEvent(final String entityType, final Long entityId, final Integer entityVersion,
+            final String referenceId, final ChangeType changeType) {
+        super();
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.entityVersion = entityVersion;
+        this.referenceId = referenceId;
+        this.changeType = changeType;
+        this.createdAt = new DateTime();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(final Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(final String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(final Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Integer getEntityVersion() {
+        return entityVersion;
+    }
+
+    public void setEntityVersion(final Integer entityVersion) {
+        this.entityVersion = entityVersion;
+    }
+
+    public String getReferenceId() {
+        return referenceId;
+    }
+
+    public void setReferenceId(final String referenceId) {
+        this.referenceId = referenceId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(final ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public DateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(final DateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public DateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(final DateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+}
@@ -1,14 +1,23 @@
 package com.leanstacks.ws.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
 /**
  * The Role class is an entity model object. A Role describes a privilege level within the application. A Role is used
- * to authorize an Account to access a set of application resources.
+ * to authorize an Account to access a set of application resources. Role is reference data and is held in a read-only
+ * second-level cache region.
  * 
  * @author Matt Warman
  */
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Role extends ReferenceEntity {
 
     private static final long serialVersionUID = 1L;
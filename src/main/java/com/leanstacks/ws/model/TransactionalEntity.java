@@ -16,7 +16,8 @@ import org.joda.time.DateTime;
 import com.leanstacks.ws.util.RequestContext;
 
 /**
- * The parent class for all transactional persistent entities.
+ * The parent class for all transactional persistent entities. Committed inserts, updates and deletes are published as
+ * EntityLifecycleEvents by the TransactionalEntityListener.
  * 
  * @author Matt Warman
  */
@@ -0,0 +1,128 @@
+package com.leanstacks.ws.model;
+
+import org.hibernate.Hibernate;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import com.leanstacks.ws.event.EntityLifecycleDispatcher;
+import com.leanstacks.ws.event.EntityLifecycleEvent;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+
+/**
+ * <p>
+ * A Hibernate post-commit event listener which produces an EntityLifecycleEvent for each TransactionalEntity
+ * inserted, updated or deleted. The EntityLifecycleDispatcher registers a listener on the EntityManagerFactory of its
+ * own application context, so the events of each EntityManagerFactory are handed to the dispatcher of that context.
+ * </p>
+ * <p>
+ * The listener is invoked on the committing thread once the transaction has committed, in the order the changes were
+ * flushed. The entity version has been incremented by then, so the version before an update is one less than the
+ * version after it. Changes of a transaction which fails to commit are discarded. Bulk JPQL updates do not invoke the
+ * listener.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+public class TransactionalEntityListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    /**
+     * The default serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The dispatcher to which events are handed.
+     */
+    private final transient EntityLifecycleDispatcher dispatcher;
+
+    /**
+     * Construct a TransactionalEntityListener.
+     * 
+     * @param dispatcher The EntityLifecycleDispatcher to which events are handed.
+     */
+    public TransactionalEntityListener(final EntityLifecycleDispatcher dispatcher) {
+        super();
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return TransactionalEntity.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    /**
+     * Produce a <code>CREATED</code> event after the insert of a TransactionalEntity is committed.
+     * 
+     * @param event The PostInsertEvent.
+     */
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        if (event.getEntity() instanceof TransactionalEntity) {
+            final TransactionalEntity entity = (TransactionalEntity) event.getEntity();
+            dispatch(entity, null, entity.getVersion(), ChangeType.CREATED);
+        }
+    }
+
+    /**
+     * Produce an <code>UPDATED</code> event after the update of a TransactionalEntity is committed.
+     * 
+     * @param event The PostUpdateEvent.
+     */
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if (event.getEntity() instanceof TransactionalEntity) {
+            final TransactionalEntity entity = (TransactionalEntity) event.getEntity();
+            final Integer version = entity.getVersion();
+            dispatch(entity, version == null ? null : version - 1, version, ChangeType.UPDATED);
+        }
+    }
+
+    /**
+     * Produce a <code>DELETED</code> event after the delete of a TransactionalEntity is committed.
+     * 
+     * @param event The PostDeleteEvent.
+     */
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        if (event.getEntity() instanceof TransactionalEntity) {
+            final TransactionalEntity entity = (TransactionalEntity) event.getEntity();
+            dispatch(entity, entity.getVersion(), null, ChangeType.DELETED);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(final PostInsertEvent event) {
+        // the change is discarded
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(final PostUpdateEvent event) {
+        // the change is discarded
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(final PostDeleteEvent event) {
+        // the change is discarded
+    }
+
+    /**
+     * Hand an EntityLifecycleEvent for a committed change to the EntityLifecycleDispatcher.
+     * 
+     * @param entity The TransactionalEntity.
+     * @param oldVersion The version before the change.
+     * @param newVersion The version after the change.
+     * @param changeType The type of change.
+     */
+    private void dispatch(final TransactionalEntity entity, final Integer oldVersion, final Integer newVersion,
+            final ChangeType changeType) {
+        dispatcher.dispatchCommitted(new EntityLifecycleEvent(Hibernate.getClass(entity), entity.getId(),
+                entity.getReferenceId(), oldVersion, newVersion, changeType));
+    }
+
+}
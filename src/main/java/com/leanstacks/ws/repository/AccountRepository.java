@@ -1,6 +1,9 @@
 package com.leanstacks.ws.repository;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.leanstacks.ws.model.Account;
@@ -17,11 +20,13 @@ import com.leanstacks.ws.model.Account;
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
     /**
-     * Query for a single Account entities by username.
+     * Query for a single Account entities by username. The query results are held in the Hibernate query cache.
      * 
      * @param username The username value to query the repository.
      * @return An Account or <code>null</code> if none found.
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable",
+            value = "true"))
     Account findByUsername(String username);
 
 }
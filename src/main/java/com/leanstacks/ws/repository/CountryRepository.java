@@ -1,6 +1,10 @@
 package com.leanstacks.ws.repository;
 
+import org.joda.time.DateTime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.leanstacks.ws.model.Country;
@@ -16,4 +20,25 @@ import com.leanstacks.ws.model.Country;
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Long> {
 
+    /**
+     * Updates a Country entity with a single UPDATE statement, without first reading the entity. The update is applied
+     * only if the supplied version matches the persisted version. A <code>null</code> value leaves its column
+     * unchanged. The version is incremented and the <code>updated</code> audit values are set by the statement.
+     * 
+     * @param id The Country primary key identifier.
+     * @param version The Country version expected to be persisted.
+     * @param name The new name value.
+     * @param capital The new capital value.
+     * @param updatedBy A reference to the entity or process performing the update.
+     * @param updatedAt The timestamp of the update.
+     * @return The number of rows updated; <code>0</code> if the entity does not exist or the version does not match.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Country e SET e.name = COALESCE(:name, e.name), e.capital = COALESCE(:capital, e.capital), "
+            + "e.version = e.version + 1, e.updatedBy = :updatedBy, e.updatedAt = :updatedAt "
+            + "WHERE e.id = :id AND e.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Integer version, @Param("name") String name,
+            @Param("capital") String capital, @Param("updatedBy") String updatedBy,
+            @Param("updatedAt") DateTime updatedAt);
+
 }
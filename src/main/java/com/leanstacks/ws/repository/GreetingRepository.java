@@ -1,6 +1,12 @@
 package com.leanstacks.ws.repository;
 
+import java.util.List;
+
+import org.joda.time.DateTime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.leanstacks.ws.model.Greeting;
@@ -16,4 +22,44 @@ import com.leanstacks.ws.model.Greeting;
 @Repository
 public interface GreetingRepository extends JpaRepository<Greeting, Long> {
 
+    /**
+     * Updates a Greeting entity with a single UPDATE statement, without first reading the entity. The update is applied
+     * only if the supplied version matches the persisted version. A <code>null</code> value leaves its column
+     * unchanged. The version is incremented and the <code>updated</code> audit values are set by the statement.
+     * 
+     * @param id The Greeting primary key identifier.
+     * @param version The Greeting version expected to be persisted.
+     * @param text The new text value.
+     * @param language The new language value.
+     * @param updatedBy A reference to the entity or process performing the update.
+     * @param updatedAt The timestamp of the update.
+     * @return The number of rows updated; <code>0</code> if the entity does not exist or the version does not match.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Greeting e SET e.text = COALESCE(:text, e.text), e.language = COALESCE(:language, e.language), "
+            + "e.version = e.version + 1, e.updatedBy = :updatedBy, e.updatedAt = :updatedAt "
+            + "WHERE e.id = :id AND e.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Integer version, @Param("text") String text,
+            @Param("language") String language, @Param("updatedBy") String updatedBy,
+            @Param("updatedAt") DateTime updatedAt);
+
+    /**
+     * Query for the primary key identifiers of the Greeting entities of a language, without reading the entities. The
+     * query is answered from the <code>IX_Greeting_Language</code> index.
+     * 
+     * @param language A language.
+     * @return A List of Greeting primary key identifiers.
+     */
+    @Query("SELECT e.id FROM Greeting e WHERE e.language = :language")
+    List<Long> findIdsByLanguage(@Param("language") String language);
+
+    /**
+     * Query for the language of a Greeting entity, without reading the entity.
+     * 
+     * @param id The Greeting primary key identifier.
+     * @return The language, or <code>null</code> if the entity does not exist.
+     */
+    @Query("SELECT e.language FROM Greeting e WHERE e.id = :id")
+    String findLanguageById(@Param("id") Long id);
+
 }
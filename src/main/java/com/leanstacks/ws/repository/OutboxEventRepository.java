@@ -0,0 +1,45 @@
+package com.leanstacks.ws.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.leanstacks.ws.model.OutboxEvent;
+
+/**
+ * The OutboxEventRepository interface is a Spring Data JPA data repository for
+ * OutboxEvent entities.
+ * 
+ * @author Matt Warman
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Query for the oldest unpublished OutboxEvent entities.
+     * 
+     * @param pageable A Pageable limiting the number of entities returned.
+     * @return A List of OutboxEvent objects ordered by <code>id</code>.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+
+    /**
+     * Marks OutboxEvent entities published with a single UPDATE statement.
+     * 
+     * @param ids The OutboxEvent primary key identifiers.
+     * @param publishedAt The timestamp of publication.
+     * @return The number of rows updated.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") DateTime publishedAt);
+
+}
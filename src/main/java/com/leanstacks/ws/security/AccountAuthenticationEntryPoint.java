@@ -0,0 +1,75 @@
+package com.leanstacks.ws.security;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leanstacks.ws.web.api.ExceptionDetail;
+import com.leanstacks.ws.web.api.ExceptionDetailBuilder;
+
+/**
+ * <p>
+ * A Spring Security AuthenticationEntryPoint for Basic Auth. When credentials could not be verified because the
+ * password verification executor is saturated, the response has HTTP status 503, a <code>Retry-After</code> header
+ * and the Exception detail in the response body. All other authentication failures receive the standard Basic Auth
+ * challenge with HTTP status 401.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class AccountAuthenticationEntryPoint implements AuthenticationEntryPoint {
+
+    /**
+     * The Basic Auth realm name.
+     */
+    private static final String REALM = "Realm";
+
+    /**
+     * The Basic Auth challenge entry point.
+     */
+    private final BasicAuthenticationEntryPoint basicAuthenticationEntryPoint = new BasicAuthenticationEntryPoint();
+
+    /**
+     * A Jackson ObjectMapper for JSON conversion.
+     */
+    @Autowired
+    private transient ObjectMapper mapper;
+
+    /**
+     * Construct an AccountAuthenticationEntryPoint.
+     */
+    public AccountAuthenticationEntryPoint() {
+        basicAuthenticationEntryPoint.setRealmName(REALM);
+    }
+
+    @Override
+    public void commence(final HttpServletRequest request, final HttpServletResponse response,
+            final AuthenticationException authException) throws IOException, ServletException {
+        if (!(authException instanceof AuthenticationUnavailableException)) {
+            basicAuthenticationEntryPoint.commence(request, response, authException);
+            return;
+        }
+
+        final AuthenticationUnavailableException ex = (AuthenticationUnavailableException) authException;
+        final ExceptionDetail detail = new ExceptionDetailBuilder().exception(ex)
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE).httpServletRequest(request).build();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        mapper.writeValue(response.getOutputStream(), detail);
+    }
+
+}
@@ -3,14 +3,19 @@ package com.leanstacks.ws.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import com.leanstacks.ws.service.AccountService;
 import com.leanstacks.ws.util.RequestContext;
 
 /**
@@ -19,7 +24,13 @@ import com.leanstacks.ws.util.RequestContext;
  * class uses the <code>AccountUserDetailsService</code> to retrieve a UserDetails instance.
  * </p>
  * <p>
- * A PasswordEncoder compares the supplied authentication credentials to those in the UserDetails.
+ * A PasswordEncoder compares the supplied authentication credentials to those in the UserDetails. When the stored
+ * password was hashed by a different algorithm or BCrypt cost than the one configured, it is hashed again from the
+ * supplied credentials and stored after a successful authentication.
+ * </p>
+ * <p>
+ * Passwords are hashed by the PasswordVerifier on a dedicated, bounded executor. Failed attempts are counted per
+ * username by the LoginAttemptTracker; the password of a locked username is not verified.
  * </p>
  * 
  * @author Matt Warman
@@ -44,6 +55,36 @@ public class AccountAuthenticationProvider extends AbstractUserDetailsAuthentica
     @Autowired
     private transient PasswordEncoder passwordEncoder;
 
+    /**
+     * The PasswordVerifier which hashes passwords on the password verification executor.
+     */
+    @Autowired
+    private transient PasswordVerifier passwordVerifier;
+
+    /**
+     * The LoginAttemptTracker which counts failed attempts per username.
+     */
+    @Autowired
+    private transient LoginAttemptTracker loginAttemptTracker;
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The AccountService business service.
+     */
+    @Autowired
+    private transient AccountService accountService;
+
+    /**
+     * Indicates if passwords are hashed again on login when their encoding is outdated.
+     */
+    @Value("${ws.security.password.rehash-on-login:true}")
+    private boolean rehashOnLogin;
+
     @Override
     protected void additionalAuthenticationChecks(final UserDetails userDetails,
             final UsernamePasswordAuthenticationToken token) throws AuthenticationException {
@@ -54,22 +95,76 @@ public class AccountAuthenticationProvider extends AbstractUserDetailsAuthentica
             throw new BadCredentialsException("Credentials may not be null.");
         }
 
-        if (!passwordEncoder.matches((String) token.getCredentials(), userDetails.getPassword())) {
+        if (!passwordVerifier.matches((String) token.getCredentials(), userDetails.getPassword())) {
+            recordFailure(userDetails.getUsername(), true);
             logger.info("< additionalAuthenticationChecks");
             throw new BadCredentialsException("Invalid credentials.");
         }
 
+        loginAttemptTracker.recordSuccess(userDetails.getUsername());
         RequestContext.setUsername(userDetails.getUsername());
 
+        if (rehashOnLogin && passwordEncoder instanceof DelegatingPasswordEncoder
+                && ((DelegatingPasswordEncoder) passwordEncoder).upgradeEncoding(userDetails.getPassword())) {
+            rehash(userDetails, (String) token.getCredentials());
+        }
+
         logger.info("< additionalAuthenticationChecks");
     }
 
+    /**
+     * Record a failed authentication attempt.
+     * 
+     * @param username The username.
+     * @param known <code>true</code> if the username exists, otherwise <code>false</code>.
+     */
+    private void recordFailure(final String username, final boolean known) {
+        counterService.increment("security.authentication.failed");
+        final boolean locked = known ? loginAttemptTracker.recordFailure(username)
+                : loginAttemptTracker.recordUnknownFailure(username);
+        if (locked) {
+            counterService.increment("security.authentication.lockout");
+            logger.warn("Username {} locked after repeated failed attempts.", username);
+        }
+    }
+
+    /**
+     * Hash the verified clear text password with the configured algorithm and store it in the Account. A failure is
+     * logged and does not fail the authentication.
+     * 
+     * @param userDetails The authenticated UserDetails.
+     * @param rawPassword The verified clear text password.
+     */
+    private void rehash(final UserDetails userDetails, final String rawPassword) {
+        try {
+            final boolean updated = accountService.updatePassword(userDetails.getUsername(), userDetails.getPassword(),
+                    passwordVerifier.encode(rawPassword));
+            if (updated) {
+                logger.info("Password of {} hashed again with the current encoding.", userDetails.getUsername());
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Password of {} could not be hashed again.", userDetails.getUsername(), ex);
+        }
+    }
+
     @Override
     protected UserDetails retrieveUser(final String username, final UsernamePasswordAuthenticationToken token)
             throws AuthenticationException {
         logger.info("> retrieveUser");
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (loginAttemptTracker.isLocked(username)) {
+            counterService.increment("security.authentication.locked");
+            logger.info("< retrieveUser");
+            throw new LockedException("Invalid credentials.");
+        }
+
+        final UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException ex) {
+            recordFailure(username, false);
+            throw ex;
+        }
 
         logger.info("< retrieveUser");
         return userDetails;
@@ -0,0 +1,154 @@
+package com.leanstacks.ws.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.leanstacks.ws.model.Account;
+
+/**
+ * <p>
+ * A Spring Security UserDetails implementation created from an Account entity. The GrantedAuthority collection is the
+ * interned collection of the Account's role mask and is shared, not copied.
+ * </p>
+ * <p>
+ * The role mask allows the RoleAuthorizer to check a Role with a single bitwise operation. The hashed password is
+ * erased by the AuthenticationManager after authentication, so it is not retained in the SecurityContext.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class AccountUserDetails implements UserDetails, CredentialsContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The username.
+     */
+    private final String username;
+
+    /**
+     * The hashed password, or <code>null</code> once erased.
+     */
+    private String password;
+
+    /**
+     * Indicates if the Account is enabled.
+     */
+    private final boolean enabled;
+
+    /**
+     * Indicates if the Account is not expired.
+     */
+    private final boolean accountNonExpired;
+
+    /**
+     * Indicates if the Account credentials are not expired.
+     */
+    private final boolean credentialsNonExpired;
+
+    /**
+     * Indicates if the Account is not locked.
+     */
+    private final boolean accountNonLocked;
+
+    /**
+     * The role mask of the effective Roles.
+     */
+    private final long roleMask;
+
+    /**
+     * The RoleAuthorities mapping which computed the role mask.
+     */
+    private final transient RoleAuthorities roleAuthorities;
+
+    /**
+     * The interned GrantedAuthority collection of the role mask.
+     */
+    private final Collection<GrantedAuthority> authorities;
+
+    /**
+     * Construct an AccountUserDetails.
+     *
+     * @param account The Account.
+     * @param roleAuthorities The RoleAuthorities mapping which computed the role mask.
+     * @param roleMask The role mask of the effective Roles.
+     */
+    public AccountUserDetails(final Account account, final RoleAuthorities roleAuthorities, final long roleMask) {
+        this.username = account.getUsername();
+        this.password = account.getPassword();
+        this.enabled = account.isEnabled();
+        this.accountNonExpired = !account.isExpired();
+        this.credentialsNonExpired = !account.isCredentialsexpired();
+        this.accountNonLocked = !account.isLocked();
+        this.roleAuthorities = roleAuthorities;
+        this.roleMask = roleMask;
+        this.authorities = roleAuthorities.authoritiesOf(roleMask);
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RoleAuthorities getRoleAuthorities() {
+        return roleAuthorities;
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof AccountUserDetails && username.equals(((AccountUserDetails) obj).username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AccountUserDetails [username=" + username + ", roleMask=" + roleMask + "]";
+    }
+
+}
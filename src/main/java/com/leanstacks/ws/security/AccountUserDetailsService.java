@@ -1,27 +1,25 @@
 package com.leanstacks.ws.security;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.leanstacks.ws.cache.MissingEntityCache;
 import com.leanstacks.ws.model.Account;
-import com.leanstacks.ws.model.Role;
 import com.leanstacks.ws.service.AccountService;
 
 /**
  * A Spring Security UserDetailsService implementation which creates UserDetails objects from the Account and Role
- * entities.
+ * entities. The Account Role identifiers are resolved against the in-memory Role reference data; Roles which are not
+ * effective at the time of authentication are not granted. Accounts with the same effective Roles share one interned
+ * GrantedAuthority collection. Usernames recently found not to exist are rejected by the MissingEntityCache without
+ * a query.
  * 
  * @author Matt Warman
  */
@@ -39,29 +37,48 @@ public class AccountUserDetailsService implements UserDetailsService {
     @Autowired
     private transient AccountService accountService;
 
+    /**
+     * The RoleAuthorizer which maps Roles to role masks.
+     */
+    @Autowired
+    private transient RoleAuthorizer roleAuthorizer;
+
+    /**
+     * The MissingEntityCache answers lookups of usernames which do not exist.
+     */
+    @Autowired
+    private transient MissingEntityCache missingEntityCache;
+
     @Override
     public UserDetails loadUserByUsername(final String username) throws UsernameNotFoundException {
         logger.info("> loadUserByUsername {}", username);
 
+        if (missingEntityCache.isMissingUsername(username)) {
+            // Recently not found...
+            throw new UsernameNotFoundException("Invalid credentials.");
+        }
+
         final Account account = accountService.findByUsername(username);
         if (account == null) {
             // Not found...
+            missingEntityCache.recordMissingUsername(username);
             throw new UsernameNotFoundException("Invalid credentials.");
         }
 
-        final Set<Role> roles = account.getRoles();
-        if (roles == null || roles.isEmpty()) {
+        final Set<Long> roleIds = account.getRoleIds();
+        if (roleIds == null || roleIds.isEmpty()) {
             // No Roles assigned to Account...
             throw new UsernameNotFoundException("Invalid credentials.");
         }
 
-        final Collection<GrantedAuthority> grantedAuthorities = new ArrayList<GrantedAuthority>();
-        for (final Role role : roles) {
-            grantedAuthorities.add(new SimpleGrantedAuthority(role.getCode()));
+        final RoleAuthorities roleAuthorities = roleAuthorizer.getRoleAuthorities();
+        final long roleMask = roleAuthorities.maskOf(roleIds, System.currentTimeMillis());
+        if (roleMask == 0) {
+            // No effective Roles assigned to Account...
+            throw new UsernameNotFoundException("Invalid credentials.");
         }
 
-        final User userDetails = new User(account.getUsername(), account.getPassword(), account.isEnabled(),
-                !account.isExpired(), !account.isCredentialsexpired(), !account.isLocked(), grantedAuthorities);
+        final AccountUserDetails userDetails = new AccountUserDetails(account, roleAuthorities, roleMask);
 
         logger.info("< loadUserByUsername {}", username);
         return userDetails;
@@ -0,0 +1,40 @@
+package com.leanstacks.ws.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * An AuthenticationUnavailableException is thrown when credentials cannot be verified because the password
+ * verification executor is saturated. The request is answered with HTTP status 503.
+ *
+ * @author Matt Warman
+ */
+public class AuthenticationUnavailableException extends AuthenticationServiceException {
+
+    /**
+     * The default serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Construct an AuthenticationUnavailableException.
+     *
+     * @param message A String message.
+     * @param retryAfterSeconds The number of seconds after which the client may retry.
+     * @param cause The cause.
+     */
+    public AuthenticationUnavailableException(final String message, final long retryAfterSeconds,
+            final Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.leanstacks.ws.security;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * <p>
+ * The BCryptCostCalibrator measures the time this host takes to compute a BCrypt hash and selects the highest cost
+ * whose estimated hash time fits within a latency budget.
+ * </p>
+ * <p>
+ * A hash is timed at the minimum cost and the time of each higher cost is estimated by doubling, since each increment
+ * of the cost doubles the work. The selected cost is never lower than the minimum cost, even if the host is too slow
+ * to meet the budget.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class BCryptCostCalibrator {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    /**
+     * The number of timed hashes. The median time is used.
+     */
+    private static final int SAMPLES = 3;
+
+    /**
+     * The value hashed by the benchmark.
+     */
+    private static final String BENCHMARK_PASSWORD = "benchmark";
+
+    /**
+     * Select the highest BCrypt cost whose estimated hash time is within the supplied budget.
+     *
+     * @param budgetMillis The latency budget of one hash, in milliseconds.
+     * @param minCost The minimum cost.
+     * @param maxCost The maximum cost.
+     * @return The selected cost.
+     */
+    public int calibrate(final long budgetMillis, final int minCost, final int maxCost) {
+        logger.info("> calibrate");
+
+        // warm up the JIT before timing
+        BCrypt.hashpw(BENCHMARK_PASSWORD, BCrypt.gensalt(4));
+
+        final long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            final long start = System.nanoTime();
+            BCrypt.hashpw(BENCHMARK_PASSWORD, BCrypt.gensalt(minCost));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        final long minCostNanos = samples[SAMPLES / 2];
+
+        final int cost = selectCost(minCostNanos, TimeUnit.MILLISECONDS.toNanos(budgetMillis), minCost, maxCost);
+        logger.info("BCrypt cost {} selected; cost {} hashed in {} ms, latency budget {} ms.", cost, minCost,
+                TimeUnit.NANOSECONDS.toMillis(minCostNanos), budgetMillis);
+
+        logger.info("< calibrate");
+        return cost;
+    }
+
+    /**
+     * Select the highest cost whose estimated hash time is within the supplied budget.
+     *
+     * @param minCostNanos The measured hash time at the minimum cost, in nanoseconds.
+     * @param budgetNanos The latency budget of one hash, in nanoseconds.
+     * @param minCost The minimum cost.
+     * @param maxCost The maximum cost.
+     * @return The selected cost.
+     */
+    public static int selectCost(final long minCostNanos, final long budgetNanos, final int minCost,
+            final int maxCost) {
+        int cost = minCost;
+        long estimate = minCostNanos;
+        while (cost < maxCost && estimate * 2 <= budgetNanos) {
+            estimate *= 2;
+            cost++;
+        }
+        return cost;
+    }
+
+}
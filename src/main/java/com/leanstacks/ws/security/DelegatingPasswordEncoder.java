@@ -0,0 +1,160 @@
+package com.leanstacks.ws.security;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * <p>
+ * A PasswordEncoder which delegates to one of several PasswordEncoders selected by an <code>{id}</code> prefix of the
+ * encoded password, e.g. <code>{bcrypt}$2a$12$...</code>. New passwords are encoded by the PasswordEncoder of the
+ * configured id. An encoded password without a prefix is matched by the PasswordEncoder of the default id, which
+ * allows existing unprefixed BCrypt hashes to be verified.
+ * </p>
+ * <p>
+ * An encoded password should be upgraded when it is not prefixed, when it was encoded by a different algorithm, or
+ * when it is a BCrypt hash with a cost lower than the target cost. A hash with a higher cost is kept, so nodes, or
+ * restarts, which calibrate different target costs do not re-hash the same passwords back and forth.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class DelegatingPasswordEncoder implements PasswordEncoder {
+
+    /**
+     * The id of the BCrypt algorithm.
+     */
+    public static final String BCRYPT = "bcrypt";
+
+    /**
+     * The character which begins an id prefix.
+     */
+    private static final String PREFIX = "{";
+
+    /**
+     * The character which ends an id prefix.
+     */
+    private static final String SUFFIX = "}";
+
+    /**
+     * Matches the cost of a BCrypt hash, e.g. the <code>12</code> of <code>$2a$12$...</code>.
+     */
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[ayb]?\\$(\\d\\d)\\$");
+
+    /**
+     * The id of the PasswordEncoder which encodes new passwords.
+     */
+    private final String idForEncode;
+
+    /**
+     * The id of the PasswordEncoder which matches unprefixed encoded passwords.
+     */
+    private final String defaultIdForMatches;
+
+    /**
+     * The PasswordEncoders keyed by id.
+     */
+    private final Map<String, PasswordEncoder> encoders;
+
+    /**
+     * The BCrypt cost of newly encoded passwords.
+     */
+    private final int bcryptCost;
+
+    /**
+     * Construct a DelegatingPasswordEncoder.
+     *
+     * @param idForEncode The id of the PasswordEncoder which encodes new passwords.
+     * @param defaultIdForMatches The id of the PasswordEncoder which matches unprefixed encoded passwords.
+     * @param encoders The PasswordEncoders keyed by id.
+     * @param bcryptCost The BCrypt cost of passwords encoded by the <code>bcrypt</code> PasswordEncoder.
+     * @throws IllegalArgumentException Thrown if no PasswordEncoder is registered for an id.
+     */
+    public DelegatingPasswordEncoder(final String idForEncode, final String defaultIdForMatches,
+            final Map<String, PasswordEncoder> encoders, final int bcryptCost) {
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalArgumentException("No PasswordEncoder registered for id " + idForEncode);
+        }
+        if (!encoders.containsKey(defaultIdForMatches)) {
+            throw new IllegalArgumentException("No PasswordEncoder registered for id " + defaultIdForMatches);
+        }
+        this.idForEncode = idForEncode;
+        this.defaultIdForMatches = defaultIdForMatches;
+        this.encoders = Collections.unmodifiableMap(new HashMap<String, PasswordEncoder>(encoders));
+        this.bcryptCost = bcryptCost;
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return PREFIX + idForEncode + SUFFIX + encoders.get(idForEncode).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        final String id = extractId(encodedPassword);
+        final PasswordEncoder encoder = encoders.get(id == null ? defaultIdForMatches : id);
+        if (encoder == null) {
+            return false;
+        }
+        return encoder.matches(rawPassword, extractEncodedPassword(encodedPassword, id));
+    }
+
+    /**
+     * Indicates if the supplied encoded password should be encoded again for better security.
+     *
+     * @param encodedPassword An encoded password.
+     * @return <code>true</code> if the password should be encoded again, otherwise <code>false</code>.
+     */
+    public boolean upgradeEncoding(final String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        final String id = extractId(encodedPassword);
+        if (!idForEncode.equals(id)) {
+            return true;
+        }
+        if (BCRYPT.equals(id)) {
+            final Matcher matcher = BCRYPT_COST.matcher(extractEncodedPassword(encodedPassword, id));
+            return !matcher.find() || Integer.parseInt(matcher.group(1)) < bcryptCost;
+        }
+        return false;
+    }
+
+    public int getBcryptCost() {
+        return bcryptCost;
+    }
+
+    /**
+     * Returns the id prefix of an encoded password.
+     *
+     * @param encodedPassword An encoded password.
+     * @return The id, or <code>null</code> if the encoded password is not prefixed.
+     */
+    private static String extractId(final String encodedPassword) {
+        if (!encodedPassword.startsWith(PREFIX)) {
+            return null;
+        }
+        final int end = encodedPassword.indexOf(SUFFIX);
+        return end < 0 ? null : encodedPassword.substring(PREFIX.length(), end);
+    }
+
+    /**
+     * Returns an encoded password without its id prefix.
+     *
+     * @param encodedPassword An encoded password.
+     * @param id The id prefix, or <code>null</code> if the encoded password is not prefixed.
+     * @return The encoded password without the prefix.
+     */
+    private static String extractEncodedPassword(final String encodedPassword, final String id) {
+        return id == null ? encodedPassword
+                : encodedPassword.substring(PREFIX.length() + id.length() + SUFFIX.length());
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.leanstacks.ws.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * <p>
+ * The LoginAttemptTracker counts failed authentication attempts per username. A username is locked when
+ * <code>maxFailures</code> attempts fail within the window, and remains locked for the lockout period. A successful
+ * authentication clears the username's failures.
+ * </p>
+ * <p>
+ * Failures of existing and unknown usernames are counted in separate caches of at most 10,000 usernames each, from
+ * which idle usernames are evicted, so a spray of unknown usernames cannot exhaust memory. The lockouts of existing
+ * usernames are held apart from both caches until they expire, so neither a spray of unknown usernames nor size
+ * pressure can evict an active lockout. Their number is bounded by the number of accounts.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class LoginAttemptTracker {
+
+    /**
+     * The number of failed attempts which locks a username.
+     */
+    private final int maxFailures;
+
+    /**
+     * The period in which failed attempts are counted, in nanoseconds.
+     */
+    private final long windowNanos;
+
+    /**
+     * The period for which a username is locked, in nanoseconds.
+     */
+    private final long lockoutNanos;
+
+    /**
+     * The clock, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The failed attempts keyed by existing username.
+     */
+    private final Cache<String, Attempts> attempts;
+
+    /**
+     * The failed attempts keyed by unknown username.
+     */
+    private final Cache<String, Attempts> unknownAttempts;
+
+    /**
+     * The end of the lockout keyed by locked existing username.
+     */
+    private final ConcurrentMap<String, Long> lockouts = new ConcurrentHashMap<String, Long>();
+
+    /**
+     * Construct a LoginAttemptTracker.
+     *
+     * @param maxFailures The number of failed attempts which locks a username.
+     * @param windowNanos The period in which failed attempts are counted, in nanoseconds.
+     * @param lockoutNanos The period for which a username is locked, in nanoseconds.
+     * @param clock The clock, in nanoseconds, e.g. <code>System::nanoTime</code>.
+     */
+    public LoginAttemptTracker(final int maxFailures, final long windowNanos, final long lockoutNanos,
+            final LongSupplier clock) {
+        this.maxFailures = maxFailures;
+        this.windowNanos = windowNanos;
+        this.lockoutNanos = lockoutNanos;
+        this.clock = clock;
+        this.attempts = Caffeine.newBuilder().maximumSize(10000).ticker(clock::getAsLong)
+                .expireAfterAccess(windowNanos, TimeUnit.NANOSECONDS).build();
+        this.unknownAttempts = Caffeine.newBuilder().maximumSize(10000).ticker(clock::getAsLong)
+                .expireAfterAccess(Math.max(windowNanos, lockoutNanos), TimeUnit.NANOSECONDS).build();
+    }
+
+    /**
+     * Indicates if the supplied username is locked.
+     *
+     * @param username A username.
+     * @return <code>true</code> if the username is locked, otherwise <code>false</code>.
+     */
+    public boolean isLocked(final String username) {
+        final long now = clock.getAsLong();
+        final Long lockedUntil = lockouts.get(username);
+        if (lockedUntil != null) {
+            if (now - lockedUntil < 0) {
+                return true;
+            }
+            lockouts.remove(username, lockedUntil);
+        }
+        final Attempts entry = unknownAttempts.getIfPresent(username);
+        return entry != null && entry.isLocked(now);
+    }
+
+    /**
+     * Record a failed attempt of an existing username.
+     *
+     * @param username A username.
+     * @return <code>true</code> if the attempt locked the username, otherwise <code>false</code>.
+     */
+    public boolean recordFailure(final String username) {
+        final long now = clock.getAsLong();
+        final Attempts entry = attempts.get(username, key -> new Attempts());
+        if (!entry.fail(now)) {
+            return false;
+        }
+        lockouts.put(username, now + lockoutNanos);
+        attempts.invalidate(username);
+        return true;
+    }
+
+    /**
+     * Record a failed attempt of a username which does not exist.
+     *
+     * @param username A username.
+     * @return <code>true</code> if the attempt locked the username, otherwise <code>false</code>.
+     */
+    public boolean recordUnknownFailure(final String username) {
+        return unknownAttempts.get(username, key -> new Attempts()).fail(clock.getAsLong());
+    }
+
+    /**
+     * Record a successful attempt, clearing the username's failures.
+     *
+     * @param username A username.
+     */
+    public void recordSuccess(final String username) {
+        attempts.invalidate(username);
+        lockouts.remove(username);
+    }
+
+    /**
+     * The failed attempts of one username.
+     */
+    private class Attempts {
+
+        /**
+         * The start of the current window.
+         */
+        private long windowStart;
+
+        /**
+         * The number of failures in the current window.
+         */
+        private int failures;
+
+        /**
+         * The end of the lockout, if locked.
+         */
+        private long lockedUntil;
+
+        /**
+         * Indicates if the lockout is in effect.
+         */
+        private boolean locked;
+
+        synchronized boolean isLocked(final long now) {
+            return locked && now - lockedUntil < 0;
+        }
+
+        synchronized boolean fail(final long now) {
+            if (isLocked(now)) {
+                return false;
+            }
+            if (failures == 0 || now - windowStart > windowNanos) {
+                windowStart = now;
+                failures = 0;
+            }
+            failures++;
+            if (failures < maxFailures) {
+                return false;
+            }
+            locked = true;
+            lockedUntil = now + lockoutNanos;
+            failures = 0;
+            return true;
+        }
+
+    }
+
+}
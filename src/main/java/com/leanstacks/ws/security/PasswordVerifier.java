@@ -0,0 +1,131 @@
+package com.leanstacks.ws.security;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * The PasswordVerifier hashes and verifies passwords on the bounded password verification executor rather than on
+ * the calling request thread.
+ * </p>
+ * <p>
+ * When the executor is saturated, or a verification does not complete within
+ * <code>ws.security.verification.timeout</code> milliseconds, an AuthenticationUnavailableException is thrown and the
+ * request is answered with HTTP status 503.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component
+public class PasswordVerifier {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    /**
+     * The number of seconds after which a client rejected by a saturated executor may retry.
+     */
+    private static final long RETRY_AFTER_SECONDS = 1L;
+
+    /**
+     * A PasswordEncoder instance to hash clear text password values.
+     */
+    @Autowired
+    private transient PasswordEncoder passwordEncoder;
+
+    /**
+     * The executor on which passwords are hashed and verified.
+     */
+    @Autowired
+    @Qualifier("passwordVerificationTaskExecutor")
+    private transient ThreadPoolTaskExecutor executor;
+
+    /**
+     * The maximum time to wait for a verification, in milliseconds.
+     */
+    @Value("${ws.security.verification.timeout:5000}")
+    private long timeout;
+
+    /**
+     * Verify a clear text password against an encoded password.
+     *
+     * @param rawPassword The clear text password.
+     * @param encodedPassword The encoded password.
+     * @return <code>true</code> if the passwords match, otherwise <code>false</code>.
+     * @throws AuthenticationUnavailableException Thrown if the verification executor is saturated.
+     */
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Encode a clear text password.
+     *
+     * @param rawPassword The clear text password.
+     * @return The encoded password.
+     * @throws AuthenticationUnavailableException Thrown if the verification executor is saturated.
+     */
+    public String encode(final CharSequence rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Submit a hash operation to the verification executor.
+     *
+     * @param task The hash operation.
+     * @param <T> The result type.
+     * @return The Future result.
+     */
+    private <T> Future<T> submit(final Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (TaskRejectedException ex) {
+            throw new AuthenticationUnavailableException("Authentication is temporarily unavailable.",
+                    RETRY_AFTER_SECONDS, ex);
+        }
+    }
+
+    /**
+     * Wait for a hash operation, abandoning it after the timeout.
+     *
+     * @param future The Future result.
+     * @param <T> The result type.
+     * @return The result.
+     */
+    private <T> T await(final Future<T> future) {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            logger.warn("Password verification timed out after {} ms.", timeout);
+            throw new AuthenticationUnavailableException("Authentication is temporarily unavailable.",
+                    RETRY_AFTER_SECONDS, ex);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationUnavailableException("Authentication was interrupted.", RETRY_AFTER_SECONDS, ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.leanstacks.ws.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.leanstacks.ws.model.Role;
+import com.leanstacks.ws.service.ReferenceDataSet;
+
+/**
+ * <p>
+ * An immutable mapping of the Roles in one ReferenceDataSet to bit positions of a <code>long</code> role mask. Each
+ * Role is assigned the bit of its position in <code>ordinal</code> order, so at most 64 Roles are supported.
+ * </p>
+ * <p>
+ * The GrantedAuthority collection of each distinct role mask is built once and interned, so every Account with the
+ * same combination of Roles shares one immutable collection of shared GrantedAuthority instances.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class RoleAuthorities {
+
+    /**
+     * The prefix of Role codes which the <code>hasRole</code> checks may omit.
+     */
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * The ReferenceDataSet from which the mapping was built.
+     */
+    private final ReferenceDataSet<Role> roles;
+
+    /**
+     * The bit position of each Role, keyed by Role <code>id</code>.
+     */
+    private final Map<Long, Integer> bitsById;
+
+    /**
+     * The single-bit mask of each Role, keyed by Role <code>code</code> with and without the <code>ROLE_</code>
+     * prefix.
+     */
+    private final Map<String, Long> masksByCode;
+
+    /**
+     * The GrantedAuthority of each bit position.
+     */
+    private final GrantedAuthority[] authorities;
+
+    /**
+     * The interned GrantedAuthority collections, keyed by role mask.
+     */
+    private final ConcurrentMap<Long, Collection<GrantedAuthority>> authoritiesByMask =
+            new ConcurrentHashMap<Long, Collection<GrantedAuthority>>();
+
+    /**
+     * Construct a RoleAuthorities mapping.
+     *
+     * @param roles The Role ReferenceDataSet.
+     * @throws IllegalStateException Thrown if the ReferenceDataSet contains more than 64 Roles.
+     */
+    public RoleAuthorities(final ReferenceDataSet<Role> roles) {
+        final List<Role> all = roles.findAll();
+        if (all.size() > Long.SIZE) {
+            throw new IllegalStateException("At most " + Long.SIZE + " Roles are supported; found " + all.size());
+        }
+        this.roles = roles;
+
+        final Map<Long, Integer> byId = new HashMap<Long, Integer>();
+        final Map<String, Long> byCode = new HashMap<String, Long>();
+        this.authorities = new GrantedAuthority[all.size()];
+        for (int bit = 0; bit < all.size(); bit++) {
+            final Role role = all.get(bit);
+            byId.put(role.getId(), bit);
+            byCode.put(role.getCode(), 1L << bit);
+            if (role.getCode().startsWith(ROLE_PREFIX)) {
+                byCode.put(role.getCode().substring(ROLE_PREFIX.length()), 1L << bit);
+            }
+            authorities[bit] = new SimpleGrantedAuthority(role.getCode());
+        }
+        this.bitsById = Collections.unmodifiableMap(byId);
+        this.masksByCode = Collections.unmodifiableMap(byCode);
+    }
+
+    /**
+     * Returns the ReferenceDataSet from which the mapping was built.
+     *
+     * @return The Role ReferenceDataSet.
+     */
+    public ReferenceDataSet<Role> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Returns the role mask of the supplied Role identifiers, including only the Roles effective at the supplied
+     * instant.
+     *
+     * @param roleIds A Set of Role identifiers.
+     * @param millis The instant, in epoch milliseconds.
+     * @return The role mask.
+     */
+    public long maskOf(final Set<Long> roleIds, final long millis) {
+        long mask = 0L;
+        for (final Long roleId : roleIds) {
+            final Integer bit = bitsById.get(roleId);
+            if (bit != null && roles.findEffectiveById(roleId, millis) != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the mask of the Role with the supplied code. The <code>ROLE_</code> prefix may be omitted.
+     *
+     * @param code A Role code.
+     * @return The single-bit role mask, or <code>0</code> if the Role is unknown.
+     */
+    public long maskOf(final String code) {
+        final Long mask = masksByCode.get(code);
+        return mask == null ? 0L : mask;
+    }
+
+    /**
+     * Returns the interned, unmodifiable GrantedAuthority collection of the supplied role mask.
+     *
+     * @param mask A role mask.
+     * @return A Collection of GrantedAuthority.
+     */
+    public Collection<GrantedAuthority> authoritiesOf(final long mask) {
+        final Collection<GrantedAuthority> interned = authoritiesByMask.get(mask);
+        if (interned != null) {
+            return interned;
+        }
+        final List<GrantedAuthority> list = new ArrayList<GrantedAuthority>(Long.bitCount(mask));
+        for (int bit = 0; bit < authorities.length; bit++) {
+            if ((mask & 1L << bit) != 0) {
+                list.add(authorities[bit]);
+            }
+        }
+        final Collection<GrantedAuthority> existing =
+                authoritiesByMask.putIfAbsent(mask, Collections.unmodifiableList(list));
+        return existing == null ? authoritiesByMask.get(mask) : existing;
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.leanstacks.ws.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.leanstacks.ws.model.Role;
+import com.leanstacks.ws.service.ReferenceDataService;
+import com.leanstacks.ws.service.ReferenceDataSet;
+
+/**
+ * <p>
+ * The RoleAuthorizer performs role checks against the role mask of an AccountUserDetails principal. It is referenced
+ * from the web security access expressions, e.g. <code>@roleAuthorizer.hasRole(authentication, 'USER')</code>.
+ * </p>
+ * <p>
+ * The RoleAuthorities mapping is rebuilt when the ReferenceDataService reloads the Role reference data. A principal
+ * which is not an AccountUserDetails is checked by scanning its GrantedAuthority collection.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Component("roleAuthorizer")
+public class RoleAuthorizer {
+
+    /**
+     * The ReferenceDataService business service.
+     */
+    @Autowired
+    private transient ReferenceDataService referenceDataService;
+
+    /**
+     * The RoleAuthorities mapping of the current Role reference data.
+     */
+    private transient volatile RoleAuthorities roleAuthorities;
+
+    /**
+     * Returns the RoleAuthorities mapping of the current Role reference data.
+     *
+     * @return A RoleAuthorities.
+     */
+    public RoleAuthorities getRoleAuthorities() {
+        final ReferenceDataSet<Role> roles = referenceDataService.getReferenceData(Role.class);
+        RoleAuthorities current = roleAuthorities;
+        if (current == null || current.getRoles() != roles) {
+            // a concurrent rebuild from the same reference data is harmless
+            current = new RoleAuthorities(roles);
+            roleAuthorities = current;
+        }
+        return current;
+    }
+
+    /**
+     * Indicates if the supplied Authentication has been granted the Role with the supplied code.
+     *
+     * @param authentication An Authentication.
+     * @param code A Role code. The <code>ROLE_</code> prefix may be omitted.
+     * @return <code>true</code> if the Role is granted, otherwise <code>false</code>.
+     */
+    public boolean hasRole(final Authentication authentication, final String code) {
+        if (authentication == null) {
+            return false;
+        }
+        final Object principal = authentication.getPrincipal();
+        if (principal instanceof AccountUserDetails
+                && ((AccountUserDetails) principal).getRoleAuthorities() != null) {
+            // the mask is interpreted by the RoleAuthorities mapping which computed it
+            final AccountUserDetails userDetails = (AccountUserDetails) principal;
+            return (userDetails.getRoleMask() & userDetails.getRoleAuthorities().maskOf(code)) != 0;
+        }
+        final RoleAuthorities current = getRoleAuthorities();
+        final long mask = current.maskOf(code);
+        if (mask == 0) {
+            return false;
+        }
+        for (final GrantedAuthority authority : authentication.getAuthorities()) {
+            if (current.maskOf(authority.getAuthority()) == mask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
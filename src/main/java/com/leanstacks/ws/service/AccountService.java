@@ -23,4 +23,14 @@ public interface AccountService {
      */
     Account findByUsername(String username);
 
+    /**
+     * Replace the encoded password of an Account, if the Account password has not changed since it was read.
+     * 
+     * @param username The username of the Account.
+     * @param currentPassword The encoded password which was read.
+     * @param newPassword The new encoded password.
+     * @return <code>true</code> if the password was replaced, otherwise <code>false</code>.
+     */
+    boolean updatePassword(String username, String currentPassword, String newPassword);
+
 }
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.leanstacks.ws.model.Account;
 import com.leanstacks.ws.repository.AccountRepository;
@@ -28,6 +29,7 @@ public class AccountServiceBean implements AccountService {
     @Autowired
     private transient AccountRepository accountRepository;
 
+    @Transactional(readOnly = true)
     @Override
     public Account findByUsername(final String username) {
         logger.info("> findByUsername");
@@ -38,4 +40,22 @@ public class AccountServiceBean implements AccountService {
         return account;
     }
 
+    @Transactional
+    @Override
+    public boolean updatePassword(final String username, final String currentPassword, final String newPassword) {
+        logger.info("> updatePassword");
+
+        final Account account = accountRepository.findByUsername(username);
+        if (account == null || !account.getPassword().equals(currentPassword)) {
+            // Changed concurrently; keep the newer password
+            logger.info("< updatePassword");
+            return false;
+        }
+        account.setPassword(newPassword);
+        accountRepository.save(account);
+
+        logger.info("< updatePassword");
+        return true;
+    }
+
 }
@@ -0,0 +1,43 @@
+package com.leanstacks.ws.service;
+
+/**
+ * <p>
+ * The CacheWarmupService interface defines the business behaviors which preload the Hibernate second-level cache.
+ * </p>
+ * <p>
+ * This interface should be injected into CacheWarmupService clients, not the implementation bean.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public interface CacheWarmupService {
+
+    /**
+     * Preload Greetings, Countries, active Roles and active Accounts into the second-level cache. Blocks until the
+     * cache is warm. A warm-up is started automatically, without blocking, when the application is ready.
+     */
+    void warmUp();
+
+    /**
+     * Reload the entities of the supplied class into the second-level cache in the background, if the refresh mode is
+     * enabled. Invoked after a cache region is evicted.
+     *
+     * @param entityClass The entity class.
+     */
+    void refresh(Class<?> entityClass);
+
+    /**
+     * Indicates if a warm-up or refresh is in progress.
+     *
+     * @return <code>true</code> if a warm-up or refresh is in progress, otherwise <code>false</code>.
+     */
+    boolean isWarming();
+
+    /**
+     * Indicates if the initial warm-up has completed.
+     *
+     * @return <code>true</code> if the initial warm-up has completed, otherwise <code>false</code>.
+     */
+    boolean isWarm();
+
+}
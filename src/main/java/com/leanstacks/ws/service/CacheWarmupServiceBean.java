@@ -0,0 +1,296 @@
+package com.leanstacks.ws.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+
+import com.leanstacks.ws.model.Account;
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.model.Role;
+
+/**
+ * <p>
+ * The CacheWarmupServiceBean encapsulates the behaviors which preload the Hibernate second-level cache.
+ * </p>
+ * <p>
+ * The warm-up is started on the warm-up executor when the application is ready, after the embedded Servlet container
+ * has started, so it does not lengthen startup. The identifiers of each entity class are read, split into batches,
+ * and the batches are loaded in parallel with the <code>CacheStoreMode.REFRESH</code> hint, which places every loaded
+ * entity in the cache. The <code>cacheWarmup</code> health indicator reports <code>OUT_OF_SERVICE</code> until the
+ * warm-up completes, so a load balancer withholds traffic from the instance meanwhile.
+ * </p>
+ * <p>
+ * When the <code>ws.cache.warmup.refresh-after-evict</code> property is <code>true</code>, an evicted cache region is
+ * reloaded in the background. The refresh is chained on the completion of its batches rather than waiting for them on
+ * a thread of the warm-up executor, so any number of refreshes cannot exhaust the executor.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@Service
+public class CacheWarmupServiceBean
+        implements CacheWarmupService, ApplicationListener<ApplicationReadyEvent>, InitializingBean, DisposableBean {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupServiceBean.class);
+
+    /**
+     * The JPA query hint controlling the second-level cache store mode.
+     */
+    private static final String HINT_CACHE_STORE_MODE = "javax.persistence.cache.storeMode";
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The JPA EntityManagerFactory.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Indicates if the warm-up is executed on startup.
+     */
+    @Value("${ws.cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Indicates if evicted cache regions are reloaded in the background.
+     */
+    @Value("${ws.cache.warmup.refresh-after-evict:false}")
+    private boolean refreshAfterEvict;
+
+    /**
+     * The number of entities loaded by each batch.
+     */
+    @Value("${ws.cache.warmup.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * The number of batches loaded concurrently.
+     */
+    @Value("${ws.cache.warmup.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * The executor which loads batches.
+     */
+    private transient ExecutorService executorService;
+
+    /**
+     * Indicates if the startup warm-up has been triggered.
+     */
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * The number of warm-ups and refreshes in progress.
+     */
+    private final AtomicInteger inProgress = new AtomicInteger();
+
+    /**
+     * Indicates if the initial warm-up has completed.
+     */
+    private volatile boolean warm;
+
+    @Override
+    public void afterPropertiesSet() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executorService = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    @Override
+    public void onApplicationEvent(final ApplicationReadyEvent event) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        if (enabled) {
+            startWarmUp();
+        } else {
+            warm = true;
+        }
+    }
+
+    @Override
+    public void warmUp() {
+        logger.info("> warmUp");
+
+        counterService.increment("method.invoked.cacheWarmupServiceBean.warmUp");
+
+        // never invoked on a thread of the executor which loads the batches
+        startWarmUp().join();
+
+        logger.info("< warmUp");
+    }
+
+    @Override
+    public void refresh(final Class<?> entityClass) {
+        if (!refreshAfterEvict) {
+            return;
+        }
+        logger.info("> refresh {}", entityClass.getSimpleName());
+
+        counterService.increment("method.invoked.cacheWarmupServiceBean.refresh");
+
+        inProgress.incrementAndGet();
+        final String idQuery = "SELECT e.id FROM " + entityClass.getSimpleName() + " e ORDER BY e.id";
+        CompletableFuture.supplyAsync(() -> readIds(idQuery, null), executorService).thenCompose(ids -> {
+            final List<CompletableFuture<Void>> loads = loadBatches(entityClass, ids);
+            return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[loads.size()]));
+        }).whenComplete((result, ex) -> {
+            inProgress.decrementAndGet();
+            if (ex != null) {
+                logger.error("Cache refresh of {} failed.", entityClass.getSimpleName(), ex);
+            }
+        });
+
+        logger.info("< refresh {}", entityClass.getSimpleName());
+    }
+
+    @Override
+    public boolean isWarming() {
+        return inProgress.get() > 0;
+    }
+
+    @Override
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Start a warm-up on the warm-up executor. The identifiers are read on the executor and the completion is chained
+     * on the batch loads, so no thread of the executor waits for another.
+     *
+     * @return A CompletableFuture which completes, normally, when the warm-up has completed or failed.
+     */
+    private CompletableFuture<Void> startWarmUp() {
+        final long start = System.currentTimeMillis();
+        inProgress.incrementAndGet();
+        return CompletableFuture.supplyAsync(this::loadAll, executorService)
+                .thenCompose(loads -> CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[loads.size()])))
+                .handle((result, ex) -> {
+                    if (ex == null) {
+                        logger.info("Cache warm-up completed in {} ms.", System.currentTimeMillis() - start);
+                    } else {
+                        // a cold cache is not fatal; requests will load entities on demand
+                        logger.error("Cache warm-up failed.", ex);
+                    }
+                    warm = true;
+                    inProgress.decrementAndGet();
+                    return null;
+                });
+    }
+
+    /**
+     * Read the identifiers of Greetings, Countries, active Roles and active Accounts and submit the load of their
+     * batches. Does not wait for the loads.
+     *
+     * @return The batch loads.
+     */
+    private List<CompletableFuture<Void>> loadAll() {
+        final List<CompletableFuture<Void>> loads = new ArrayList<CompletableFuture<Void>>();
+        loads.addAll(loadBatches(Greeting.class, readIds("SELECT e.id FROM Greeting e ORDER BY e.id", null)));
+        loads.addAll(loadBatches(Country.class, readIds("SELECT e.id FROM Country e ORDER BY e.id", null)));
+        loads.addAll(loadBatches(Role.class, readIds(
+                "SELECT e.id FROM Role e WHERE e.effectiveAt <= :now"
+                        + " AND (e.expiresAt IS NULL OR e.expiresAt > :now) ORDER BY e.id",
+                new DateTime())));
+        loads.addAll(loadBatches(Account.class, readIds(
+                "SELECT e.id FROM Account e WHERE e.enabled = true AND e.locked = false AND e.expired = false"
+                        + " ORDER BY e.id",
+                null)));
+        return loads;
+    }
+
+    /**
+     * Read the identifiers returned by the supplied query.
+     *
+     * @param idQuery A JPQL query selecting entity identifiers. May declare a <code>now</code> parameter.
+     * @param now The value of the <code>now</code> parameter, or <code>null</code> if not declared.
+     * @return The entity identifiers.
+     */
+    private List<Long> readIds(final String idQuery, final DateTime now) {
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            final TypedQuery<Long> query = entityManager.createQuery(idQuery, Long.class);
+            if (now != null) {
+                query.setParameter("now", now);
+            }
+            return query.getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Submit a load of each batch of the supplied identifiers. Does not wait for the loads.
+     *
+     * @param entityClass The entity class.
+     * @param ids The entity identifiers.
+     * @return The batch loads.
+     */
+    private List<CompletableFuture<Void>> loadBatches(final Class<?> entityClass, final List<Long> ids) {
+        final List<CompletableFuture<Void>> loads = new ArrayList<CompletableFuture<Void>>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            final List<Long> batch = new ArrayList<Long>(ids.subList(from, Math.min(ids.size(), from + batchSize)));
+            loads.add(CompletableFuture.runAsync(() -> loadBatch(entityClass, batch), executorService));
+        }
+        logger.debug("Loading {} {} entities in {} batches.", ids.size(), entityClass.getSimpleName(), loads.size());
+        return loads;
+    }
+
+    /**
+     * Load the entities with the supplied identifiers, placing each in the second-level cache.
+     *
+     * @param entityClass The entity class.
+     * @param ids The entity identifiers.
+     */
+    private void loadBatch(final Class<?> entityClass, final List<Long> ids) {
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery("SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e.id IN :ids")
+                    .setParameter("ids", ids).setHint(HINT_CACHE_STORE_MODE, CacheStoreMode.REFRESH)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+}
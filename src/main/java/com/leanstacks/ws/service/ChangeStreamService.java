@@ -0,0 +1,58 @@
+package com.leanstacks.ws.service;
+
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+import com.leanstacks.ws.model.TransactionalEntity;
+
+/**
+ * <p>
+ * The ChangeStreamService interface defines all public business behaviors for streaming committed entity changes to
+ * subscribers.
+ * </p>
+ * <p>
+ * This interface should be injected into ChangeStreamService clients, not the implementation bean.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+public interface ChangeStreamService {
+
+    /**
+     * Publish a change to an entity. When a transaction is active the change is published after the transaction
+     * commits and discarded if it rolls back.
+     * 
+     * @param entity The changed entity.
+     * @param changeType The type of change.
+     */
+    void publish(TransactionalEntity entity, ChangeType changeType);
+
+    /**
+     * Publish a change to an entity. When a transaction is active the change is published after the transaction
+     * commits and discarded if it rolls back.
+     * 
+     * @param entityClass The class of the changed entity.
+     * @param id The primary key identifier of the changed entity.
+     * @param version The version of the changed entity after the change.
+     * @param referenceId The reference identifier of the changed entity.
+     * @param changeType The type of change.
+     */
+    void publish(Class<?> entityClass, Long id, Integer version, String referenceId, ChangeType changeType);
+
+    /**
+     * Subscribe to the changes of an entity type. If a last event id is supplied, the buffered changes after that
+     * event are delivered first; if they are no longer buffered the subscriber is reset.
+     * 
+     * @param entityClass The entity class.
+     * @param lastEventId The sequence of the last ChangeEvent received by the subscriber, or <code>null</code> to
+     *        receive only new changes.
+     * @param subscriber The ChangeStreamSubscriber.
+     */
+    void subscribe(Class<?> entityClass, Long lastEventId, ChangeStreamSubscriber subscriber);
+
+    /**
+     * Unsubscribe from changes.
+     * 
+     * @param subscriber The ChangeStreamSubscriber.
+     */
+    void unsubscribe(ChangeStreamSubscriber subscriber);
+
+}
@@ -0,0 +1,279 @@
+package com.leanstacks.ws.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.leanstacks.ws.event.EntityLifecycleEvent;
+import com.leanstacks.ws.event.EntityLifecycleSubscriber;
+import com.leanstacks.ws.model.ChangeEvent;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+import com.leanstacks.ws.model.TransactionalEntity;
+import com.leanstacks.ws.util.RingBuffer;
+
+/**
+ * <p>
+ * The ChangeStreamServiceBean encapsulates all business behaviors for streaming committed entity changes.
+ * </p>
+ * <p>
+ * The recent ChangeEvents of each entity type are held in a RingBuffer of <code>ws.changestream.buffer-size</code>
+ * events, which serves as the bounded queue of every subscriber: each subscriber is drained independently, by at most
+ * one sender thread at a time, which sends the buffered events after the last event it received. Publishing only
+ * schedules a drain of each subscriber, so a burst of changes is coalesced into few drains and publishers never wait
+ * for subscribers. A slow subscriber occupies only its own sender thread until its stream times out or fails; a
+ * subscriber which falls more than a buffer behind is reset. Committed changes are received from the
+ * EntityLifecycleDispatcher.
+ * </p>
+ * <p>
+ * The buffers and their sequence numbers are held in memory by each node. A client which reconnects to a different
+ * node with a <code>Last-Event-ID</code> receives an unrelated sequence and misses the changes committed on other
+ * nodes, so it should re-read the collection after reconnecting to another node.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@Service
+public class ChangeStreamServiceBean implements ChangeStreamService, EntityLifecycleSubscriber, DisposableBean {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamServiceBean.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The number of ChangeEvents buffered for each entity type.
+     */
+    @Value("${ws.changestream.buffer-size:1000}")
+    private int bufferSize;
+
+    /**
+     * The buffered ChangeEvents, keyed by entity type.
+     */
+    private final ConcurrentMap<String, RingBuffer<ChangeEvent>> buffers =
+            new ConcurrentHashMap<String, RingBuffer<ChangeEvent>>();
+
+    /**
+     * The subscriptions, keyed by subscriber.
+     */
+    private final Map<ChangeStreamSubscriber, Subscription> subscriptions =
+            new ConcurrentHashMap<ChangeStreamSubscriber, Subscription>();
+
+    /**
+     * The number of sender threads created, used to name them.
+     */
+    private final AtomicInteger senderCount = new AtomicInteger();
+
+    /**
+     * The sender threads, which grow with the number of subscribers being drained at once.
+     */
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "changestream-sender-" + senderCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    @Override
+    public void publish(final TransactionalEntity entity, final ChangeType changeType) {
+        publish(Hibernate.getClass(entity), entity.getId(), entity.getVersion(), entity.getReferenceId(), changeType);
+    }
+
+    @Override
+    public void publish(final Class<?> entityClass, final Long id, final Integer version, final String referenceId,
+            final ChangeType changeType) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    append(entityClass, id, version, referenceId, changeType);
+                }
+            });
+        } else {
+            append(entityClass, id, version, referenceId, changeType);
+        }
+    }
+
+    /**
+     * Append a committed entity change. The change has already committed, so it is appended directly rather than
+     * published, even if the event is delivered while another transaction's synchronizations are active. The version of
+     * a deleted entity is its version before deletion.
+     * 
+     * @param event An EntityLifecycleEvent.
+     */
+    @Override
+    public void onEntityLifecycleEvent(final EntityLifecycleEvent event) {
+        final Integer version = event.getNewVersion() == null ? event.getOldVersion() : event.getNewVersion();
+        append(event.getEntityClass(), event.getEntityId(), version, event.getReferenceId(), event.getChangeType());
+    }
+
+    @Override
+    public void subscribe(final Class<?> entityClass, final Long lastEventId, final ChangeStreamSubscriber subscriber) {
+        logger.info("> subscribe {} {}", entityClass.getSimpleName(), lastEventId);
+
+        counterService.increment("method.invoked.changeStreamServiceBean.subscribe");
+
+        final RingBuffer<ChangeEvent> buffer = buffer(entityClass.getSimpleName());
+        final long lastSequence = lastEventId == null ? buffer.getLastSequence() : lastEventId;
+        final Subscription subscription = new Subscription(buffer, lastSequence);
+        subscriptions.put(subscriber, subscription);
+        schedule(subscriber, subscription);
+
+        logger.info("< subscribe {} {}", entityClass.getSimpleName(), lastEventId);
+    }
+
+    @Override
+    public void unsubscribe(final ChangeStreamSubscriber subscriber) {
+        subscriptions.remove(subscriber);
+    }
+
+    /**
+     * Append a ChangeEvent to the buffer of its entity type and schedule a drain of each subscriber.
+     * 
+     * @param entityClass The class of the changed entity.
+     * @param id The primary key identifier of the changed entity.
+     * @param version The version of the changed entity after the change.
+     * @param referenceId The reference identifier of the changed entity.
+     * @param changeType The type of change.
+     */
+    private void append(final Class<?> entityClass, final Long id, final Integer version, final String referenceId,
+            final ChangeType changeType) {
+        final String entityType = entityClass.getSimpleName();
+        buffer(entityType).add(sequence -> new ChangeEvent(sequence, entityType, id, version, referenceId, changeType));
+        counterService.increment("changestream.published");
+        scheduleDelivery();
+    }
+
+    /**
+     * Returns the buffer of an entity type, creating it if required.
+     * 
+     * @param entityType The entity type.
+     * @return A RingBuffer of ChangeEvents.
+     */
+    private RingBuffer<ChangeEvent> buffer(final String entityType) {
+        return buffers.computeIfAbsent(entityType, key -> new RingBuffer<ChangeEvent>(bufferSize));
+    }
+
+    /**
+     * Schedule a drain of every subscriber.
+     */
+    private void scheduleDelivery() {
+        for (final Map.Entry<ChangeStreamSubscriber, Subscription> entry : subscriptions.entrySet()) {
+            schedule(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Schedule a drain of a subscriber on a sender thread, unless one is already running; a running drain repeats
+     * until no further drain has been requested.
+     * 
+     * @param subscriber The ChangeStreamSubscriber.
+     * @param subscription The Subscription of the subscriber.
+     */
+    private void schedule(final ChangeStreamSubscriber subscriber, final Subscription subscription) {
+        if (subscription.requested.getAndIncrement() == 0) {
+            senders.execute(() -> drain(subscriber, subscription));
+        }
+    }
+
+    /**
+     * Deliver the buffered ChangeEvents which a subscriber has not yet received, for as long as further drains are
+     * requested. Invoked on a sender thread.
+     * 
+     * @param subscriber The ChangeStreamSubscriber.
+     * @param subscription The Subscription of the subscriber.
+     */
+    private void drain(final ChangeStreamSubscriber subscriber, final Subscription subscription) {
+        int requested = subscription.requested.get();
+        do {
+            if (subscriptions.get(subscriber) == subscription) {
+                deliver(subscriber, subscription);
+            }
+            requested = subscription.requested.addAndGet(-requested);
+        } while (requested != 0);
+    }
+
+    /**
+     * Deliver the buffered ChangeEvents which a subscriber has not yet received. A subscriber which fails is removed.
+     * 
+     * @param subscriber The ChangeStreamSubscriber.
+     * @param subscription The Subscription of the subscriber.
+     */
+    private void deliver(final ChangeStreamSubscriber subscriber, final Subscription subscription) {
+        try {
+            final List<ChangeEvent> events = subscription.buffer.since(subscription.lastSequence);
+            if (events == null) {
+                counterService.increment("changestream.reset");
+                subscription.lastSequence = subscription.buffer.getLastSequence();
+                subscriber.onReset();
+                return;
+            }
+            for (final ChangeEvent event : events) {
+                subscriber.onChange(event);
+                subscription.lastSequence = event.getSequence();
+            }
+        } catch (Exception ex) {
+            logger.debug("Removing change stream subscriber: {}", ex.getMessage());
+            subscriptions.remove(subscriber, subscription);
+        }
+    }
+
+    /**
+     * The delivery state of a subscriber. The last sequence is only accessed by the drain of the subscriber, which
+     * runs on one sender thread at a time.
+     */
+    private static class Subscription {
+
+        /**
+         * The buffer of the subscribed entity type.
+         */
+        private final RingBuffer<ChangeEvent> buffer;
+
+        /**
+         * The number of drains requested since the running drain last checked; non-zero while a drain is running.
+         */
+        private final AtomicInteger requested = new AtomicInteger();
+
+        /**
+         * The sequence of the last ChangeEvent delivered to the subscriber.
+         */
+        private long lastSequence;
+
+        /**
+         * Construct a Subscription.
+         * 
+         * @param buffer The buffer of the subscribed entity type.
+         * @param lastSequence The sequence of the last ChangeEvent received by the subscriber.
+         */
+        Subscription(final RingBuffer<ChangeEvent> buffer, final long lastSequence) {
+            this.buffer = buffer;
+            this.lastSequence = lastSequence;
+        }
+
+    }
+
+}
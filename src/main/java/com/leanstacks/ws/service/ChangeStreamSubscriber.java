@@ -0,0 +1,32 @@
+package com.leanstacks.ws.service;
+
+import java.io.IOException;
+
+import com.leanstacks.ws.model.ChangeEvent;
+
+/**
+ * The ChangeStreamSubscriber interface defines the callbacks through which the ChangeStreamService delivers
+ * ChangeEvents to a subscriber, e.g. a Server-Sent Events connection. Callbacks are invoked on a single dispatcher
+ * thread, in sequence order. A subscriber whose callback throws an exception is unsubscribed.
+ * 
+ * @author Matt Warman
+ */
+public interface ChangeStreamSubscriber {
+
+    /**
+     * Deliver a ChangeEvent.
+     * 
+     * @param event A ChangeEvent.
+     * @throws IOException Thrown if the event cannot be delivered.
+     */
+    void onChange(ChangeEvent event) throws IOException;
+
+    /**
+     * Notify the subscriber that ChangeEvents after its last event are no longer available, so it must re-read the
+     * current entity state. Subsequent deliveries continue from the most recent ChangeEvent.
+     * 
+     * @throws IOException Thrown if the notification cannot be delivered.
+     */
+    void onReset() throws IOException;
+
+}
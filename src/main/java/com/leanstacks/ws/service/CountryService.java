@@ -47,6 +47,18 @@ public interface CountryService {
      */
     Country update(Country country);
 
+    /**
+     * Updates a previously persisted Country entity in the data store using a single UPDATE statement, without reading
+     * the entity first. The supplied Country must contain the version which was read by the client. Values which are
+     * <code>null</code> are left unchanged.
+     * 
+     * @param country A Country object containing the id, version and new values.
+     * @return The new version of the updated Country.
+     * @throws javax.persistence.NoResultException if the Country does not exist.
+     * @throws VersionConflictException if the supplied version does not match the persisted version.
+     */
+    Integer patch(Country country);
+
     /**
      * Removes a previously persisted Country entity from the data store.
      * 
@@ -55,7 +67,7 @@ public interface CountryService {
     void delete(Long id);
 
     /**
-     * Evicts all members of the "countrys" cache.
+     * Evicts all Country entities from the second-level cache.
      */
     void evictCache();
 
@@ -2,18 +2,30 @@ package com.leanstacks.ws.service;
 
 import java.util.Collection;
 
-import javax.persistence.EntityExistsException;
-import javax.persistence.NoResultException;
+import javax.persistence.EntityManagerFactory;
 
+import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.leanstacks.ws.cache.ClusterCacheInvalidator;
+import com.leanstacks.ws.cache.MissingEntityCache;
+import com.leanstacks.ws.event.EntityLifecycleDispatcher;
+import com.leanstacks.ws.event.EntityLifecycleEvent;
 import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
 import com.leanstacks.ws.repository.CountryRepository;
+import com.leanstacks.ws.util.RequestContext;
+import com.leanstacks.ws.util.SingleFlight;
 
 /**
  * The CountryServiceBean encapsulates all business behaviors operating on the Country entity model.
@@ -40,25 +52,117 @@ public class CountryServiceBean implements CountryService {
     @Autowired
     private transient CountryRepository countryRepository;
 
+    /**
+     * The JPA EntityManagerFactory, used to manage the second-level cache.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The CacheWarmupService reloads the cache region after an eviction.
+     */
+    @Autowired
+    private transient CacheWarmupService cacheWarmupService;
+
+    /**
+     * The ClusterCacheInvalidator broadcasts Country region invalidations to the other nodes of the cluster.
+     */
+    @Autowired
+    private transient ClusterCacheInvalidator clusterCacheInvalidator;
+
+    /**
+     * The MissingEntityCache answers lookups of Country identifiers which do not exist.
+     */
+    @Autowired
+    private transient MissingEntityCache missingEntityCache;
+
+    /**
+     * The OutboxService records Country change events in the transaction of each change.
+     */
+    @Autowired
+    private transient OutboxService outboxService;
+
+    /**
+     * The EntityLifecycleDispatcher publishes the Country changes made by bulk updates.
+     */
+    @Autowired
+    private transient EntityLifecycleDispatcher entityLifecycleDispatcher;
+
+    /**
+     * Coalesces concurrent loads of all Country entities.
+     */
+    private final transient SingleFlight<Boolean, Collection<Country>> findAllFlight =
+            new SingleFlight<Boolean, Collection<Country>>(
+                    () -> counterService.increment("method.coalesced.countryServiceBean.findAll"));
+
+    /**
+     * Coalesces concurrent loads of a Country entity by id.
+     */
+    private final transient SingleFlight<Long, Country> findOneFlight = new SingleFlight<Long, Country>(
+            () -> counterService.increment("method.coalesced.countryServiceBean.findOne"));
+
+    /**
+     * The RetryTemplate used to re-execute updates which fail due to optimistic locking conflicts.
+     */
+    @Autowired
+    private transient RetryTemplate optimisticLockRetryTemplate;
+
+    /**
+     * The TransactionTemplate used to demarcate transactions for each update attempt.
+     */
+    @Autowired
+    private transient TransactionTemplate transactionTemplate;
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Concurrent invocations outside of a transaction share a single in-flight query. The repository query executes
+     * in its own read-only transaction.
+     * </p>
+     */
     @Override
     public Collection<Country> findAll() {
         logger.info("> findAll");
 
         counterService.increment("method.invoked.countryServiceBean.findAll");
 
-        final Collection<Country> countrys = countryRepository.findAll();
+        final Collection<Country> countrys;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            countrys = countryRepository.findAll();
+        } else {
+            countrys = findAllFlight.execute(Boolean.TRUE, () -> countryRepository.findAll());
+        }
 
         logger.info("< findAll");
         return countrys;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Concurrent invocations for the same id outside of a transaction share a single in-flight query. The repository
+     * query executes in its own read-only transaction. Outside of a transaction, an id known not to exist is answered
+     * by the MissingEntityCache without a query.
+     * </p>
+     */
     @Override
     public Country findOne(final Long id) {
         logger.info("> findOne {}", id);
 
         counterService.increment("method.invoked.countryServiceBean.findOne");
 
-        final Country country = countryRepository.findOne(id);
+        final Country country;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            country = countryRepository.findOne(id);
+        } else if (missingEntityCache.isMissing(Country.class, id)) {
+            country = null;
+        } else {
+            final long readStart = System.nanoTime();
+            country = findOneFlight.execute(id, () -> countryRepository.findOne(id));
+            if (country == null) {
+                missingEntityCache.recordMissing(Country.class, id, readStart);
+            }
+        }
 
         logger.info("< findOne {}", id);
         return country;
@@ -77,41 +181,121 @@ public class CountryServiceBean implements CountryService {
         if (country.getId() != null) {
             logger.error("Attempted to create a Country, but id attribute was not null.");
             logger.info("< create");
-            throw new EntityExistsException(
+            throw new DuplicateEntityException(
                     "Cannot create new Country with supplied id.  The id attribute must be null to create an entity.");
         }
 
         final Country savedCountry = countryRepository.save(country);
+        missingEntityCache.created(Country.class, savedCountry.getId());
+        outboxService.record(savedCountry, ChangeType.CREATED);
 
         logger.info("< create");
         return savedCountry;
     }
 
-    @Transactional
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The update is an idempotent read-modify-write of the current entity state. If the update fails because the
+     * entity was modified concurrently, the update is re-executed in a new transaction using the optimistic locking
+     * RetryTemplate. The transaction is demarcated programmatically so that each attempt runs in its own transaction.
+     * When all attempts fail, a VersionConflictException carrying the current entity version is thrown.
+     * </p>
+     */
     @Override
     public Country update(final Country country) {
         logger.info("> update {}", country.getId());
 
         counterService.increment("method.invoked.countryServiceBean.update");
 
+        final Country updatedCountry;
+        try {
+            updatedCountry = optimisticLockRetryTemplate
+                    .execute((RetryCallback<Country, RuntimeException>) context -> transactionTemplate
+                            .execute(status -> doUpdate(country)));
+        } catch (OptimisticLockingFailureException ex) {
+            final Country currentCountry = countryRepository.findOne(country.getId());
+            logger.error("Attempted to update a Country, but the entity was modified concurrently.");
+            logger.info("< update {}", country.getId());
+            throw new VersionConflictException("Requested Country was modified concurrently.",
+                    currentCountry == null ? null : currentCountry.getVersion());
+        }
+
+        logger.info("< update {}", country.getId());
+        return updatedCountry;
+    }
+
+    /**
+     * Performs a single attempt to update a Country entity. Must be invoked within a transaction.
+     * 
+     * @param country A Country object to be updated.
+     * @return An updated Country object.
+     */
+    private Country doUpdate(final Country country) {
         // Ensure the entity object to be updated exists in the repository to
         // prevent the default behavior of save() which will persist a new
         // entity if the entity matching the id does not exist
-        final Country countryToUpdate = findOne(country.getId());
+        final Country countryToUpdate = countryRepository.findOne(country.getId());
         if (countryToUpdate == null) {
             logger.error("Attempted to update a Country, but the entity does not exist.");
             logger.info("< update {}", country.getId());
-            throw new NoResultException("Requested Country not found.");
+            throw new NoSuchEntityException("Requested Country not found.");
         }
 
         countryToUpdate.setName(country.getName());
         countryToUpdate.setCapital(country.getCapital());
-        final Country updatedCountry = countryRepository.save(countryToUpdate);
-
-        logger.info("< update {}", country.getId());
+        // flush so that the recorded change event carries the incremented version
+        final Country updatedCountry = countryRepository.saveAndFlush(countryToUpdate);
+        outboxService.record(updatedCountry, ChangeType.UPDATED);
         return updatedCountry;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entity is only read when no row was updated, to determine whether the entity is missing or the version is
+     * stale. The bulk update bypasses the persistence context, so Hibernate evicts the whole Country second-level cache
+     * region when the statement is executed; under sustained PATCH traffic, reads of every Country are served from the
+     * database until the region is reloaded. Use <code>update</code> where the cached region must be kept.
+     * </p>
+     */
+    @Transactional
+    @Override
+    public Integer patch(final Country country) {
+        logger.info("> patch {}", country.getId());
+
+        counterService.increment("method.invoked.countryServiceBean.patch");
+
+        final String username = RequestContext.getUsername();
+        if (username == null) {
+            throw new IllegalArgumentException("Cannot update a Country without a username "
+                    + "in the RequestContext for this thread.");
+        }
+
+        final int updatedCount = countryRepository.updateIfVersionMatches(country.getId(), country.getVersion(),
+                country.getName(), country.getCapital(), username, new DateTime());
+        if (updatedCount == 0) {
+            final Country currentCountry = countryRepository.findOne(country.getId());
+            if (currentCountry == null) {
+                logger.error("Attempted to update a Country, but the entity does not exist.");
+                logger.info("< patch {}", country.getId());
+                throw new NoSuchEntityException("Requested Country not found.");
+            }
+            logger.error("Attempted to update a Country, but the version does not match.");
+            logger.info("< patch {}", country.getId());
+            throw new VersionConflictException("Requested Country version does not match.",
+                    currentCountry.getVersion());
+        }
+
+        final Integer version = country.getVersion() + 1;
+        outboxService.record(Country.class, country.getId(), version, null, ChangeType.UPDATED);
+        entityLifecycleDispatcher.publish(new EntityLifecycleEvent(Country.class, country.getId(), null,
+                country.getVersion(), version, ChangeType.UPDATED));
+
+        logger.info("< patch {}", country.getId());
+        return version;
+    }
+
     @Transactional
     @Override
     public void delete(final Long id) {
@@ -119,7 +303,9 @@ public class CountryServiceBean implements CountryService {
 
         counterService.increment("method.invoked.countryServiceBean.delete");
 
+        final Country countryToDelete = countryRepository.findOne(id);
         countryRepository.delete(id);
+        outboxService.record(countryToDelete, ChangeType.DELETED);
 
         logger.info("< delete {}", id);
     }
@@ -130,6 +316,10 @@ public class CountryServiceBean implements CountryService {
 
         counterService.increment("method.invoked.countryServiceBean.evictCache");
 
+        entityManagerFactory.getCache().evict(Country.class);
+        clusterCacheInvalidator.invalidateAll(Country.class);
+        cacheWarmupService.refresh(Country.class);
+
         logger.info("< evictCache");
     }
 
@@ -0,0 +1,36 @@
+package com.leanstacks.ws.service;
+
+import javax.persistence.EntityExistsException;
+
+/**
+ * <p>
+ * A DuplicateEntityException is thrown when a request to create an entity supplies an identifier. This is an expected
+ * outcome of client requests, so the exception does not capture a stack trace.
+ * </p>
+ * <p>
+ * DuplicateEntityException extends EntityExistsException, so it is handled wherever an EntityExistsException is
+ * handled.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class DuplicateEntityException extends EntityExistsException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Construct a DuplicateEntityException.
+     *
+     * @param message A String message.
+     */
+    public DuplicateEntityException(final String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // expected outcome; the stack trace is never logged
+        return this;
+    }
+
+}
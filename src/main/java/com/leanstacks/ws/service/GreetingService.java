@@ -31,6 +31,14 @@ public interface GreetingService {
      */
     Greeting findOne(Long id);
 
+    /**
+     * Find the Greeting entities of a language.
+     *
+     * @param language A language.
+     * @return A Collection of Greeting objects, which is empty if none found.
+     */
+    Collection<Greeting> findByLanguage(String language);
+
     /**
      * Persists a Greeting entity in the data store.
      * 
@@ -47,6 +55,18 @@ public interface GreetingService {
      */
     Greeting update(Greeting greeting);
 
+    /**
+     * Updates a previously persisted Greeting entity in the data store using a single UPDATE statement, without reading
+     * the entity first. The supplied Greeting must contain the version which was read by the client. Values which are
+     * <code>null</code> are left unchanged.
+     * 
+     * @param greeting A Greeting object containing the id, version and new values.
+     * @return The new version of the updated Greeting.
+     * @throws javax.persistence.NoResultException if the Greeting does not exist.
+     * @throws VersionConflictException if the supplied version does not match the persisted version.
+     */
+    Integer patch(Greeting greeting);
+
     /**
      * Removes a previously persisted Greeting entity from the data store.
      * 
@@ -55,7 +75,7 @@ public interface GreetingService {
     void delete(Long id);
 
     /**
-     * Evicts all members of the "greetings" cache.
+     * Evicts all Greeting entities from the second-level cache.
      */
     void evictCache();
 
@@ -1,27 +1,54 @@
 package com.leanstacks.ws.service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-import javax.persistence.EntityExistsException;
-import javax.persistence.NoResultException;
+import javax.persistence.EntityManagerFactory;
 
+import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.leanstacks.ws.cache.ClusterCacheInvalidator;
+import com.leanstacks.ws.cache.Invalidation;
+import com.leanstacks.ws.cache.InvalidationBus;
+import com.leanstacks.ws.cache.MissingEntityCache;
+import com.leanstacks.ws.cache.SecondaryIndex;
+import com.leanstacks.ws.event.EntityLifecycleDispatcher;
+import com.leanstacks.ws.event.EntityLifecycleEvent;
 import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
 import com.leanstacks.ws.repository.GreetingRepository;
+import com.leanstacks.ws.util.RequestContext;
+import com.leanstacks.ws.util.SingleFlight;
 
 /**
+ * <p>
  * The GreetingServiceBean encapsulates all business behaviors operating on the Greeting entity model.
+ * </p>
+ * <p>
+ * The identifiers of the Greetings of each language are held in a SecondaryIndex, which is maintained after each
+ * change commits on this node and when an Invalidation of a Greeting is received from another node.
+ * </p>
  * 
  * @author Matt Warman
  */
 @Service
-public class GreetingServiceBean implements GreetingService {
+public class GreetingServiceBean implements GreetingService, InitializingBean {
 
     /**
      * The Logger for this Class.
@@ -40,30 +67,187 @@ public class GreetingServiceBean implements GreetingService {
     @Autowired
     private transient GreetingRepository greetingRepository;
 
+    /**
+     * The JPA EntityManagerFactory, used to manage the second-level cache.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The CacheWarmupService reloads the cache region after an eviction.
+     */
+    @Autowired
+    private transient CacheWarmupService cacheWarmupService;
+
+    /**
+     * The ClusterCacheInvalidator broadcasts Greeting region invalidations to the other nodes of the cluster.
+     */
+    @Autowired
+    private transient ClusterCacheInvalidator clusterCacheInvalidator;
+
+    /**
+     * The MissingEntityCache answers lookups of Greeting identifiers which do not exist.
+     */
+    @Autowired
+    private transient MissingEntityCache missingEntityCache;
+
+    /**
+     * The OutboxService records Greeting change events in the transaction of each change.
+     */
+    @Autowired
+    private transient OutboxService outboxService;
+
+    /**
+     * The EntityLifecycleDispatcher publishes the Greeting changes made by bulk updates.
+     */
+    @Autowired
+    private transient EntityLifecycleDispatcher entityLifecycleDispatcher;
+
+    /**
+     * The InvalidationBus, which carries the identifiers of Greetings changed on other nodes.
+     */
+    @Autowired
+    private transient InvalidationBus invalidationBus;
+
+    /**
+     * The maximum number of languages held by the language index.
+     */
+    @Value("${ws.cache.index.maximum-size:1000}")
+    private long indexMaximumSize;
+
+    /**
+     * The time, in milliseconds, for which the language index holds a loaded language.
+     */
+    @Value("${ws.cache.index.ttl:300000}")
+    private long indexTtl;
+
+    /**
+     * The identifiers of the Greeting entities keyed by language.
+     */
+    private transient SecondaryIndex<String> languageIndex;
+
+    /**
+     * The JPA entity name of the Greeting entity.
+     */
+    private String entityName;
+
+    /**
+     * Coalesces concurrent loads of all Greeting entities.
+     */
+    private final transient SingleFlight<Boolean, Collection<Greeting>> findAllFlight =
+            new SingleFlight<Boolean, Collection<Greeting>>(
+                    () -> counterService.increment("method.coalesced.greetingServiceBean.findAll"));
+
+    /**
+     * Coalesces concurrent loads of a Greeting entity by id.
+     */
+    private final transient SingleFlight<Long, Greeting> findOneFlight = new SingleFlight<Long, Greeting>(
+            () -> counterService.increment("method.coalesced.greetingServiceBean.findOne"));
+
+    /**
+     * The RetryTemplate used to re-execute updates which fail due to optimistic locking conflicts.
+     */
+    @Autowired
+    private transient RetryTemplate optimisticLockRetryTemplate;
+
+    /**
+     * The TransactionTemplate used to demarcate transactions for each update attempt.
+     */
+    @Autowired
+    private transient TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        entityName = entityManagerFactory.getMetamodel().entity(Greeting.class).getName();
+        languageIndex = new SecondaryIndex<String>(indexMaximumSize, TimeUnit.MILLISECONDS.toNanos(indexTtl),
+                System::nanoTime);
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Concurrent invocations outside of a transaction share a single in-flight query. The repository query executes
+     * in its own read-only transaction.
+     * </p>
+     */
     @Override
     public Collection<Greeting> findAll() {
         logger.info("> findAll");
 
         counterService.increment("method.invoked.greetingServiceBean.findAll");
 
-        final Collection<Greeting> greetings = greetingRepository.findAll();
+        final Collection<Greeting> greetings;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            greetings = greetingRepository.findAll();
+        } else {
+            greetings = findAllFlight.execute(Boolean.TRUE, () -> greetingRepository.findAll());
+        }
 
         logger.info("< findAll");
         return greetings;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Concurrent invocations for the same id outside of a transaction share a single in-flight query. The repository
+     * query executes in its own read-only transaction. Outside of a transaction, an id known not to exist is answered
+     * by the MissingEntityCache without a query.
+     * </p>
+     */
     @Override
     public Greeting findOne(final Long id) {
         logger.info("> findOne {}", id);
 
         counterService.increment("method.invoked.greetingServiceBean.findOne");
 
-        final Greeting greeting = greetingRepository.findOne(id);
+        final Greeting greeting;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            greeting = greetingRepository.findOne(id);
+        } else if (missingEntityCache.isMissing(Greeting.class, id)) {
+            greeting = null;
+        } else {
+            final long readStart = System.nanoTime();
+            greeting = findOneFlight.execute(id, () -> greetingRepository.findOne(id));
+            if (greeting == null) {
+                missingEntityCache.recordMissing(Greeting.class, id, readStart);
+            }
+        }
 
         logger.info("< findOne {}", id);
         return greeting;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Outside of a transaction, the identifiers of the language are answered by the language index, which loads them
+     * with an index range query on first use. Within a transaction, they are queried so that uncommitted changes are
+     * visible. The entities are then read by primary key.
+     * </p>
+     */
+    @Override
+    public Collection<Greeting> findByLanguage(final String language) {
+        logger.info("> findByLanguage {}", language);
+
+        counterService.increment("method.invoked.greetingServiceBean.findByLanguage");
+
+        final Collection<Long> ids;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ids = greetingRepository.findIdsByLanguage(language);
+        } else {
+            ids = languageIndex.get(language, greetingRepository::findIdsByLanguage);
+        }
+        final List<Greeting> greetings = new ArrayList<Greeting>(greetingRepository.findAll(ids));
+        // a Greeting changed on another node remains indexed under its previous language until its Invalidation is
+        // received
+        greetings.removeIf(greeting -> !language.equals(greeting.getLanguage()));
+
+        logger.info("< findByLanguage {}", language);
+        return greetings;
+    }
+
     @Transactional
     @Override
     public Greeting create(final Greeting greeting) {
@@ -77,41 +261,126 @@ public class GreetingServiceBean implements GreetingService {
         if (greeting.getId() != null) {
             logger.error("Attempted to create a Greeting, but id attribute was not null.");
             logger.info("< create");
-            throw new EntityExistsException(
+            throw new DuplicateEntityException(
                     "Cannot create new Greeting with supplied id.  The id attribute must be null to create an entity.");
         }
 
         final Greeting savedGreeting = greetingRepository.save(greeting);
+        missingEntityCache.created(Greeting.class, savedGreeting.getId());
+        indexAfterCommit(savedGreeting.getId(), savedGreeting.getLanguage());
+        outboxService.record(savedGreeting, ChangeType.CREATED);
 
         logger.info("< create");
         return savedGreeting;
     }
 
-    @Transactional
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The update is an idempotent read-modify-write of the current entity state. If the update fails because the
+     * entity was modified concurrently, the update is re-executed in a new transaction using the optimistic locking
+     * RetryTemplate. The transaction is demarcated programmatically so that each attempt runs in its own transaction.
+     * When all attempts fail, a VersionConflictException carrying the current entity version is thrown.
+     * </p>
+     */
     @Override
     public Greeting update(final Greeting greeting) {
         logger.info("> update {}", greeting.getId());
 
         counterService.increment("method.invoked.greetingServiceBean.update");
 
+        final Greeting updatedGreeting;
+        try {
+            updatedGreeting = optimisticLockRetryTemplate
+                    .execute((RetryCallback<Greeting, RuntimeException>) context -> transactionTemplate
+                            .execute(status -> doUpdate(greeting)));
+        } catch (OptimisticLockingFailureException ex) {
+            final Greeting currentGreeting = greetingRepository.findOne(greeting.getId());
+            logger.error("Attempted to update a Greeting, but the entity was modified concurrently.");
+            logger.info("< update {}", greeting.getId());
+            throw new VersionConflictException("Requested Greeting was modified concurrently.",
+                    currentGreeting == null ? null : currentGreeting.getVersion());
+        }
+
+        logger.info("< update {}", greeting.getId());
+        return updatedGreeting;
+    }
+
+    /**
+     * Performs a single attempt to update a Greeting entity. Must be invoked within a transaction.
+     * 
+     * @param greeting A Greeting object to be updated.
+     * @return An updated Greeting object.
+     */
+    private Greeting doUpdate(final Greeting greeting) {
         // Ensure the entity object to be updated exists in the repository to
         // prevent the default behavior of save() which will persist a new
         // entity if the entity matching the id does not exist
-        final Greeting greetingToUpdate = findOne(greeting.getId());
+        final Greeting greetingToUpdate = greetingRepository.findOne(greeting.getId());
         if (greetingToUpdate == null) {
             logger.error("Attempted to update a Greeting, but the entity does not exist.");
             logger.info("< update {}", greeting.getId());
-            throw new NoResultException("Requested Greeting not found.");
+            throw new NoSuchEntityException("Requested Greeting not found.");
         }
 
         greetingToUpdate.setText(greeting.getText());
         greetingToUpdate.setLanguage(greeting.getLanguage());
-        final Greeting updatedGreeting = greetingRepository.save(greetingToUpdate);
-
-        logger.info("< update {}", greeting.getId());
+        // flush so that the recorded change event carries the incremented version
+        final Greeting updatedGreeting = greetingRepository.saveAndFlush(greetingToUpdate);
+        outboxService.record(updatedGreeting, ChangeType.UPDATED);
+        indexAfterCommit(updatedGreeting.getId(), updatedGreeting.getLanguage());
         return updatedGreeting;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entity is only read when no row was updated, to determine whether the entity is missing or the version is
+     * stale. The bulk update bypasses the persistence context, so Hibernate evicts the whole Greeting second-level
+     * cache region when the statement is executed; under sustained PATCH traffic, reads of every Greeting are served
+     * from the database until the region is reloaded. Use <code>update</code> where the cached region must be kept.
+     * </p>
+     */
+    @Transactional
+    @Override
+    public Integer patch(final Greeting greeting) {
+        logger.info("> patch {}", greeting.getId());
+
+        counterService.increment("method.invoked.greetingServiceBean.patch");
+
+        final String username = RequestContext.getUsername();
+        if (username == null) {
+            throw new IllegalArgumentException("Cannot update a Greeting without a username "
+                    + "in the RequestContext for this thread.");
+        }
+
+        final int updatedCount = greetingRepository.updateIfVersionMatches(greeting.getId(), greeting.getVersion(),
+                greeting.getText(), greeting.getLanguage(), username, new DateTime());
+        if (updatedCount == 0) {
+            final Greeting currentGreeting = greetingRepository.findOne(greeting.getId());
+            if (currentGreeting == null) {
+                logger.error("Attempted to update a Greeting, but the entity does not exist.");
+                logger.info("< patch {}", greeting.getId());
+                throw new NoSuchEntityException("Requested Greeting not found.");
+            }
+            logger.error("Attempted to update a Greeting, but the version does not match.");
+            logger.info("< patch {}", greeting.getId());
+            throw new VersionConflictException("Requested Greeting version does not match.",
+                    currentGreeting.getVersion());
+        }
+
+        final Integer version = greeting.getVersion() + 1;
+        outboxService.record(Greeting.class, greeting.getId(), version, null, ChangeType.UPDATED);
+        entityLifecycleDispatcher.publish(new EntityLifecycleEvent(Greeting.class, greeting.getId(), null,
+                greeting.getVersion(), version, ChangeType.UPDATED));
+        if (greeting.getLanguage() != null) {
+            indexAfterCommit(greeting.getId(), greeting.getLanguage());
+        }
+
+        logger.info("< patch {}", greeting.getId());
+        return version;
+    }
+
     @Transactional
     @Override
     public void delete(final Long id) {
@@ -119,7 +388,10 @@ public class GreetingServiceBean implements GreetingService {
 
         counterService.increment("method.invoked.greetingServiceBean.delete");
 
+        final Greeting greetingToDelete = greetingRepository.findOne(id);
         greetingRepository.delete(id);
+        outboxService.record(greetingToDelete, ChangeType.DELETED);
+        indexAfterCommit(id, null);
 
         logger.info("< delete {}", id);
     }
@@ -130,7 +402,53 @@ public class GreetingServiceBean implements GreetingService {
 
         counterService.increment("method.invoked.greetingServiceBean.evictCache");
 
+        entityManagerFactory.getCache().evict(Greeting.class);
+        clusterCacheInvalidator.invalidateAll(Greeting.class);
+        cacheWarmupService.refresh(Greeting.class);
+        languageIndex.invalidateAll();
+
         logger.info("< evictCache");
     }
 
+    /**
+     * Index a Greeting under its language after the current transaction commits.
+     * 
+     * @param id The Greeting primary key identifier.
+     * @param language The committed language, or <code>null</code> if the Greeting was deleted.
+     */
+    private void indexAfterCommit(final Long id, final String language) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            languageIndex.put(language, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                languageIndex.put(language, id);
+            }
+        });
+    }
+
+    /**
+     * Re-index a Greeting which may have been changed on another node.
+     * 
+     * @param invalidation An Invalidation received from another node.
+     */
+    private void onInvalidation(final Invalidation invalidation) {
+        if (!entityName.equals(invalidation.getEntityName())) {
+            return;
+        }
+        if (invalidation.getId() == null) {
+            languageIndex.invalidateAll();
+            return;
+        }
+        try {
+            languageIndex.put(greetingRepository.findLanguageById(invalidation.getId()), invalidation.getId());
+        } catch (RuntimeException ex) {
+            // the language is unknown; reload each language when next used
+            logger.error("Failed to re-index Greeting " + invalidation.getId() + ".", ex);
+            languageIndex.invalidateAll();
+        }
+    }
+
 }
@@ -0,0 +1,31 @@
+package com.leanstacks.ws.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.leanstacks.ws.model.OutboxEvent;
+
+/**
+ * The LoggingOutboxEventSink is the default OutboxEventSink. It writes each change event to the log. Replace it by
+ * defining an OutboxEventSink bean which publishes to the destination consumed by downstream systems.
+ * 
+ * @author Matt Warman
+ */
+public class LoggingOutboxEventSink implements OutboxEventSink {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LoggingOutboxEventSink.class);
+
+    @Override
+    public void publish(final List<OutboxEvent> events) {
+        for (final OutboxEvent event : events) {
+            logger.info("Change event {}: {} {} {} version {} referenceId {}", event.getId(), event.getChangeType(),
+                    event.getEntityType(), event.getEntityId(), event.getEntityVersion(), event.getReferenceId());
+        }
+    }
+
+}
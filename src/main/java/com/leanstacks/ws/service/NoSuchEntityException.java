@@ -0,0 +1,35 @@
+package com.leanstacks.ws.service;
+
+import javax.persistence.NoResultException;
+
+/**
+ * <p>
+ * A NoSuchEntityException is thrown when a requested entity does not exist. This is an expected outcome of client
+ * requests, so the exception does not capture a stack trace.
+ * </p>
+ * <p>
+ * NoSuchEntityException extends NoResultException, so it is handled wherever a NoResultException is handled.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class NoSuchEntityException extends NoResultException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Construct a NoSuchEntityException.
+     *
+     * @param message A String message.
+     */
+    public NoSuchEntityException(final String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // expected outcome; the stack trace is never logged
+        return this;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.leanstacks.ws.service;
+
+import java.util.List;
+
+import com.leanstacks.ws.model.OutboxEvent;
+
+/**
+ * <p>
+ * The OutboxEventSink interface defines the destination to which the outbox relay publishes change events, e.g. a
+ * message broker.
+ * </p>
+ * <p>
+ * Delivery is at-least-once: if the relay fails after a batch is published but before it is marked published, the
+ * batch is published again. Consumers should discard duplicates using the OutboxEvent <code>id</code>.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+public interface OutboxEventSink {
+
+    /**
+     * Publish a batch of change events. The events are ordered by <code>id</code>. If publication fails, the
+     * implementation must throw an exception so that the batch is not marked published.
+     * 
+     * @param events A List of OutboxEvent objects.
+     */
+    void publish(List<OutboxEvent> events);
+
+}
@@ -0,0 +1,50 @@
+package com.leanstacks.ws.service;
+
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+import com.leanstacks.ws.model.TransactionalEntity;
+
+/**
+ * <p>
+ * The OutboxService interface defines all public business behaviors for operations on the transactional outbox of
+ * entity change events.
+ * </p>
+ * <p>
+ * This interface should be injected into OutboxService clients, not the implementation bean.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+public interface OutboxService {
+
+    /**
+     * Record a change to an entity. Must be invoked within the transaction which changes the entity, so that the event
+     * is committed, or rolled back, with the change.
+     * 
+     * @param entity The changed entity.
+     * @param changeType The type of change.
+     */
+    void record(TransactionalEntity entity, ChangeType changeType);
+
+    /**
+     * Record a change to an entity. Must be invoked within the transaction which changes the entity.
+     * 
+     * @param entityClass The class of the changed entity.
+     * @param id The primary key identifier of the changed entity.
+     * @param version The version of the changed entity after the change.
+     * @param referenceId The reference identifier of the changed entity, or <code>null</code> to resolve it when
+     *        the event is relayed.
+     * @param changeType The type of change.
+     */
+    void record(Class<?> entityClass, Long id, Integer version, String referenceId, ChangeType changeType);
+
+    /**
+     * Publish the oldest batch of unpublished change events to the supplied OutboxEventSink and mark them published,
+     * in a single transaction.
+     * 
+     * @param batchSize The maximum number of events to publish.
+     * @param sink The OutboxEventSink.
+     * @return The number of events published.
+     */
+    int relay(int batchSize, OutboxEventSink sink);
+
+}
@@ -0,0 +1,165 @@
+package com.leanstacks.ws.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Hibernate;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.leanstacks.ws.model.OutboxEvent;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+import com.leanstacks.ws.model.TransactionalEntity;
+import com.leanstacks.ws.repository.OutboxEventRepository;
+
+/**
+ * <p>
+ * The OutboxServiceBean encapsulates all business behaviors operating on the OutboxEvent entity model.
+ * </p>
+ * <p>
+ * Events are relayed in <code>id</code> order. Changes to the same entity are serialized by optimistic locking, so
+ * the events of an entity are relayed in the order of its versions. Only one relay should run at a time; the relay is
+ * enabled by the <code>batch</code> profile.
+ * </p>
+ * <p>
+ * A versioned update is recorded without reading the entity, so its event has no <code>referenceId</code>. The relay
+ * resolves the missing reference identifiers of a batch with one query per entity type before the batch is published.
+ * The reference identifier of an entity deleted before its update event is relayed is taken from a later event of
+ * the same entity in the batch, or is left <code>null</code>.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@Service
+public class OutboxServiceBean implements OutboxService {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(OutboxServiceBean.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The Spring Data repository for OutboxEvent entities.
+     */
+    @Autowired
+    private transient OutboxEventRepository outboxEventRepository;
+
+    /**
+     * The JPA EntityManager of the current transaction.
+     */
+    @PersistenceContext
+    private transient EntityManager entityManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void record(final TransactionalEntity entity, final ChangeType changeType) {
+        record(Hibernate.getClass(entity), entity.getId(), entity.getVersion(), entity.getReferenceId(), changeType);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void record(final Class<?> entityClass, final Long id, final Integer version, final String referenceId,
+            final ChangeType changeType) {
+        logger.info("> record {} {} {}", changeType, entityClass.getSimpleName(), id);
+
+        counterService.increment("method.invoked.outboxServiceBean.record");
+
+        outboxEventRepository
+                .save(new OutboxEvent(entityClass.getSimpleName(), id, version, referenceId, changeType));
+
+        logger.info("< record {} {} {}", changeType, entityClass.getSimpleName(), id);
+    }
+
+    @Transactional
+    @Override
+    public int relay(final int batchSize, final OutboxEventSink sink) {
+        logger.info("> relay");
+
+        final List<OutboxEvent> events = outboxEventRepository.findUnpublished(new PageRequest(0, batchSize));
+        if (!events.isEmpty()) {
+            resolveReferenceIds(events);
+            sink.publish(events);
+
+            final List<Long> ids = new ArrayList<Long>(events.size());
+            for (final OutboxEvent event : events) {
+                ids.add(event.getId());
+            }
+            outboxEventRepository.markPublished(ids, new DateTime());
+
+            counterService.increment("outbox.relay.batches");
+            logger.debug("Relayed {} outbox events.", events.size());
+        }
+
+        logger.info("< relay");
+        return events.size();
+    }
+
+    /**
+     * Sets the reference identifier of the OutboxEvents recorded without one. Reference identifiers are taken from the
+     * other events of the batch first; the remainder are read with one query per entity type.
+     * 
+     * @param events A List of OutboxEvent objects.
+     */
+    private void resolveReferenceIds(final List<OutboxEvent> events) {
+        final Map<String, String> referenceIds = new HashMap<String, String>();
+        final Map<String, List<Long>> unresolved = new HashMap<String, List<Long>>();
+        for (final OutboxEvent event : events) {
+            if (event.getReferenceId() != null) {
+                referenceIds.put(key(event.getEntityType(), event.getEntityId()), event.getReferenceId());
+            }
+        }
+        for (final OutboxEvent event : events) {
+            if (event.getReferenceId() == null
+                    && !referenceIds.containsKey(key(event.getEntityType(), event.getEntityId()))) {
+                unresolved.computeIfAbsent(event.getEntityType(), type -> new ArrayList<Long>())
+                        .add(event.getEntityId());
+            }
+        }
+
+        for (final Map.Entry<String, List<Long>> entry : unresolved.entrySet()) {
+            final List<Object[]> rows = entityManager
+                    .createQuery("SELECT e.id, e.referenceId FROM " + entry.getKey() + " e WHERE e.id IN :ids",
+                            Object[].class)
+                    .setParameter("ids", entry.getValue()).getResultList();
+            for (final Object[] row : rows) {
+                referenceIds.put(key(entry.getKey(), (Long) row[0]), (String) row[1]);
+            }
+        }
+
+        for (final OutboxEvent event : events) {
+            if (event.getReferenceId() == null) {
+                event.setReferenceId(referenceIds.get(key(event.getEntityType(), event.getEntityId())));
+            }
+        }
+    }
+
+    /**
+     * Returns the key of an entity in a batch of OutboxEvents.
+     * 
+     * @param entityType The entity type name.
+     * @param entityId The entity primary key identifier.
+     * @return A String key.
+     */
+    private static String key(final String entityType, final Long entityId) {
+        return entityType + ':' + entityId;
+    }
+
+}
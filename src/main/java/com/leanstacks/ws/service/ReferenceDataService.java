@@ -0,0 +1,32 @@
+package com.leanstacks.ws.service;
+
+import com.leanstacks.ws.model.ReferenceEntity;
+
+/**
+ * <p>
+ * The ReferenceDataService interface defines all public business behaviors for operations on ReferenceEntity
+ * instances, such as Role.
+ * </p>
+ * <p>
+ * This interface should be injected into ReferenceDataService clients, not the implementation bean.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+public interface ReferenceDataService {
+
+    /**
+     * Returns the in-memory ReferenceDataSet of a ReferenceEntity type.
+     * 
+     * @param type The ReferenceEntity class.
+     * @param <T> The ReferenceEntity type.
+     * @return A ReferenceDataSet, empty if the type is unknown.
+     */
+    <T extends ReferenceEntity> ReferenceDataSet<T> getReferenceData(Class<T> type);
+
+    /**
+     * Reload all ReferenceEntity types from the database and replace the in-memory ReferenceDataSets.
+     */
+    void refresh();
+
+}
@@ -0,0 +1,147 @@
+package com.leanstacks.ws.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.stereotype.Service;
+
+import com.leanstacks.ws.model.ReferenceEntity;
+
+/**
+ * <p>
+ * The ReferenceDataServiceBean holds every ReferenceEntity type in memory as an immutable ReferenceDataSet.
+ * </p>
+ * <p>
+ * The ReferenceEntity types are discovered from the JPA metamodel and loaded when the bean is initialized. The sets are
+ * reloaded every <code>ws.reference.refresh-interval</code> milliseconds, or on demand, and replaced atomically, so
+ * readers never observe a partially loaded set and never read reference rows from the database.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@Service
+public class ReferenceDataServiceBean implements ReferenceDataService, InitializingBean, DisposableBean {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataServiceBean.class);
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator.
+     */
+    @Autowired
+    private transient CounterService counterService;
+
+    /**
+     * The JPA EntityManagerFactory.
+     */
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The interval, in milliseconds, between scheduled refreshes. Zero disables scheduled refreshes.
+     */
+    @Value("${ws.reference.refresh-interval:300000}")
+    private long refreshInterval;
+
+    /**
+     * The ReferenceDataSets, keyed by ReferenceEntity class. Replaced, never modified, on refresh.
+     */
+    private volatile Map<Class<?>, ReferenceDataSet<?>> referenceData = Collections.emptyMap();
+
+    /**
+     * The executor which performs scheduled refreshes.
+     */
+    private transient ScheduledExecutorService scheduler;
+
+    @Override
+    public void afterPropertiesSet() {
+        refresh();
+        if (refreshInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "reference-data-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException ex) {
+                    // keep serving the previous sets; the next refresh retries
+                    logger.error("Failed to refresh reference data.", ex);
+                }
+            }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends ReferenceEntity> ReferenceDataSet<T> getReferenceData(final Class<T> type) {
+        final ReferenceDataSet<T> referenceDataSet = (ReferenceDataSet<T>) referenceData.get(type);
+        return referenceDataSet == null ? new ReferenceDataSet<T>(Collections.<T> emptyList()) : referenceDataSet;
+    }
+
+    @Override
+    public void refresh() {
+        logger.info("> refresh");
+
+        counterService.increment("method.invoked.referenceDataServiceBean.refresh");
+
+        final Map<Class<?>, ReferenceDataSet<?>> loaded = new HashMap<Class<?>, ReferenceDataSet<?>>();
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (final EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+                if (ReferenceEntity.class.isAssignableFrom(entityType.getJavaType())) {
+                    loaded.put(entityType.getJavaType(),
+                            load(entityManager, entityType.getJavaType().asSubclass(ReferenceEntity.class)));
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+        referenceData = Collections.unmodifiableMap(loaded);
+
+        logger.info("< refresh");
+    }
+
+    /**
+     * Load the entities of a ReferenceEntity type.
+     * 
+     * @param entityManager An EntityManager.
+     * @param type The ReferenceEntity class.
+     * @param <T> The ReferenceEntity type.
+     * @return A ReferenceDataSet.
+     */
+    private <T extends ReferenceEntity> ReferenceDataSet<T> load(final EntityManager entityManager,
+            final Class<T> type) {
+        final List<T> entities = entityManager.createQuery("SELECT e FROM " + type.getSimpleName() + " e", type)
+                .getResultList();
+        logger.debug("Loaded {} {} entities.", entities.size(), type.getSimpleName());
+        return new ReferenceDataSet<T>(entities);
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.leanstacks.ws.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.joda.time.DateTime;
+
+import com.leanstacks.ws.model.ReferenceEntity;
+
+/**
+ * <p>
+ * An immutable, in-memory set of the ReferenceEntity instances of one type. Entities are held in <code>ordinal</code>
+ * order and indexed by <code>id</code> and by <code>code</code>.
+ * </p>
+ * <p>
+ * The effective-time index divides the timeline at every <code>effectiveAt</code> and <code>expiresAt</code> value.
+ * The entities effective within each interval are computed once, so the entities effective at an instant are found
+ * with a binary search and no allocation.
+ * </p>
+ * 
+ * @author Matt Warman
+ * @param <T> The ReferenceEntity type.
+ */
+public class ReferenceDataSet<T extends ReferenceEntity> {
+
+    /**
+     * The entities in <code>ordinal</code> order.
+     */
+    private final List<T> entities;
+
+    /**
+     * The entities keyed by <code>id</code>.
+     */
+    private final Map<Long, T> entitiesById;
+
+    /**
+     * The entities keyed by <code>code</code>.
+     */
+    private final Map<String, T> entitiesByCode;
+
+    /**
+     * The interval boundaries of the effective-time index, in epoch milliseconds, ascending.
+     */
+    private final long[] boundaries;
+
+    /**
+     * The entities effective in each interval. Element <code>i</code> holds the entities effective from
+     * <code>boundaries[i]</code> (inclusive) to <code>boundaries[i + 1]</code> (exclusive).
+     */
+    private final List<List<T>> effectiveEntities;
+
+    /**
+     * Construct a ReferenceDataSet.
+     * 
+     * @param entities The entities of one ReferenceEntity type.
+     */
+    public ReferenceDataSet(final Collection<T> entities) {
+        final List<T> sorted = new ArrayList<T>(entities);
+        Collections.sort(sorted, Comparator.comparing(ReferenceEntity::getOrdinal));
+        this.entities = Collections.unmodifiableList(sorted);
+
+        final Map<Long, T> byId = new HashMap<Long, T>();
+        final Map<String, T> byCode = new HashMap<String, T>();
+        final TreeSet<Long> instants = new TreeSet<Long>();
+        for (final T entity : sorted) {
+            byId.put(entity.getId(), entity);
+            byCode.put(entity.getCode(), entity);
+            instants.add(entity.getEffectiveAt().getMillis());
+            if (entity.getExpiresAt() != null) {
+                instants.add(entity.getExpiresAt().getMillis());
+            }
+        }
+        this.entitiesById = Collections.unmodifiableMap(byId);
+        this.entitiesByCode = Collections.unmodifiableMap(byCode);
+
+        this.boundaries = new long[instants.size()];
+        final List<List<T>> effective = new ArrayList<List<T>>(instants.size());
+        int index = 0;
+        for (final Long instant : instants) {
+            boundaries[index++] = instant;
+            final List<T> interval = new ArrayList<T>();
+            for (final T entity : sorted) {
+                if (isEffective(entity, instant)) {
+                    interval.add(entity);
+                }
+            }
+            effective.add(Collections.unmodifiableList(interval));
+        }
+        this.effectiveEntities = Collections.unmodifiableList(effective);
+    }
+
+    /**
+     * Returns all entities, in <code>ordinal</code> order, regardless of their effective time.
+     * 
+     * @return An unmodifiable List of entities.
+     */
+    public List<T> findAll() {
+        return entities;
+    }
+
+    /**
+     * Returns the entity with the supplied <code>id</code>, regardless of its effective time.
+     * 
+     * @param id The entity identifier.
+     * @return The entity, or <code>null</code> if not found.
+     */
+    public T findById(final Long id) {
+        return entitiesById.get(id);
+    }
+
+    /**
+     * Returns the entity with the supplied <code>code</code>, regardless of its effective time.
+     * 
+     * @param code The entity code.
+     * @return The entity, or <code>null</code> if not found.
+     */
+    public T findByCode(final String code) {
+        return entitiesByCode.get(code);
+    }
+
+    /**
+     * Returns the entities effective at the supplied instant, in <code>ordinal</code> order.
+     * 
+     * @param at The instant.
+     * @return An unmodifiable List of entities.
+     */
+    public List<T> findEffective(final DateTime at) {
+        final int interval = interval(at.getMillis());
+        return interval < 0 ? Collections.<T> emptyList() : effectiveEntities.get(interval);
+    }
+
+    /**
+     * Returns the entity with the supplied <code>id</code> if it is effective at the supplied instant.
+     * 
+     * @param id The entity identifier.
+     * @param at The instant.
+     * @return The entity, or <code>null</code> if not found or not effective.
+     */
+    public T findEffectiveById(final Long id, final DateTime at) {
+        return findEffectiveById(id, at.getMillis());
+    }
+
+    /**
+     * Returns the entity with the supplied <code>id</code> if it is effective at the supplied instant.
+     * 
+     * @param id The entity identifier.
+     * @param millis The instant, in epoch milliseconds.
+     * @return The entity, or <code>null</code> if not found or not effective.
+     */
+    public T findEffectiveById(final Long id, final long millis) {
+        final T entity = entitiesById.get(id);
+        return entity != null && isEffective(entity, millis) ? entity : null;
+    }
+
+    /**
+     * Returns the index of the interval containing the supplied instant.
+     * 
+     * @param millis The instant, in epoch milliseconds.
+     * @return The interval index, or <code>-1</code> if the instant precedes the first boundary.
+     */
+    private int interval(final long millis) {
+        final int search = Arrays.binarySearch(boundaries, millis);
+        return search >= 0 ? search : -search - 2;
+    }
+
+    /**
+     * Indicates if an entity is effective at an instant.
+     * 
+     * @param entity A ReferenceEntity.
+     * @param millis The instant, in epoch milliseconds.
+     * @return <code>true</code> if the entity is effective, otherwise <code>false</code>.
+     */
+    private static boolean isEffective(final ReferenceEntity entity, final long millis) {
+        return entity.getEffectiveAt().getMillis() <= millis
+                && (entity.getExpiresAt() == null || entity.getExpiresAt().getMillis() > millis);
+    }
+
+}
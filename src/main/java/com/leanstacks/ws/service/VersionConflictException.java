@@ -0,0 +1,45 @@
+package com.leanstacks.ws.service;
+
+/**
+ * A VersionConflictException is thrown when an entity cannot be updated because it has been modified concurrently,
+ * i.e. the entity version in the data store no longer matches the version the update was based upon. The exception
+ * does not capture a stack trace.
+ * 
+ * @author Matt Warman
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The current version of the entity in the data store.
+     */
+    private final Integer currentVersion;
+
+    /**
+     * Construct a VersionConflictException.
+     * 
+     * @param message A String message describing the conflict.
+     * @param currentVersion The current version of the entity in the data store.
+     */
+    public VersionConflictException(final String message, final Integer currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // expected outcome of concurrent updates; the stack trace is never logged
+        return this;
+    }
+
+    /**
+     * Returns the current version of the entity in the data store.
+     * 
+     * @return An Integer.
+     */
+    public Integer getCurrentVersion() {
+        return currentVersion;
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.leanstacks.ws.startup;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * <p>
+ * A BeanFactoryPostProcessor which marks the singleton beans of non-critical components as lazily initialized, so
+ * they are created when first used rather than while the application starts.
+ * </p>
+ * <p>
+ * A bean is lazily initialized when its class, or the configuration class which declares it, starts with one of the
+ * included prefixes and it is not excluded by name. Beans which must exist to take effect are never made lazy:
+ * infrastructure beans, post-processors, listeners, lifecycle beans and beans with <code>@Scheduled</code> or
+ * <code>@EventListener</code> methods. Beans which are looked up by type at startup, e.g. Actuator endpoints and
+ * servlet filters, are still created at startup.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class LazyInitializationBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LazyInitializationBeanFactoryPostProcessor.class);
+
+    /**
+     * The types of beans which must be created eagerly to take effect.
+     */
+    private static final List<Class<?>> EAGER_TYPES = Arrays.<Class<?>> asList(BeanPostProcessor.class,
+            BeanFactoryPostProcessor.class, SmartInitializingSingleton.class, ApplicationListener.class,
+            Lifecycle.class);
+
+    /**
+     * The class name prefixes of lazily initialized beans.
+     */
+    private final List<String> includes;
+
+    /**
+     * The names of beans which are never lazily initialized.
+     */
+    private final List<String> excludes;
+
+    /**
+     * Construct a LazyInitializationBeanFactoryPostProcessor.
+     *
+     * @param includes The class name prefixes of lazily initialized beans.
+     * @param excludes The names of beans which are never lazily initialized.
+     */
+    public LazyInitializationBeanFactoryPostProcessor(final String[] includes, final String[] excludes) {
+        this.includes = Arrays.asList(includes);
+        this.excludes = Arrays.asList(excludes);
+    }
+
+    @Override
+    public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        logger.info("> postProcessBeanFactory");
+
+        int count = 0;
+        for (final String beanName : beanFactory.getBeanDefinitionNames()) {
+            final BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (isLazyCandidate(beanName, definition, beanFactory.getBeanClassLoader())) {
+                definition.setLazyInit(true);
+                count++;
+            }
+        }
+        logger.info("- {} beans are lazily initialized", count);
+
+        logger.info("< postProcessBeanFactory");
+    }
+
+    /**
+     * Indicates if a bean may be lazily initialized.
+     *
+     * @param beanName The bean name.
+     * @param definition The BeanDefinition.
+     * @param classLoader The ClassLoader of the bean classes.
+     * @return <code>true</code> if the bean should be lazily initialized, otherwise <code>false</code>.
+     */
+    private boolean isLazyCandidate(final String beanName, final BeanDefinition definition,
+            final ClassLoader classLoader) {
+        if (!definition.isSingleton() || definition.isAbstract() || definition.isLazyInit()
+                || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE || excludes.contains(beanName)) {
+            return false;
+        }
+        String typeName = definition.getBeanClassName();
+        String declaringName = typeName;
+        if (definition instanceof AnnotatedBeanDefinition) {
+            final MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                typeName = factoryMethod.getReturnTypeName();
+                declaringName = factoryMethod.getDeclaringClassName();
+            }
+        }
+        if (typeName == null || !(isIncluded(typeName) || isIncluded(declaringName))) {
+            return false;
+        }
+        try {
+            return !requiresEagerInitialization(ClassUtils.forName(typeName, classLoader));
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Indicates if a class name starts with an included prefix.
+     *
+     * @param className A class name.
+     * @return <code>true</code> if the class is included, otherwise <code>false</code>.
+     */
+    private boolean isIncluded(final String className) {
+        if (className == null) {
+            return false;
+        }
+        for (final String include : includes) {
+            if (!include.isEmpty() && className.startsWith(include)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indicates if beans of a type must be created eagerly to take effect.
+     *
+     * @param type The bean type.
+     * @return <code>true</code> if the bean must be created eagerly, otherwise <code>false</code>.
+     */
+    private static boolean requiresEagerInitialization(final Class<?> type) {
+        for (final Class<?> eagerType : EAGER_TYPES) {
+            if (eagerType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        for (final Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+            if (AnnotationUtils.findAnnotation(method, Scheduled.class) != null
+                    || AnnotationUtils.findAnnotation(method, EventListener.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,371 @@
+package com.leanstacks.ws.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * <p>
+ * The StartupTimeline records the time taken to create and initialize each singleton bean while the application
+ * starts, so the beans and configuration classes which dominate startup time can be identified.
+ * </p>
+ * <p>
+ * A bean's time is measured from its instantiation to the end of its initialization. Beans created while another bean
+ * is being created, i.e. its dependencies, are measured separately and subtracted, so the <code>self</code> time of a
+ * bean excludes its dependencies. Bean times are aggregated by source: the configuration class, auto-configuration
+ * class or component class which declares the bean.
+ * </p>
+ * <p>
+ * Recording stops when the application is ready. The report is then logged, written to the report file as JSON when
+ * one is configured, and remains available to the Actuator <code>startup</code> endpoint.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class StartupTimeline extends InstantiationAwareBeanPostProcessorAdapter
+        implements PriorityOrdered, BeanFactoryAware, ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeline.class);
+
+    /**
+     * The suffix of the class names of CGLIB enhanced configuration classes.
+     */
+    private static final String CGLIB_SEPARATOR = "$$";
+
+    /**
+     * The maximum number of beans and sources in the report.
+     */
+    private final int maximumEntries;
+
+    /**
+     * The path of the JSON report file, or an empty String if the report is not written to a file.
+     */
+    private final String reportFile;
+
+    /**
+     * The beans being created on the current thread, innermost last.
+     */
+    private final ThreadLocal<Deque<Frame>> frames = new ThreadLocal<Deque<Frame>>() {
+        @Override
+        protected Deque<Frame> initialValue() {
+            return new ArrayDeque<Frame>();
+        }
+    };
+
+    /**
+     * The recorded bean times.
+     */
+    private final ConcurrentLinkedQueue<BeanTiming> timings = new ConcurrentLinkedQueue<BeanTiming>();
+
+    /**
+     * The BeanFactory whose bean definitions identify the source of each bean.
+     */
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Indicates if bean times are being recorded.
+     */
+    private volatile boolean recording = true;
+
+    /**
+     * The report, created when the application is ready.
+     */
+    private volatile Map<String, Object> report;
+
+    /**
+     * Construct a StartupTimeline.
+     *
+     * @param maximumEntries The maximum number of beans and sources in the report.
+     * @param reportFile The path of the JSON report file, or an empty String if the report is not written to a file.
+     */
+    public StartupTimeline(final int maximumEntries, final String reportFile) {
+        this.maximumEntries = maximumEntries;
+        this.reportFile = reportFile;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(final Class<?> beanClass, final String beanName)
+            throws BeansException {
+        if (recording) {
+            frames.get().push(new Frame(beanName, System.nanoTime()));
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException {
+        if (recording) {
+            end(bean, beanName);
+        }
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(final ApplicationReadyEvent event) {
+        if (event.getApplicationContext().getBeanFactory() != beanFactory) {
+            return;
+        }
+        recording = false;
+        frames.remove();
+        report = createReport();
+        logger.info("Application ready in {} ms. Slowest startup sources: {}", report.get("readyMillis"),
+                summary(report));
+        if (StringUtils.hasText(reportFile)) {
+            try {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(reportFile),
+                        report);
+                logger.info("Startup timeline written to {}", reportFile);
+            } catch (IOException ex) {
+                logger.warn("Failed to write the startup timeline to {}. {}", reportFile, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the startup report.
+     *
+     * @return The report, or an empty Map if the application is not yet ready.
+     */
+    public Map<String, Object> getReport() {
+        final Map<String, Object> current = report;
+        return current == null ? Collections.<String, Object> emptyMap() : current;
+    }
+
+    /**
+     * Record the end of a bean's creation.
+     *
+     * @param bean The bean instance.
+     * @param beanName The bean name.
+     */
+    private void end(final Object bean, final String beanName) {
+        final Deque<Frame> stack = frames.get();
+        if (!stack.stream().anyMatch(candidate -> candidate.beanName.equals(beanName))) {
+            // e.g. the object created by a FactoryBean, whose creation was not recorded
+            return;
+        }
+        // frames above the bean belong to dependencies whose creation failed
+        Frame frame = stack.pop();
+        while (!frame.beanName.equals(beanName)) {
+            frame = stack.pop();
+        }
+        final long totalNanos = System.nanoTime() - frame.startNanos;
+        final Frame parent = stack.peek();
+        if (parent != null) {
+            parent.childNanos += totalNanos;
+        }
+        timings.add(new BeanTiming(beanName, ClassUtils.getUserClass(bean).getName(),
+                totalNanos - frame.childNanos, totalNanos));
+    }
+
+    /**
+     * Create the startup report from the recorded bean times.
+     *
+     * @return The report.
+     */
+    private Map<String, Object> createReport() {
+        final List<BeanTiming> beans = new ArrayList<BeanTiming>(timings);
+        final Comparator<BeanTiming> bySelf = (a, b) -> Long.compare(b.selfNanos, a.selfNanos);
+        Collections.sort(beans, bySelf);
+
+        final Map<String, long[]> sourceTotals = new HashMap<String, long[]>();
+        long beanNanos = 0L;
+        final List<Map<String, Object>> beanEntries = new ArrayList<Map<String, Object>>();
+        for (final BeanTiming timing : beans) {
+            final String source = sourceOf(timing);
+            final long[] total = sourceTotals.computeIfAbsent(source, key -> new long[2]);
+            total[0] += timing.selfNanos;
+            total[1]++;
+            beanNanos += timing.selfNanos;
+            if (beanEntries.size() < maximumEntries) {
+                final Map<String, Object> entry = new LinkedHashMap<String, Object>();
+                entry.put("name", timing.beanName);
+                entry.put("type", timing.type);
+                entry.put("source", source);
+                entry.put("selfMillis", millis(timing.selfNanos));
+                entry.put("totalMillis", millis(timing.totalNanos));
+                beanEntries.add(entry);
+            }
+        }
+
+        final List<Map.Entry<String, long[]>> sources = new ArrayList<Map.Entry<String, long[]>>(
+                sourceTotals.entrySet());
+        Collections.sort(sources, (a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        final List<Map<String, Object>> sourceEntries = new ArrayList<Map<String, Object>>();
+        for (final Map.Entry<String, long[]> source : sources.subList(0, Math.min(maximumEntries, sources.size()))) {
+            final Map<String, Object> entry = new LinkedHashMap<String, Object>();
+            entry.put("source", source.getKey());
+            entry.put("beans", source.getValue()[1]);
+            entry.put("millis", millis(source.getValue()[0]));
+            sourceEntries.add(entry);
+        }
+
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("startTime", ManagementFactory.getRuntimeMXBean().getStartTime());
+        result.put("readyMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+        result.put("beanCount", beans.size());
+        result.put("beanMillis", millis(beanNanos));
+        result.put("sources", sourceEntries);
+        result.put("beans", beanEntries);
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the class which declares a bean: the configuration class of a <code>@Bean</code> method, otherwise the
+     * bean class.
+     *
+     * @param timing A BeanTiming.
+     * @return The source class name.
+     */
+    private String sourceOf(final BeanTiming timing) {
+        if (beanFactory == null || !beanFactory.containsBeanDefinition(timing.beanName)) {
+            return timing.type;
+        }
+        final BeanDefinition definition = beanFactory.getBeanDefinition(timing.beanName);
+        String source = definition.getBeanClassName();
+        if (definition.getFactoryBeanName() != null
+                && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+            source = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+        }
+        if (source == null) {
+            return timing.type;
+        }
+        final int cglib = source.indexOf(CGLIB_SEPARATOR);
+        return cglib < 0 ? source : source.substring(0, cglib);
+    }
+
+    /**
+     * Summarize the slowest sources of a report.
+     *
+     * @param report A startup report.
+     * @return The names and times of the slowest sources.
+     */
+    @SuppressWarnings("unchecked")
+    private static String summary(final Map<String, Object> report) {
+        final StringBuilder summary = new StringBuilder();
+        final List<Map<String, Object>> sources = (List<Map<String, Object>>) report.get("sources");
+        for (final Map<String, Object> source : sources.subList(0, Math.min(5, sources.size()))) {
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            summary.append(ClassUtils.getShortName((String) source.get("source"))).append('=')
+                    .append(source.get("millis")).append("ms");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds with a precision of a tenth of a millisecond.
+     *
+     * @param nanos A duration in nanoseconds.
+     * @return The duration in milliseconds.
+     */
+    private static double millis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 100L / 10.0;
+    }
+
+    /**
+     * A bean being created.
+     */
+    private static class Frame {
+
+        /**
+         * The bean name.
+         */
+        private final String beanName;
+
+        /**
+         * The start of the bean's creation.
+         */
+        private final long startNanos;
+
+        /**
+         * The time spent creating the beans created during this bean's creation.
+         */
+        private long childNanos;
+
+        Frame(final String beanName, final long startNanos) {
+            this.beanName = beanName;
+            this.startNanos = startNanos;
+        }
+
+    }
+
+    /**
+     * The recorded time of one bean.
+     */
+    private static class BeanTiming {
+
+        /**
+         * The bean name.
+         */
+        private final String beanName;
+
+        /**
+         * The bean class name.
+         */
+        private final String type;
+
+        /**
+         * The time spent creating the bean, excluding its dependencies.
+         */
+        private final long selfNanos;
+
+        /**
+         * The time spent creating the bean, including its dependencies.
+         */
+        private final long totalNanos;
+
+        BeanTiming(final String beanName, final String type, final long selfNanos, final long totalNanos) {
+            this.beanName = beanName;
+            this.type = type;
+            this.selfNanos = selfNanos;
+            this.totalNanos = totalNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * An adaptive concurrency limiter using the additive-increase/multiplicative-decrease (AIMD) algorithm.
+ * </p>
+ * <p>
+ * A caller obtains a permit with {@link #tryAcquire()} before performing work and returns it with
+ * {@link #release(long, boolean)} when the work is complete. The limit grows by one each time a permit is released
+ * while the limiter is at least half utilized and the work was fast and successful. The limit is multiplied by the
+ * backoff ratio each time the work was slower than the latency threshold or failed. The limit is kept between the
+ * minimum and maximum limits.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class AimdConcurrencyLimiter {
+
+    /**
+     * The minimum limit.
+     */
+    private final int minLimit;
+
+    /**
+     * The maximum limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * The ratio applied to the limit when work is slow or fails.
+     */
+    private final double backoffRatio;
+
+    /**
+     * The latency, in milliseconds, above which work is considered slow.
+     */
+    private final long latencyThresholdMillis;
+
+    /**
+     * The current limit.
+     */
+    private final AtomicInteger limit;
+
+    /**
+     * The number of permits currently held.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Construct an AimdConcurrencyLimiter.
+     *
+     * @param initialLimit The initial limit.
+     * @param minLimit The minimum limit.
+     * @param maxLimit The maximum limit.
+     * @param backoffRatio The ratio, between 0 and 1, applied to the limit when work is slow or fails.
+     * @param latencyThresholdMillis The latency, in milliseconds, above which work is considered slow.
+     */
+    public AimdConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+            final double backoffRatio, final long latencyThresholdMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    /**
+     * Attempt to obtain a permit.
+     *
+     * @return <code>true</code> if a permit was obtained, otherwise <code>false</code>.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return a permit and adjust the limit using the outcome of the work.
+     *
+     * @param latencyMillis The duration of the work in milliseconds.
+     * @param failed <code>true</code> if the work failed.
+     */
+    public void release(final long latencyMillis, final boolean failed) {
+        final int utilization = inFlight.getAndDecrement();
+        if (failed || latencyMillis > latencyThresholdMillis) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        } else if (utilization * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Return a permit without adjusting the limit, e.g. when the work was not performed.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Get the current limit.
+     *
+     * @return An int limit.
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    /**
+     * Get the number of permits currently held.
+     *
+     * @return An int count.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
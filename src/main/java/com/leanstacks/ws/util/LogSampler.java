@@ -0,0 +1,91 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ * A LogSampler limits how often a recurring event is logged. For each key, at most one event per interval is
+ * sampled; the events in between are counted and the count is reported with the next sampled event.
+ * </p>
+ * <p>
+ * The number of keys is not bounded, so keys should have a small, fixed cardinality, e.g. exception class names.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class LogSampler {
+
+    /**
+     * The value returned by <code>sample</code> when an event is not sampled.
+     */
+    public static final long SUPPRESSED = -1L;
+
+    /**
+     * The minimum time between sampled events of a key, in nanoseconds.
+     */
+    private final long intervalNanos;
+
+    /**
+     * The clock, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The sampling state keyed by event key.
+     */
+    private final ConcurrentMap<String, Sample> samples = new ConcurrentHashMap<String, Sample>();
+
+    /**
+     * Construct a LogSampler.
+     *
+     * @param intervalNanos The minimum time between sampled events of a key, in nanoseconds.
+     * @param clock The clock, in nanoseconds, e.g. <code>System::nanoTime</code>.
+     */
+    public LogSampler(final long intervalNanos, final LongSupplier clock) {
+        this.intervalNanos = intervalNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Sample an event.
+     *
+     * @param key The event key.
+     * @return The number of events of the key suppressed since the last sampled event if this event is sampled, or
+     *         <code>SUPPRESSED</code> if this event should not be logged.
+     */
+    public long sample(final String key) {
+        final long now = clock.getAsLong();
+        final Sample sample = samples.computeIfAbsent(key, k -> new Sample(now));
+        final long next = sample.next.get();
+        if (now - next >= 0 && sample.next.compareAndSet(next, now + intervalNanos)) {
+            return sample.suppressed.getAndSet(0L);
+        }
+        sample.suppressed.incrementAndGet();
+        return SUPPRESSED;
+    }
+
+    /**
+     * The sampling state of one key.
+     */
+    private static class Sample {
+
+        /**
+         * The earliest time at which the next event is sampled.
+         */
+        private final AtomicLong next;
+
+        /**
+         * The number of events suppressed since the last sampled event.
+         */
+        private final AtomicLong suppressed = new AtomicLong();
+
+        Sample(final long next) {
+            this.next = new AtomicLong(next);
+        }
+
+    }
+
+}
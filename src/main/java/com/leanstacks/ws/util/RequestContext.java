@@ -1,5 +1,8 @@
 package com.leanstacks.ws.util;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,11 +12,13 @@ import org.slf4j.LoggerFactory;
  * transaction).
  * </p>
  * <p>
- * RequestContext attributes are stored in ThreadLocal objects.
+ * RequestContext attributes are stored in ThreadLocal objects. When work for a request is handed to another thread,
+ * the attributes are carried with a {@link Snapshot}: take a snapshot on the submitting thread and restore it on the
+ * executing thread. The <code>wrap</code> methods and the {@link RequestContextTaskDecorator} do this automatically.
  * </p>
- * 
+ *
  * @author Matt Warman
- * 
+ *
  */
 public final class RequestContext {
 
@@ -27,13 +32,23 @@ public final class RequestContext {
      */
     private static ThreadLocal<String> usernames = new ThreadLocal<String>();
 
+    /**
+     * ThreadLocal storage of request identifier Strings.
+     */
+    private static ThreadLocal<String> requestIds = new ThreadLocal<String>();
+
+    /**
+     * ThreadLocal storage of request start timestamps.
+     */
+    private static ThreadLocal<Long> startTimes = new ThreadLocal<Long>();
+
     private RequestContext() {
 
     }
 
     /**
      * Get the username for the current thread.
-     * 
+     *
      * @return A String username.
      */
     public static String getUsername() {
@@ -42,7 +57,7 @@ public final class RequestContext {
 
     /**
      * Set the username for the current thread.
-     * 
+     *
      * @param username A String username.
      */
     public static void setUsername(final String username) {
@@ -50,11 +65,168 @@ public final class RequestContext {
         logger.debug("RequestContext added username {} to current thread", username);
     }
 
+    /**
+     * Get the request identifier for the current thread.
+     *
+     * @return A String request identifier.
+     */
+    public static String getRequestId() {
+        return requestIds.get();
+    }
+
+    /**
+     * Set the request identifier for the current thread.
+     *
+     * @param requestId A String request identifier.
+     */
+    public static void setRequestId(final String requestId) {
+        requestIds.set(requestId);
+        logger.debug("RequestContext added requestId {} to current thread", requestId);
+    }
+
+    /**
+     * Get the timestamp, in milliseconds, when the request for the current thread started.
+     *
+     * @return A Long timestamp or <code>null</code> if not set.
+     */
+    public static Long getStartTime() {
+        return startTimes.get();
+    }
+
+    /**
+     * Set the timestamp, in milliseconds, when the request for the current thread started.
+     *
+     * @param startTime A Long timestamp.
+     */
+    public static void setStartTime(final Long startTime) {
+        startTimes.set(startTime);
+    }
+
     /**
      * Initialize the ThreadLocal attributes for the current thread.
      */
     public static void init() {
         usernames.set(null);
+        requestIds.set(null);
+        startTimes.set(null);
+    }
+
+    /**
+     * Capture the RequestContext attributes of the current thread.
+     *
+     * @return A Snapshot.
+     */
+    public static Snapshot snapshot() {
+        return new Snapshot(usernames.get(), requestIds.get(), startTimes.get());
+    }
+
+    /**
+     * Replace the RequestContext attributes of the current thread with those of the supplied Snapshot.
+     *
+     * @param snapshot A Snapshot.
+     * @return A Snapshot of the attributes which were replaced, used to restore the thread after the work completes.
+     */
+    public static Snapshot restore(final Snapshot snapshot) {
+        final Snapshot previous = snapshot();
+        usernames.set(snapshot.getUsername());
+        requestIds.set(snapshot.getRequestId());
+        startTimes.set(snapshot.getStartTime());
+        return previous;
+    }
+
+    /**
+     * Wrap the supplied Runnable so that it executes with the RequestContext attributes of the current thread.
+     *
+     * @param task A Runnable.
+     * @return A Runnable.
+     */
+    public static Runnable wrap(final Runnable task) {
+        final Snapshot snapshot = snapshot();
+        return () -> {
+            final Snapshot previous = restore(snapshot);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Wrap the supplied Callable so that it executes with the RequestContext attributes of the current thread.
+     *
+     * @param task A Callable.
+     * @param <T> The result type.
+     * @return A Callable.
+     */
+    public static <T> Callable<T> wrap(final Callable<T> task) {
+        final Snapshot snapshot = snapshot();
+        return () -> {
+            final Snapshot previous = restore(snapshot);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Wrap the supplied Executor so that every task executes with the RequestContext attributes of the thread which
+     * submitted it. Useful for <code>CompletableFuture</code> and other APIs which accept an Executor.
+     *
+     * @param executor An Executor.
+     * @return An Executor.
+     */
+    public static Executor wrap(final Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * An immutable copy of the RequestContext attributes of a thread.
+     */
+    public static final class Snapshot {
+
+        /**
+         * The username.
+         */
+        private final String username;
+
+        /**
+         * The request identifier.
+         */
+        private final String requestId;
+
+        /**
+         * The request start timestamp.
+         */
+        private final Long startTime;
+
+        /**
+         * Construct a Snapshot.
+         *
+         * @param username A String username.
+         * @param requestId A String request identifier.
+         * @param startTime A Long timestamp.
+         */
+        public Snapshot(final String username, final String requestId, final Long startTime) {
+            this.username = username;
+            this.requestId = requestId;
+            this.startTime = startTime;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRequestId() {
+            return requestId;
+        }
+
+        public Long getStartTime() {
+            return startTime;
+        }
+
     }
 
 }
@@ -0,0 +1,18 @@
+package com.leanstacks.ws.util;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * A TaskDecorator which propagates the RequestContext attributes of the thread submitting a task to the thread
+ * executing the task. Apply to a <code>ThreadPoolTaskExecutor</code> via <code>setTaskDecorator</code>.
+ *
+ * @author Matt Warman
+ */
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(final Runnable runnable) {
+        return RequestContext.wrap(runnable);
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.leanstacks.ws.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * <p>
+ * A fixed-capacity buffer of the most recently added items. Each item is assigned a sequence number, starting at
+ * <code>1</code> and increasing by one for each item added. When the buffer is full, adding an item overwrites the
+ * oldest item.
+ * </p>
+ * <p>
+ * Readers request the items added after a sequence number they have already seen. When some of those items have been
+ * overwritten, the reader has missed items and must re-synchronize from another source.
+ * </p>
+ *
+ * @author Matt Warman
+ * @param <T> The item type.
+ */
+public class RingBuffer<T> {
+
+    /**
+     * The items, indexed by <code>(sequence - 1) % capacity</code>.
+     */
+    private final Object[] items;
+
+    /**
+     * The sequence number of the most recently added item, or <code>0</code> if the buffer is empty.
+     */
+    private long lastSequence;
+
+    /**
+     * Construct a RingBuffer.
+     *
+     * @param capacity The maximum number of items retained.
+     */
+    public RingBuffer(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * Add an item created with the next sequence number.
+     *
+     * @param factory A function which creates the item from its sequence number.
+     * @return The item added.
+     */
+    public synchronized T add(final LongFunction<T> factory) {
+        final long sequence = lastSequence + 1;
+        final T item = factory.apply(sequence);
+        items[index(sequence)] = item;
+        lastSequence = sequence;
+        return item;
+    }
+
+    /**
+     * Returns the sequence number of the most recently added item.
+     *
+     * @return The sequence number, or <code>0</code> if the buffer is empty.
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns the items added after the supplied sequence number, oldest first.
+     *
+     * @param sequence The sequence number of the last item seen by the reader.
+     * @return A List of items, empty if no items were added after the sequence number, or <code>null</code> if items
+     *         added after the sequence number have been overwritten or the sequence number is unknown.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> since(final long sequence) {
+        if (sequence > lastSequence || sequence < lastSequence - items.length || sequence < 0) {
+            return null;
+        }
+        final List<T> result = new ArrayList<T>((int) (lastSequence - sequence));
+        for (long next = sequence + 1; next <= lastSequence; next++) {
+            result.add((T) items[index(next)]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the array index of a sequence number.
+     *
+     * @param sequence A sequence number.
+     * @return The array index.
+     */
+    private int index(final long sequence) {
+        return (int) ((sequence - 1) % items.length);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * SingleFlight coalesces concurrent loads of the same key. The first caller for a key (the leader) executes the load;
+ * callers which arrive while the load is in flight wait for and share the leader's result, or its exception, instead
+ * of executing their own load. Once the load completes the key is released, so later callers execute a new load.
+ * </p>
+ * <p>
+ * The shared result is the same object for every caller of a flight. Callers must treat it as read-only.
+ * </p>
+ *
+ * @author Matt Warman
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * The loads in flight, keyed by load key.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<K, CompletableFuture<V>>();
+
+    /**
+     * Invoked each time a caller shares an in-flight load.
+     */
+    private final Runnable onCoalesced;
+
+    /**
+     * Construct a SingleFlight.
+     *
+     * @param onCoalesced Invoked each time a caller shares an in-flight load, e.g. to record a metric.
+     */
+    public SingleFlight(final Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * Return the value for the supplied key, executing the loader only if no load of the key is in flight.
+     *
+     * @param key The load key.
+     * @param loader The Supplier which loads the value.
+     * @return The loaded value.
+     */
+    public V execute(final K key, final Supplier<V> loader) {
+        final CompletableFuture<V> flight = new CompletableFuture<V>();
+        final CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            onCoalesced.run();
+            return await(inFlight);
+        }
+
+        try {
+            final V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Wait for an in-flight load, rethrowing the leader's exception unwrapped.
+     *
+     * @param inFlight The in-flight load.
+     * @return The loaded value.
+     */
+    private V await(final CompletableFuture<V> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+
+}
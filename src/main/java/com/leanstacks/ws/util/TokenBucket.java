@@ -0,0 +1,152 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ * A lock-free token bucket rate limiter.
+ * </p>
+ * <p>
+ * The bucket holds up to <code>capacity</code> tokens and is refilled at a constant rate. The state is implemented
+ * with the generic cell rate algorithm (GCRA): rather than counting tokens, the bucket stores a single theoretical
+ * arrival time in an AtomicLong which is advanced with compare-and-set. Consuming a token never blocks and no
+ * background refill is required.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class TokenBucket {
+
+    /**
+     * The maximum number of tokens.
+     */
+    private final long capacity;
+
+    /**
+     * The interval, in nanoseconds, at which one token is added.
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * The maximum distance, in nanoseconds, the theoretical arrival time may run ahead of the current time.
+     */
+    private final long toleranceNanos;
+
+    /**
+     * The source of the current time in nanoseconds.
+     */
+    private final LongSupplier nanoClock;
+
+    /**
+     * The theoretical arrival time of the next request, in nanoseconds.
+     */
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * Construct a TokenBucket which is initially full.
+     *
+     * @param capacity The maximum number of tokens.
+     * @param refillPerSecond The number of tokens added per second.
+     */
+    public TokenBucket(final long capacity, final double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    /**
+     * Construct a TokenBucket which is initially full, using the supplied clock.
+     *
+     * @param capacity The maximum number of tokens.
+     * @param refillPerSecond The number of tokens added per second.
+     * @param nanoClock The source of the current time in nanoseconds.
+     */
+    public TokenBucket(final long capacity, final double refillPerSecond, final LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.toleranceNanos = emissionIntervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.theoreticalArrivalTime = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Attempt to consume one token.
+     *
+     * @return A Probe describing the outcome and the state of the bucket.
+     */
+    public Probe tryConsume() {
+        while (true) {
+            final long now = nanoClock.getAsLong();
+            final long tat = theoreticalArrivalTime.get();
+            final long start = tat - now > 0 ? tat : now;
+            final long newTat = start + emissionIntervalNanos;
+            if (newTat - now > toleranceNanos) {
+                return new Probe(false, 0L, newTat - now - toleranceNanos, start - now);
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return new Probe(true, (now + toleranceNanos - newTat) / emissionIntervalNanos, 0L, newTat - now);
+            }
+        }
+    }
+
+    /**
+     * Get the maximum number of tokens.
+     *
+     * @return A long capacity.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The outcome of an attempt to consume a token.
+     */
+    public static final class Probe {
+
+        /**
+         * Indicates if a token was consumed.
+         */
+        private final boolean consumed;
+
+        /**
+         * The number of tokens remaining.
+         */
+        private final long remaining;
+
+        /**
+         * The nanoseconds until a token will be available, when no token was consumed.
+         */
+        private final long nanosToWait;
+
+        /**
+         * The nanoseconds until the bucket is full.
+         */
+        private final long nanosToReset;
+
+        private Probe(final boolean consumed, final long remaining, final long nanosToWait,
+                final long nanosToReset) {
+            this.consumed = consumed;
+            this.remaining = remaining;
+            this.nanosToWait = nanosToWait;
+            this.nanosToReset = nanosToReset;
+        }
+
+        public boolean isConsumed() {
+            return consumed;
+        }
+
+        public long getRemaining() {
+            return remaining;
+        }
+
+        public long getNanosToWait() {
+            return nanosToWait;
+        }
+
+        public long getNanosToReset() {
+            return nanosToReset;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.leanstacks.ws.web.api;
+
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.leanstacks.ws.util.RequestContext;
+
+/**
+ * <p>
+ * The parent class of asynchronous RESTful web service controllers.
+ * </p>
+ * <p>
+ * Controller work is submitted to a workload-specific AsyncTaskExecutor and the Tomcat request thread is released
+ * while the work executes. The outcome of the work, a result or an Exception, is applied to a DeferredResult and
+ * rendered on the Servlet container async dispatch. When the executor is saturated, the TaskRejectedException is
+ * thrown on the request thread. The request timeout is controlled by the <code>spring.mvc.async.request-timeout</code>
+ * property.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public abstract class AbstractAsyncController {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AbstractAsyncController.class);
+
+    /**
+     * Execute the supplied work on the supplied executor. The RequestContext of the request thread is made available to
+     * the work by the RequestContextTaskDecorator of the executor.
+     *
+     * @param executor The AsyncTaskExecutor for the workload class.
+     * @param work The controller work.
+     * @param <T> The result type.
+     * @return A DeferredResult which is completed with the outcome of the work.
+     * @throws org.springframework.core.task.TaskRejectedException if the executor is saturated.
+     */
+    protected <T> DeferredResult<T> execute(final AsyncTaskExecutor executor, final Callable<T> work) {
+        final DeferredResult<T> deferredResult = new DeferredResult<T>();
+
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                if (deferredResult.isSetOrExpired()) {
+                    logger.warn("Skipping work for expired request {}.", RequestContext.getRequestId());
+                    return;
+                }
+                try {
+                    deferredResult.setResult(work.call());
+                } catch (Exception ex) {
+                    deferredResult.setErrorResult(ex);
+                }
+            }
+
+        });
+
+        return deferredResult;
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.leanstacks.ws.web.api;
+
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.service.CountryService;
+
+/**
+ * <p>
+ * The AsyncCountryController class is the asynchronous variant of the CountryController RESTful web service controller.
+ * The controller is activated by the <code>async</code> profile and replaces the CountryController.
+ * </p>
+ * <p>
+ * Each endpoint returns a DeferredResult. Read endpoints execute on the <code>readTaskExecutor</code> and write
+ * endpoints execute on the <code>writeTaskExecutor</code>. When an executor is saturated, the service returns HTTP
+ * status 503.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@RestController
+@Profile("async")
+public class AsyncCountryController extends AbstractAsyncController {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCountryController.class);
+
+    /**
+     * The CountryService business service.
+     */
+    @Autowired
+    private transient CountryService countryService;
+
+    /**
+     * The executor for read requests.
+     */
+    @Autowired
+    @Qualifier("readTaskExecutor")
+    private transient AsyncTaskExecutor readTaskExecutor;
+
+    /**
+     * The executor for write requests.
+     */
+    @Autowired
+    @Qualifier("writeTaskExecutor")
+    private transient AsyncTaskExecutor writeTaskExecutor;
+
+    /**
+     * Web service endpoint to fetch all Country entities. The service returns the collection of Country entities as
+     * JSON.
+     * 
+     * @return A DeferredResult containing a ResponseEntity with a Collection of Country objects.
+     */
+    @RequestMapping(value = "/api/countries",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Collection<Country>>> getCountries() {
+        logger.info("> getCountries");
+
+        final DeferredResult<ResponseEntity<Collection<Country>>> result = execute(readTaskExecutor,
+                () -> new ResponseEntity<Collection<Country>>(countryService.findAll(), HttpStatus.OK));
+
+        logger.info("< getCountries");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to fetch a single Country entity by primary key identifier. If found, the Country is
+     * returned as JSON with HTTP status 200. If not found, the service returns an empty response body with HTTP status
+     * 404.
+     * 
+     * @param id A Long URL path variable containing the Country primary key identifier.
+     * @return A DeferredResult containing a ResponseEntity with a single Country object, if found.
+     */
+    @RequestMapping(value = "/api/countries/{id}",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Country>> getCountry(@PathVariable final Long id) {
+        logger.info("> getCountry");
+
+        final DeferredResult<ResponseEntity<Country>> result = execute(readTaskExecutor, () -> {
+            final Country country = countryService.findOne(id);
+            if (country == null) {
+                return new ResponseEntity<Country>(HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<Country>(country, HttpStatus.OK);
+        });
+
+        logger.info("< getCountry");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to create a single Country entity. If created successfully, the persisted Country is
+     * returned as JSON with HTTP status 201.
+     * 
+     * @param country The Country object to be created.
+     * @return A DeferredResult containing a ResponseEntity with a single Country object, if created successfully.
+     */
+    @RequestMapping(value = "/api/countries",
+            method = RequestMethod.POST,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Country>> createCountry(@RequestBody final Country country) {
+        logger.info("> createCountry");
+
+        final DeferredResult<ResponseEntity<Country>> result = execute(writeTaskExecutor,
+                () -> new ResponseEntity<Country>(countryService.create(country), HttpStatus.CREATED));
+
+        logger.info("< createCountry");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to update a single Country entity. If updated successfully, the persisted Country is
+     * returned as JSON with HTTP status 200. If not found, the service returns HTTP status 404.
+     * 
+     * @param id A Long URL path variable containing the Country primary key identifier.
+     * @param country The Country object to be updated.
+     * @return A DeferredResult containing a ResponseEntity with a single Country object, if updated successfully.
+     */
+    @RequestMapping(value = "/api/countries/{id}",
+            method = RequestMethod.PUT,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Country>> updateCountry(@PathVariable("id") final Long id,
+            @RequestBody final Country country) {
+        logger.info("> updateCountry");
+
+        country.setId(id);
+
+        final DeferredResult<ResponseEntity<Country>> result = execute(writeTaskExecutor,
+                () -> new ResponseEntity<Country>(countryService.update(country), HttpStatus.OK));
+
+        logger.info("< updateCountry");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to update a single Country entity with a single UPDATE statement. Attributes which are
+     * absent or <code>null</code> are left unchanged. If the version is absent, the service returns HTTP status 400.
+     * If updated successfully, the service returns HTTP status 204 and the new version in the <code>ETag</code>
+     * header. If not found, the service returns HTTP status 404. If the version does not match, the service returns
+     * HTTP status 409.
+     * 
+     * @param id A Long URL path variable containing the Country primary key identifier.
+     * @param country The Country object containing the version and new values.
+     * @return A DeferredResult containing a ResponseEntity with an empty response body.
+     */
+    @RequestMapping(value = "/api/countries/{id}",
+            method = RequestMethod.PATCH,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Void>> patchCountry(@PathVariable("id") final Long id,
+            @RequestBody final Country country) {
+        logger.info("> patchCountry");
+
+        if (country.getVersion() == null) {
+            final DeferredResult<ResponseEntity<Void>> result = new DeferredResult<ResponseEntity<Void>>();
+            result.setResult(new ResponseEntity<Void>(HttpStatus.BAD_REQUEST));
+            logger.info("< patchCountry");
+            return result;
+        }
+        country.setId(id);
+
+        final DeferredResult<ResponseEntity<Void>> result = execute(writeTaskExecutor, () -> {
+            final Integer version = countryService.patch(country);
+            final HttpHeaders headers = new HttpHeaders();
+            headers.setETag("\"" + version + "\"");
+            return new ResponseEntity<Void>(headers, HttpStatus.NO_CONTENT);
+        });
+
+        logger.info("< patchCountry");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to delete a single Country entity. If deleted successfully, the service returns an empty
+     * response body with HTTP status 204.
+     * 
+     * @param id A Long URL path variable containing the Country primary key identifier.
+     * @return A DeferredResult containing a ResponseEntity with an empty response body.
+     */
+    @RequestMapping(value = "/api/countries/{id}",
+            method = RequestMethod.DELETE)
+    public DeferredResult<ResponseEntity<Country>> deleteCountry(@PathVariable("id") final Long id) {
+        logger.info("> deleteCountry");
+
+        final DeferredResult<ResponseEntity<Country>> result = execute(writeTaskExecutor, () -> {
+            countryService.delete(id);
+            return new ResponseEntity<Country>(HttpStatus.NO_CONTENT);
+        });
+
+        logger.info("< deleteCountry");
+        return result;
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.leanstacks.ws.web.api;
+
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.service.GreetingService;
+
+/**
+ * <p>
+ * The AsyncGreetingController class is the asynchronous variant of the GreetingController RESTful web service
+ * controller. The controller is activated by the <code>async</code> profile and replaces the GreetingController.
+ * </p>
+ * <p>
+ * Each endpoint returns a DeferredResult. Read endpoints execute on the <code>readTaskExecutor</code> and write
+ * endpoints execute on the <code>writeTaskExecutor</code>. When an executor is saturated, the service returns HTTP
+ * status 503.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@RestController
+@Profile("async")
+public class AsyncGreetingController extends AbstractAsyncController {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AsyncGreetingController.class);
+
+    /**
+     * The GreetingService business service.
+     */
+    @Autowired
+    private transient GreetingService greetingService;
+
+    /**
+     * The executor for read requests.
+     */
+    @Autowired
+    @Qualifier("readTaskExecutor")
+    private transient AsyncTaskExecutor readTaskExecutor;
+
+    /**
+     * The executor for write requests.
+     */
+    @Autowired
+    @Qualifier("writeTaskExecutor")
+    private transient AsyncTaskExecutor writeTaskExecutor;
+
+    /**
+     * Web service endpoint to fetch all Greeting entities. The service returns the collection of Greeting entities as
+     * JSON.
+     * 
+     * @return A DeferredResult containing a ResponseEntity with a Collection of Greeting objects.
+     */
+    @RequestMapping(value = "/api/greetings",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Collection<Greeting>>> getGreetings() {
+        logger.info("> getGreetings");
+
+        final DeferredResult<ResponseEntity<Collection<Greeting>>> result = execute(readTaskExecutor,
+                () -> new ResponseEntity<Collection<Greeting>>(greetingService.findAll(), HttpStatus.OK));
+
+        logger.info("< getGreetings");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to fetch the Greeting entities of a language. The Greetings are found by the language index
+     * of the GreetingService and are returned as JSON.
+     * 
+     * @param language A String request parameter containing the language.
+     * @return A DeferredResult containing a ResponseEntity with a Collection of Greeting objects.
+     */
+    @RequestMapping(value = "/api/greetings",
+            method = RequestMethod.GET,
+            params = "language",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Collection<Greeting>>> getGreetingsByLanguage(
+            @RequestParam final String language) {
+        logger.info("> getGreetingsByLanguage");
+
+        final DeferredResult<ResponseEntity<Collection<Greeting>>> result = execute(readTaskExecutor,
+                () -> new ResponseEntity<Collection<Greeting>>(greetingService.findByLanguage(language),
+                        HttpStatus.OK));
+
+        logger.info("< getGreetingsByLanguage");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to fetch a single Greeting entity by primary key identifier. If found, the Greeting is
+     * returned as JSON with HTTP status 200. If not found, the service returns an empty response body with HTTP status
+     * 404.
+     * 
+     * @param id A Long URL path variable containing the Greeting primary key identifier.
+     * @return A DeferredResult containing a ResponseEntity with a single Greeting object, if found.
+     */
+    @RequestMapping(value = "/api/greetings/{id}",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Greeting>> getGreeting(@PathVariable final Long id) {
+        logger.info("> getGreeting");
+
+        final DeferredResult<ResponseEntity<Greeting>> result = execute(readTaskExecutor, () -> {
+            final Greeting greeting = greetingService.findOne(id);
+            if (greeting == null) {
+                return new ResponseEntity<Greeting>(HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<Greeting>(greeting, HttpStatus.OK);
+        });
+
+        logger.info("< getGreeting");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to create a single Greeting entity. If created successfully, the persisted Greeting is
+     * returned as JSON with HTTP status 201.
+     * 
+     * @param greeting The Greeting object to be created.
+     * @return A DeferredResult containing a ResponseEntity with a single Greeting object, if created successfully.
+     */
+    @RequestMapping(value = "/api/greetings",
+            method = RequestMethod.POST,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Greeting>> createGreeting(@RequestBody final Greeting greeting) {
+        logger.info("> createGreeting");
+
+        final DeferredResult<ResponseEntity<Greeting>> result = execute(writeTaskExecutor,
+                () -> new ResponseEntity<Greeting>(greetingService.create(greeting), HttpStatus.CREATED));
+
+        logger.info("< createGreeting");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to update a single Greeting entity. If updated successfully, the persisted Greeting is
+     * returned as JSON with HTTP status 200. If not found, the service returns HTTP status 404.
+     * 
+     * @param id A Long URL path variable containing the Greeting primary key identifier.
+     * @param greeting The Greeting object to be updated.
+     * @return A DeferredResult containing a ResponseEntity with a single Greeting object, if updated successfully.
+     */
+    @RequestMapping(value = "/api/greetings/{id}",
+            method = RequestMethod.PUT,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Greeting>> updateGreeting(@PathVariable("id") final Long id,
+            @RequestBody final Greeting greeting) {
+        logger.info("> updateGreeting");
+
+        greeting.setId(id);
+
+        final DeferredResult<ResponseEntity<Greeting>> result = execute(writeTaskExecutor,
+                () -> new ResponseEntity<Greeting>(greetingService.update(greeting), HttpStatus.OK));
+
+        logger.info("< updateGreeting");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to update a single Greeting entity with a single UPDATE statement. Attributes which are
+     * absent or <code>null</code> are left unchanged. If the version is absent, the service returns HTTP status 400.
+     * If updated successfully, the service returns HTTP status 204 and the new version in the <code>ETag</code>
+     * header. If not found, the service returns HTTP status 404. If the version does not match, the service returns
+     * HTTP status 409.
+     * 
+     * @param id A Long URL path variable containing the Greeting primary key identifier.
+     * @param greeting The Greeting object containing the version and new values.
+     * @return A DeferredResult containing a ResponseEntity with an empty response body.
+     */
+    @RequestMapping(value = "/api/greetings/{id}",
+            method = RequestMethod.PATCH,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Void>> patchGreeting(@PathVariable("id") final Long id,
+            @RequestBody final Greeting greeting) {
+        logger.info("> patchGreeting");
+
+        if (greeting.getVersion() == null) {
+            final DeferredResult<ResponseEntity<Void>> result = new DeferredResult<ResponseEntity<Void>>();
+            result.setResult(new ResponseEntity<Void>(HttpStatus.BAD_REQUEST));
+            logger.info("< patchGreeting");
+            return result;
+        }
+        greeting.setId(id);
+
+        final DeferredResult<ResponseEntity<Void>> result = execute(writeTaskExecutor, () -> {
+            final Integer version = greetingService.patch(greeting);
+            final HttpHeaders headers = new HttpHeaders();
+            headers.setETag("\"" + version + "\"");
+            return new ResponseEntity<Void>(headers, HttpStatus.NO_CONTENT);
+        });
+
+        logger.info("< patchGreeting");
+        return result;
+    }
+
+    /**
+     * Web service endpoint to delete a single Greeting entity. If deleted successfully, the service returns an empty
+     * response body with HTTP status 204.
+     * 
+     * @param id A Long URL path variable containing the Greeting primary key identifier.
+     * @return A DeferredResult containing a ResponseEntity with an empty response body.
+     */
+    @RequestMapping(value = "/api/greetings/{id}",
+            method = RequestMethod.DELETE)
+    public DeferredResult<ResponseEntity<Greeting>> deleteGreeting(@PathVariable("id") final Long id) {
+        logger.info("> deleteGreeting");
+
+        final DeferredResult<ResponseEntity<Greeting>> result = execute(writeTaskExecutor, () -> {
+            greetingService.delete(id);
+            return new ResponseEntity<Greeting>(HttpStatus.NO_CONTENT);
+        });
+
+        logger.info("< deleteGreeting");
+        return result;
+    }
+
+}
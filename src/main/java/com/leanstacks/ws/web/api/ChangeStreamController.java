@@ -0,0 +1,129 @@
+package com.leanstacks.ws.web.api;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.leanstacks.ws.model.ChangeEvent;
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.service.ChangeStreamService;
+import com.leanstacks.ws.service.ChangeStreamSubscriber;
+
+/**
+ * <p>
+ * The ChangeStreamController class is a RESTful web service controller which streams committed changes to Greeting and
+ * Country entities as Server-Sent Events.
+ * </p>
+ * <p>
+ * Each change is sent as a <code>message</code> event whose id is the change sequence and whose data is a JSON
+ * ChangeEvent. A client which reconnects with the <code>Last-Event-ID</code> header receives the changes it missed. If
+ * those changes are no longer buffered, a <code>reset</code> event is sent and the client should re-read the
+ * collection. A stream ends after <code>ws.changestream.timeout</code> milliseconds; clients are expected to reconnect.
+ * </p>
+ * 
+ * @author Matt Warman
+ */
+@RestController
+public class ChangeStreamController {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamController.class);
+
+    /**
+     * The name of the Server-Sent Event which instructs a client to re-read the collection.
+     */
+    private static final String EVENT_RESET = "reset";
+
+    /**
+     * The ChangeStreamService business service.
+     */
+    @Autowired
+    private transient ChangeStreamService changeStreamService;
+
+    /**
+     * The duration, in milliseconds, of a stream.
+     */
+    @Value("${ws.changestream.timeout:300000}")
+    private long timeout;
+
+    /**
+     * Web service endpoint to stream changes to Greeting entities.
+     * 
+     * @param lastEventId The id of the last event received by the client, if reconnecting.
+     * @return An SseEmitter.
+     */
+    @RequestMapping(value = "/api/greetings/stream",
+            method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGreetings(
+            @RequestHeader(value = "Last-Event-ID", required = false) final Long lastEventId) {
+        logger.info("> streamGreetings");
+
+        final SseEmitter emitter = subscribe(Greeting.class, lastEventId);
+
+        logger.info("< streamGreetings");
+        return emitter;
+    }
+
+    /**
+     * Web service endpoint to stream changes to Country entities.
+     * 
+     * @param lastEventId The id of the last event received by the client, if reconnecting.
+     * @return An SseEmitter.
+     */
+    @RequestMapping(value = "/api/countries/stream",
+            method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCountries(
+            @RequestHeader(value = "Last-Event-ID", required = false) final Long lastEventId) {
+        logger.info("> streamCountries");
+
+        final SseEmitter emitter = subscribe(Country.class, lastEventId);
+
+        logger.info("< streamCountries");
+        return emitter;
+    }
+
+    /**
+     * Create an SseEmitter subscribed to the changes of an entity type. The subscription ends when the emitter
+     * completes, times out or fails.
+     * 
+     * @param entityClass The entity class.
+     * @param lastEventId The id of the last event received by the client, or <code>null</code>.
+     * @return An SseEmitter.
+     */
+    private SseEmitter subscribe(final Class<?> entityClass, final Long lastEventId) {
+        final SseEmitter emitter = new SseEmitter(timeout);
+        final ChangeStreamSubscriber subscriber = new ChangeStreamSubscriber() {
+
+            @Override
+            public void onChange(final ChangeEvent event) throws IOException {
+                emitter.send(SseEmitter.event().id(String.valueOf(event.getSequence())).data(event,
+                        MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onReset() throws IOException {
+                emitter.send(SseEmitter.event().name(EVENT_RESET).data(entityClass.getSimpleName()));
+            }
+
+        };
+        emitter.onCompletion(() -> changeStreamService.unsubscribe(subscriber));
+        emitter.onTimeout(() -> changeStreamService.unsubscribe(subscriber));
+        changeStreamService.subscribe(entityClass, lastEventId, subscriber);
+        return emitter;
+    }
+
+}
@@ -5,6 +5,8 @@ import java.util.Collection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +26,7 @@ import com.leanstacks.ws.service.CountryService;
  * @author Matt Warman
  */
 @RestController
+@Profile("!async")
 public class CountryController {
 
     /**
@@ -142,6 +145,44 @@ public class CountryController {
         return new ResponseEntity<Country>(updatedCountry, HttpStatus.OK);
     }
 
+    /**
+     * <p>
+     * Web service endpoint to update a single Country entity with a single UPDATE statement. The HTTP request body is
+     * expected to contain a Country object in JSON format, including the <code>version</code> which was read by the
+     * client. Attributes which are absent or <code>null</code> are left unchanged.
+     * </p>
+     * <p>
+     * If the <code>version</code> is absent, the service returns HTTP status 400. If updated successfully, the service
+     * returns an empty response body with HTTP status 204 and the new version in the <code>ETag</code> header. If not
+     * found, the service returns HTTP status 404. If the version does not match the persisted version, the service
+     * returns HTTP status 409 and the current version in the <code>ETag</code> header.
+     * </p>
+     * 
+     * @param id A Long URL path variable containing the Country primary key identifier.
+     * @param country The Country object containing the version and new values.
+     * @return A ResponseEntity with an empty response body and a HTTP status code as described in the method comment.
+     */
+    @RequestMapping(value = "/api/countries/{id}",
+            method = RequestMethod.PATCH,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> patchCountry(@PathVariable("id") final Long id, @RequestBody final Country country) {
+        logger.info("> patchCountry");
+
+        if (country.getVersion() == null) {
+            logger.info("< patchCountry");
+            return new ResponseEntity<Void>(HttpStatus.BAD_REQUEST);
+        }
+        country.setId(id);
+
+        final Integer version = countryService.patch(country);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + version + "\"");
+
+        logger.info("< patchCountry");
+        return new ResponseEntity<Void>(headers, HttpStatus.NO_CONTENT);
+    }
+
     /**
      * <p>
      * Web service endpoint to delete a single Country entity. The HTTP request body is empty. The primary key
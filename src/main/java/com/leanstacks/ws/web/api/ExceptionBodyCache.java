@@ -0,0 +1,99 @@
+package com.leanstacks.ws.web.api;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * <p>
+ * The ExceptionBodyCache produces the JSON ExceptionDetail response body of expected client errors without building
+ * and serializing an ExceptionDetail per response.
+ * </p>
+ * <p>
+ * The constant part of the body, from the <code>status</code> attribute to the <code>exceptionClass</code> attribute,
+ * is serialized once per HTTP status and exception class, and cached. Exception messages often contain identifiers, so
+ * they are not part of the key. Each response prepends the <code>timestamp</code>, <code>method</code> and
+ * <code>path</code> attributes and appends the <code>exceptionMessage</code> attribute, so the body is identical to a
+ * serialized ExceptionDetail.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class ExceptionBodyCache {
+
+    /**
+     * The serialized constant body parts.
+     */
+    private final Cache<String, String> parts;
+
+    /**
+     * Construct an ExceptionBodyCache.
+     *
+     * @param maximumSize The maximum number of cached body parts.
+     */
+    public ExceptionBodyCache(final long maximumSize) {
+        this.parts = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the JSON ExceptionDetail body of an exception.
+     *
+     * @param status The HTTP status of the response.
+     * @param ex The Exception.
+     * @param request The HttpServletRequest.
+     * @return The UTF-8 encoded JSON body.
+     */
+    public byte[] body(final HttpStatus status, final Exception ex, final HttpServletRequest request) {
+        final String key = status.value() + " " + ex.getClass().getName();
+        final String part = parts.get(key, k -> part(status, ex));
+
+        final StringBuilder body = new StringBuilder(part.length() + 160);
+        body.append("{\"timestamp\":").append(System.currentTimeMillis());
+        body.append(",\"method\":");
+        quote(body, request.getMethod());
+        body.append(",\"path\":");
+        quote(body, request.getServletPath());
+        body.append(part);
+        quote(body, ex.getMessage());
+        body.append('}');
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serialize the attributes of an ExceptionDetail which are constant for an HTTP status and exception class.
+     *
+     * @param status The HTTP status of the response.
+     * @param ex The Exception.
+     * @return The JSON attributes, from a leading comma to the name of the <code>exceptionMessage</code> attribute.
+     */
+    private static String part(final HttpStatus status, final Exception ex) {
+        final StringBuilder part = new StringBuilder(128);
+        part.append(",\"status\":").append(status.value());
+        part.append(",\"statusText\":");
+        quote(part, status.getReasonPhrase());
+        part.append(",\"exceptionClass\":");
+        quote(part, ex.getClass().getName());
+        return part.append(",\"exceptionMessage\":").toString();
+    }
+
+    /**
+     * Append a JSON string value.
+     *
+     * @param json The JSON under construction.
+     * @param value The value, which may be <code>null</code>.
+     */
+    private static void quote(final StringBuilder json, final String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"').append(JsonStringEncoder.getInstance().quoteAsString(value)).append('"');
+    }
+
+}
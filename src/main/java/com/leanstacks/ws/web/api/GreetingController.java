@@ -4,6 +4,8 @@ import java.util.Collection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.leanstacks.ws.model.Greeting;
@@ -23,6 +26,7 @@ import com.leanstacks.ws.service.GreetingService;
  * @author Matt Warman
  */
 @RestController
+@Profile("!async")
 public class GreetingController {
 
     /**
@@ -54,6 +58,27 @@ public class GreetingController {
         return new ResponseEntity<Collection<Greeting>>(greetings, HttpStatus.OK);
     }
 
+    /**
+     * Web service endpoint to fetch the Greeting entities of a language. The Greetings are found by the language index
+     * of the GreetingService rather than a scan of all Greetings, and are returned as JSON. The collection is empty if
+     * none are found.
+     * 
+     * @param language A String request parameter containing the language.
+     * @return A ResponseEntity containing a Collection of Greeting objects.
+     */
+    @RequestMapping(value = "/api/greetings",
+            method = RequestMethod.GET,
+            params = "language",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Collection<Greeting>> getGreetingsByLanguage(@RequestParam final String language) {
+        logger.info("> getGreetingsByLanguage");
+
+        final Collection<Greeting> greetings = greetingService.findByLanguage(language);
+
+        logger.info("< getGreetingsByLanguage");
+        return new ResponseEntity<Collection<Greeting>>(greetings, HttpStatus.OK);
+    }
+
     /**
      * <p>
      * Web service endpoint to fetch a single Greeting entity by primary key identifier.
@@ -141,6 +166,44 @@ public class GreetingController {
         return new ResponseEntity<Greeting>(updatedGreeting, HttpStatus.OK);
     }
 
+    /**
+     * <p>
+     * Web service endpoint to update a single Greeting entity with a single UPDATE statement. The HTTP request body is
+     * expected to contain a Greeting object in JSON format, including the <code>version</code> which was read by the
+     * client. Attributes which are absent or <code>null</code> are left unchanged.
+     * </p>
+     * <p>
+     * If the <code>version</code> is absent, the service returns HTTP status 400. If updated successfully, the service
+     * returns an empty response body with HTTP status 204 and the new version in the <code>ETag</code> header. If not
+     * found, the service returns HTTP status 404. If the version does not match the persisted version, the service
+     * returns HTTP status 409 and the current version in the <code>ETag</code> header.
+     * </p>
+     * 
+     * @param id A Long URL path variable containing the Greeting primary key identifier.
+     * @param greeting The Greeting object containing the version and new values.
+     * @return A ResponseEntity with an empty response body and a HTTP status code as described in the method comment.
+     */
+    @RequestMapping(value = "/api/greetings/{id}",
+            method = RequestMethod.PATCH,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> patchGreeting(@PathVariable("id") final Long id, @RequestBody final Greeting greeting) {
+        logger.info("> patchGreeting");
+
+        if (greeting.getVersion() == null) {
+            logger.info("< patchGreeting");
+            return new ResponseEntity<Void>(HttpStatus.BAD_REQUEST);
+        }
+        greeting.setId(id);
+
+        final Integer version = greetingService.patch(greeting);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + version + "\"");
+
+        logger.info("< patchGreeting");
+        return new ResponseEntity<Void>(headers, HttpStatus.NO_CONTENT);
+    }
+
     /**
      * <p>
      * Web service endpoint to delete a single Greeting entity. The HTTP request body is empty. The primary key
@@ -1,28 +1,78 @@
 package com.leanstacks.ws.web.api;
 
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityExistsException;
 import javax.persistence.NoResultException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.leanstacks.ws.service.VersionConflictException;
+import com.leanstacks.ws.util.LogSampler;
+import com.leanstacks.ws.web.interceptor.ConcurrencyLimitExceededException;
+import com.leanstacks.ws.web.interceptor.RateLimitExceededException;
+
 /**
+ * <p>
  * A <code>@ControllerAdvice</code> class which provides exception handling to all REST controllers.
+ * </p>
+ * <p>
+ * Expected exceptions, i.e. those answered with a 404, 409, 429 or 503 status, are cheap to handle: their bodies are
+ * produced by an ExceptionBodyCache and they are logged without a stack trace, at most once per
+ * <code>ws.error.log.interval</code> milliseconds per exception class. Unexpected exceptions are logged with a stack
+ * trace, sampled in the same way.
+ * </p>
  * 
  * @author Matt Warman
  */
 @ControllerAdvice
-public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
+public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler implements InitializingBean {
 
     private static final Logger logger = LoggerFactory.getLogger(RestResponseEntityExceptionHandler.class);
 
+    /**
+     * The minimum time between logged exceptions of a class, in milliseconds.
+     */
+    @Value("${ws.error.log.interval:1000}")
+    private long logInterval;
+
+    /**
+     * The maximum number of cached exception response bodies.
+     */
+    @Value("${ws.error.body-cache.maximum-size:1000}")
+    private long bodyCacheMaximumSize;
+
+    /**
+     * Samples the logged exceptions.
+     */
+    private transient LogSampler logSampler;
+
+    /**
+     * Produces the response bodies of expected exceptions.
+     */
+    private transient ExceptionBodyCache bodyCache;
+
+    @Override
+    public void afterPropertiesSet() {
+        logSampler = new LogSampler(TimeUnit.MILLISECONDS.toNanos(logInterval), System::nanoTime);
+        bodyCache = new ExceptionBodyCache(bodyCacheMaximumSize);
+    }
+
     /**
      * Handles JPA NoResultExceptions thrown from web service controller methods. Creates a response with an empty body
      * and HTTP status code 404, not found.
@@ -33,11 +83,9 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     @ExceptionHandler(NoResultException.class)
     public ResponseEntity<Object> handleNoResultException(final NoResultException ex, final WebRequest request) {
         logger.info("> handleNoResultException");
-        logger.info("- NoResultException: ", ex);
-        final ExceptionDetail detail = new ExceptionDetailBuilder().exception(ex).httpStatus(HttpStatus.NOT_FOUND)
-                .webRequest(request).build();
+        logExpected(ex);
         logger.info("< handleNoResultException");
-        return handleExceptionInternal(ex, detail, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
+        return cachedResponse(ex, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
     }
 
     /**
@@ -51,11 +99,122 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     public ResponseEntity<Object> handleEmptyResultDataAccessException(final EmptyResultDataAccessException ex,
             final WebRequest request) {
         logger.info("> handleEmptyResultDataAccessException");
-        logger.warn("- EmptyResultDataAccessException: ", ex);
-        final ExceptionDetail detail = new ExceptionDetailBuilder().exception(ex).httpStatus(HttpStatus.NOT_FOUND)
-                .webRequest(request).build();
+        logExpected(ex);
         logger.info("< handleEmptyResultDataAccessException");
-        return handleExceptionInternal(ex, detail, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
+        return cachedResponse(ex, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
+    }
+
+    /**
+     * Handles JPA EntityExistsExceptions thrown from web service controller methods, e.g. when a request to create an
+     * entity supplies an identifier. Creates a response with the Exception detail in the response body and HTTP status
+     * code 409, conflict.
+     * 
+     * @param ex An EntityExistsException instance.
+     * @return A ResponseEntity containing the Exception attributes in the response body and HTTP status code 409.
+     */
+    @ExceptionHandler(EntityExistsException.class)
+    public ResponseEntity<Object> handleEntityExistsException(final EntityExistsException ex,
+            final WebRequest request) {
+        logger.info("> handleEntityExistsException");
+        logExpected(ex);
+        logger.info("< handleEntityExistsException");
+        return cachedResponse(ex, new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+
+    /**
+     * Handles VersionConflictExceptions thrown from web service controller methods when an update could not be applied
+     * because the entity was modified concurrently. Creates a response with the Exception detail in the response body
+     * and HTTP status code 409, conflict. When known, the current entity version is returned in the <code>ETag</code>
+     * header so that the client may re-read the entity and retry the update.
+     * 
+     * @param ex A VersionConflictException instance.
+     * @return A ResponseEntity containing the Exception attributes in the response body and HTTP status code 409.
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflictException(final VersionConflictException ex,
+            final WebRequest request) {
+        logger.info("> handleVersionConflictException");
+        logExpected(ex);
+        final HttpHeaders headers = new HttpHeaders();
+        if (ex.getCurrentVersion() != null) {
+            headers.setETag("\"" + ex.getCurrentVersion() + "\"");
+        }
+        logger.info("< handleVersionConflictException");
+        return cachedResponse(ex, headers, HttpStatus.CONFLICT, request);
+    }
+
+    /**
+     * Handles OptimisticLockingFailureExceptions thrown from web service controller methods. Creates a response with
+     * the Exception detail in the response body and HTTP status code 409, conflict.
+     * 
+     * @param ex An OptimisticLockingFailureException instance.
+     * @return A ResponseEntity containing the Exception attributes in the response body and HTTP status code 409.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(final OptimisticLockingFailureException ex,
+            final WebRequest request) {
+        logger.info("> handleOptimisticLockingFailureException");
+        logExpected(ex);
+        logger.info("< handleOptimisticLockingFailureException");
+        return cachedResponse(ex, new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+
+    /**
+     * Handles TaskRejectedExceptions thrown from web service controller methods when the executor for the request's
+     * workload class is saturated. Creates a response with the Exception detail in the response body, a
+     * <code>Retry-After</code> header, and HTTP status code 503, service unavailable.
+     * 
+     * @param ex A TaskRejectedException instance.
+     * @return A ResponseEntity containing the Exception attributes in the response body and HTTP status code 503.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Object> handleTaskRejectedException(final TaskRejectedException ex,
+            final WebRequest request) {
+        logger.info("> handleTaskRejectedException");
+        logExpected(ex);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        logger.info("< handleTaskRejectedException");
+        return cachedResponse(ex, headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
+    /**
+     * Handles ConcurrencyLimitExceededExceptions thrown when a request is rejected by a concurrency limit. Creates a
+     * response with the Exception detail in the response body, a <code>Retry-After</code> header, and HTTP status code
+     * 429, too many requests, or 503, service unavailable.
+     * 
+     * @param ex A ConcurrencyLimitExceededException instance.
+     * @return A ResponseEntity containing the Exception attributes in the response body and the HTTP status code of
+     *         the Exception.
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<Object> handleConcurrencyLimitExceededException(final ConcurrencyLimitExceededException ex,
+            final WebRequest request) {
+        logger.info("> handleConcurrencyLimitExceededException");
+        logExpected(ex);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        logger.info("< handleConcurrencyLimitExceededException");
+        return cachedResponse(ex, headers, ex.getHttpStatus(), request);
+    }
+
+    /**
+     * Handles RateLimitExceededExceptions thrown when a request is rejected by the caller's rate limit. Creates a
+     * response with the Exception detail in the response body, a <code>Retry-After</code> header, and HTTP status code
+     * 429, too many requests.
+     * 
+     * @param ex A RateLimitExceededException instance.
+     * @return A ResponseEntity containing the Exception attributes in the response body and HTTP status code 429.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Object> handleRateLimitExceededException(final RateLimitExceededException ex,
+            final WebRequest request) {
+        logger.info("> handleRateLimitExceededException");
+        logExpected(ex);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        logger.info("< handleRateLimitExceededException");
+        return cachedResponse(ex, headers, HttpStatus.TOO_MANY_REQUESTS, request);
     }
 
     /**
@@ -68,11 +227,47 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGenericException(final Exception ex, final WebRequest request) {
         logger.info("> handleException");
-        logger.error("- Exception: ", ex);
+        final long suppressed = logSampler.sample(ex.getClass().getName());
+        if (suppressed != LogSampler.SUPPRESSED) {
+            logger.error("- Exception ({} suppressed): ", suppressed, ex);
+        }
         final ExceptionDetail detail = new ExceptionDetailBuilder().exception(ex)
                 .httpStatus(HttpStatus.INTERNAL_SERVER_ERROR).webRequest(request).build();
         logger.info("< handleException");
         return handleExceptionInternal(ex, detail, new HttpHeaders(), HttpStatus.INTERNAL_SERVER_ERROR, request);
     }
 
+    /**
+     * Log an expected Exception without its stack trace, at most once per interval per Exception class.
+     * 
+     * @param ex An Exception instance.
+     */
+    private void logExpected(final Exception ex) {
+        final long suppressed = logSampler.sample(ex.getClass().getName());
+        if (suppressed != LogSampler.SUPPRESSED) {
+            logger.warn("- {}: {} ({} suppressed)", ex.getClass().getSimpleName(), ex.getMessage(), suppressed);
+        }
+    }
+
+    /**
+     * Create a response whose body is the JSON Exception detail produced by the ExceptionBodyCache.
+     * 
+     * @param ex An Exception instance.
+     * @param headers The response headers.
+     * @param status The HTTP status code.
+     * @param request The WebRequest.
+     * @return A ResponseEntity containing the Exception attributes in the response body.
+     */
+    private ResponseEntity<Object> cachedResponse(final Exception ex, final HttpHeaders headers,
+            final HttpStatus status, final WebRequest request) {
+        if (!(request instanceof ServletWebRequest)) {
+            final ExceptionDetail detail = new ExceptionDetailBuilder().exception(ex).httpStatus(status)
+                    .webRequest(request).build();
+            return handleExceptionInternal(ex, detail, headers, status, request);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+        final byte[] body = bodyCache.body(status, ex, ((ServletWebRequest) request).getRequest());
+        return new ResponseEntity<Object>(body, headers, status);
+    }
+
 }
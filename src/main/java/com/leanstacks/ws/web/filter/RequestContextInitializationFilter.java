@@ -1,11 +1,14 @@
 package com.leanstacks.ws.web.filter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,7 +21,9 @@ import com.leanstacks.ws.util.RequestContext;
 
 /**
  * The RequestContextInitializationFilter is executed for every web request. The filter initializes the RequestContext
- * for the current thread, preventing leaking of RequestContext attributes from the previous thread's execution.
+ * for the current thread, preventing leaking of RequestContext attributes from the previous thread's execution. The
+ * request identifier is taken from the <code>X-Request-ID</code> request header, or generated when absent, and is
+ * returned in the <code>X-Request-ID</code> response header.
  * 
  * @author Matt Warman
  */
@@ -31,12 +36,25 @@ public class RequestContextInitializationFilter extends GenericFilterBean {
      */
     private static final Logger logger = LoggerFactory.getLogger(RequestContextInitializationFilter.class);
 
+    /**
+     * The request and response header containing the request identifier.
+     */
+    public static final String HEADER_REQUEST_ID = "X-Request-ID";
+
     @Override
     public void doFilter(final ServletRequest req, final ServletResponse resp, final FilterChain chain)
             throws IOException, ServletException {
         logger.info("> doFilter");
 
         RequestContext.init();
+        RequestContext.setStartTime(System.currentTimeMillis());
+
+        String requestId = ((HttpServletRequest) req).getHeader(HEADER_REQUEST_ID);
+        if (requestId == null || requestId.isEmpty()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        RequestContext.setRequestId(requestId);
+        ((HttpServletResponse) resp).setHeader(HEADER_REQUEST_ID, requestId);
 
         chain.doFilter(req, resp);
         logger.info("< doFilter");
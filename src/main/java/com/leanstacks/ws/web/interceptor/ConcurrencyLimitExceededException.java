@@ -0,0 +1,51 @@
+package com.leanstacks.ws.web.interceptor;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A ConcurrencyLimitExceededException is thrown when a request is rejected because a concurrency limit has been
+ * reached. The HTTP status indicates which limit was reached: 429 for the caller's limit and 503 for the resource's
+ * limit.
+ *
+ * @author Matt Warman
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    /**
+     * The default serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The HTTP status of the rejection.
+     */
+    private final HttpStatus httpStatus;
+
+    /**
+     * The number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Construct a ConcurrencyLimitExceededException.
+     *
+     * @param message A String message.
+     * @param httpStatus The HTTP status of the rejection.
+     * @param retryAfterSeconds The number of seconds after which the client may retry.
+     */
+    public ConcurrencyLimitExceededException(final String message, final HttpStatus httpStatus,
+            final long retryAfterSeconds) {
+        super(message);
+        this.httpStatus = httpStatus;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
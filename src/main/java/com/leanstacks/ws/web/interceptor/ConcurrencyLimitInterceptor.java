@@ -0,0 +1,238 @@
+package com.leanstacks.ws.web.interceptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.leanstacks.ws.util.AimdConcurrencyLimiter;
+import com.leanstacks.ws.util.RequestContext;
+
+/**
+ * <p>
+ * The ConcurrencyLimitInterceptor limits the number of concurrently executing requests for each API route and for each
+ * caller. Each limit is an {@link AimdConcurrencyLimiter} which adapts to the observed latency of the requests.
+ * </p>
+ * <p>
+ * A request which exceeds the caller's limit is rejected with HTTP status 429. A request which exceeds the route's
+ * limit is rejected with HTTP status 503. Both include a <code>Retry-After</code> header. Rejections are fast, so an
+ * overloaded resource sheds load instead of queueing requests until they time out.
+ * </p>
+ * <p>
+ * Permits are held until the request completes, including the asynchronous dispatch of asynchronous requests.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class ConcurrencyLimitInterceptor extends HandlerInterceptorAdapter {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitInterceptor.class);
+
+    /**
+     * The request attribute holding the Permit of the current request.
+     */
+    private static final String ATTRIBUTE_PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    /**
+     * The number of seconds after which a rejected client may retry.
+     */
+    private static final long RETRY_AFTER_SECONDS = 1L;
+
+    /**
+     * The route limiters keyed by HTTP method and request mapping pattern.
+     */
+    private final ConcurrentMap<String, AimdConcurrencyLimiter> routeLimiters =
+            new ConcurrentHashMap<String, AimdConcurrencyLimiter>();
+
+    /**
+     * The caller limiters keyed by username. Idle callers are evicted.
+     */
+    private final Cache<String, AimdConcurrencyLimiter> userLimiters = Caffeine.newBuilder().maximumSize(10000)
+            .expireAfterAccess(10, TimeUnit.MINUTES).build();
+
+    /**
+     * The configuration of route limiters.
+     */
+    private final LimitProperties routeProperties;
+
+    /**
+     * The configuration of caller limiters.
+     */
+    private final LimitProperties userProperties;
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator. May be <code>null</code>.
+     */
+    private final CounterService counterService;
+
+    /**
+     * Construct a ConcurrencyLimitInterceptor.
+     *
+     * @param routeProperties The configuration of route limiters.
+     * @param userProperties The configuration of caller limiters.
+     * @param counterService A CounterService used to record rejections, or <code>null</code>.
+     */
+    public ConcurrencyLimitInterceptor(final LimitProperties routeProperties, final LimitProperties userProperties,
+            final CounterService counterService) {
+        super();
+        this.routeProperties = routeProperties;
+        this.userProperties = userProperties;
+        this.counterService = counterService;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response,
+            final Object handler) throws Exception {
+        if (request.getAttribute(ATTRIBUTE_PERMIT) != null) {
+            // asynchronous dispatch of a request which already holds a permit
+            return true;
+        }
+
+        final String username = getUsername(request);
+        final AimdConcurrencyLimiter userLimiter = userLimiters.get(username, key -> userProperties.createLimiter());
+        if (!userLimiter.tryAcquire()) {
+            logger.warn("Rejected request for user {}. Limit:{}", username, userLimiter.getLimit());
+            increment("concurrency.rejected.user");
+            throw new ConcurrencyLimitExceededException("Too many concurrent requests.", HttpStatus.TOO_MANY_REQUESTS,
+                    RETRY_AFTER_SECONDS);
+        }
+
+        final String route = request.getMethod() + " "
+                + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final AimdConcurrencyLimiter routeLimiter = routeLimiters.computeIfAbsent(route,
+                key -> routeProperties.createLimiter());
+        if (!routeLimiter.tryAcquire()) {
+            userLimiter.release();
+            logger.warn("Rejected request for route {}. Limit:{}", route, routeLimiter.getLimit());
+            increment("concurrency.rejected.route");
+            throw new ConcurrencyLimitExceededException("The service is overloaded.", HttpStatus.SERVICE_UNAVAILABLE,
+                    RETRY_AFTER_SECONDS);
+        }
+
+        request.setAttribute(ATTRIBUTE_PERMIT, new Permit(userLimiter, routeLimiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+            final Object handler, final Exception ex) throws Exception {
+        final Permit permit = (Permit) request.getAttribute(ATTRIBUTE_PERMIT);
+        if (permit == null) {
+            return;
+        }
+        request.removeAttribute(ATTRIBUTE_PERMIT);
+
+        final long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - permit.startNanos);
+        final boolean failed = ex != null || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        permit.routeLimiter.release(latencyMillis, failed);
+        permit.userLimiter.release(latencyMillis, failed);
+    }
+
+    /**
+     * Determine the caller of the request. Uses the RequestContext username established by authentication, then the
+     * Servlet remote user, then the client address.
+     *
+     * @param request The HttpServletRequest.
+     * @return A String caller key.
+     */
+    private String getUsername(final HttpServletRequest request) {
+        String username = RequestContext.getUsername();
+        if (username == null) {
+            username = request.getRemoteUser();
+        }
+        if (username == null) {
+            username = request.getRemoteAddr();
+        }
+        return username;
+    }
+
+    /**
+     * Increment the named counter metric, if a CounterService is available.
+     *
+     * @param metricName The counter name.
+     */
+    private void increment(final String metricName) {
+        if (counterService != null) {
+            counterService.increment(metricName);
+        }
+    }
+
+    /**
+     * The permits held by a request.
+     */
+    private static final class Permit {
+
+        private final AimdConcurrencyLimiter userLimiter;
+
+        private final AimdConcurrencyLimiter routeLimiter;
+
+        private final long startNanos;
+
+        private Permit(final AimdConcurrencyLimiter userLimiter, final AimdConcurrencyLimiter routeLimiter,
+                final long startNanos) {
+            this.userLimiter = userLimiter;
+            this.routeLimiter = routeLimiter;
+            this.startNanos = startNanos;
+        }
+
+    }
+
+    /**
+     * The configuration of a class of AimdConcurrencyLimiter.
+     */
+    public static class LimitProperties {
+
+        private final int initialLimit;
+
+        private final int minLimit;
+
+        private final int maxLimit;
+
+        private final double backoffRatio;
+
+        private final long latencyThresholdMillis;
+
+        /**
+         * Construct a LimitProperties.
+         *
+         * @param initialLimit The initial limit.
+         * @param minLimit The minimum limit.
+         * @param maxLimit The maximum limit.
+         * @param backoffRatio The ratio applied to the limit when requests are slow or fail.
+         * @param latencyThresholdMillis The latency, in milliseconds, above which a request is considered slow.
+         */
+        public LimitProperties(final int initialLimit, final int minLimit, final int maxLimit,
+                final double backoffRatio, final long latencyThresholdMillis) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.backoffRatio = backoffRatio;
+            this.latencyThresholdMillis = latencyThresholdMillis;
+        }
+
+        /**
+         * Create an AimdConcurrencyLimiter using this configuration.
+         *
+         * @return An AimdConcurrencyLimiter.
+         */
+        public AimdConcurrencyLimiter createLimiter() {
+            return new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis);
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.leanstacks.ws.web.interceptor;
+
+/**
+ * A RateLimitExceededException is thrown when a request is rejected because the caller's rate limit has been
+ * exhausted.
+ *
+ * @author Matt Warman
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * The default serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Construct a RateLimitExceededException.
+     *
+     * @param message A String message.
+     * @param retryAfterSeconds The number of seconds after which the client may retry.
+     */
+    public RateLimitExceededException(final String message, final long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
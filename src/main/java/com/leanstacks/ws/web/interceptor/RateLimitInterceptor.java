@@ -0,0 +1,152 @@
+package com.leanstacks.ws.web.interceptor;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.leanstacks.ws.util.TokenBucket;
+
+/**
+ * <p>
+ * The RateLimitInterceptor applies a token bucket rate limit to each authenticated account. The limit of an account is
+ * determined by its Roles, as configured by {@link RateLimitProperties}.
+ * </p>
+ * <p>
+ * Every response carries the <code>X-RateLimit-Limit</code>, <code>X-RateLimit-Remaining</code> and
+ * <code>X-RateLimit-Reset</code> (seconds until the bucket is full) headers. A request made when the bucket is empty
+ * is rejected with HTTP status 429 and a <code>Retry-After</code> header.
+ * </p>
+ * <p>
+ * Buckets of idle accounts are evicted, bounding memory use. A change to an account's Roles takes effect once its
+ * bucket has been evicted.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+public class RateLimitInterceptor extends HandlerInterceptorAdapter {
+
+    /**
+     * The Logger for this Class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    /**
+     * The response header containing the bucket capacity.
+     */
+    public static final String HEADER_LIMIT = "X-RateLimit-Limit";
+
+    /**
+     * The response header containing the number of remaining tokens.
+     */
+    public static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+
+    /**
+     * The response header containing the number of seconds until the bucket is full.
+     */
+    public static final String HEADER_RESET = "X-RateLimit-Reset";
+
+    /**
+     * The token buckets keyed by username. Idle accounts are evicted.
+     */
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder().maximumSize(10000)
+            .expireAfterAccess(10, TimeUnit.MINUTES).build();
+
+    /**
+     * The rate limit configuration.
+     */
+    private final RateLimitProperties properties;
+
+    /**
+     * The <code>CounterService</code> captures metrics for Spring Actuator. May be <code>null</code>.
+     */
+    private final CounterService counterService;
+
+    /**
+     * Construct a RateLimitInterceptor.
+     *
+     * @param properties The rate limit configuration.
+     * @param counterService A CounterService used to record rejections, or <code>null</code>.
+     */
+    public RateLimitInterceptor(final RateLimitProperties properties, final CounterService counterService) {
+        super();
+        this.properties = properties;
+        this.counterService = counterService;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response,
+            final Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // the request was metered on its initial dispatch
+            return true;
+        }
+
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return true;
+        }
+
+        final TokenBucket bucket = buckets.get(authentication.getName(),
+                key -> createBucket(authentication.getAuthorities()));
+        final TokenBucket.Probe probe = bucket.tryConsume();
+
+        response.setHeader(HEADER_LIMIT, String.valueOf(bucket.getCapacity()));
+        response.setHeader(HEADER_REMAINING, String.valueOf(probe.getRemaining()));
+        response.setHeader(HEADER_RESET, String.valueOf(toSeconds(probe.getNanosToReset())));
+
+        if (!probe.isConsumed()) {
+            logger.warn("Rate limit exceeded for user {}.", authentication.getName());
+            if (counterService != null) {
+                counterService.increment("ratelimit.rejected");
+            }
+            throw new RateLimitExceededException("Rate limit exceeded.", toSeconds(probe.getNanosToWait()));
+        }
+        return true;
+    }
+
+    /**
+     * Create a TokenBucket with the most generous limit of the supplied authorities.
+     *
+     * @param authorities The authorities of the account.
+     * @return A TokenBucket.
+     */
+    private TokenBucket createBucket(final Collection<? extends GrantedAuthority> authorities) {
+        RateLimitProperties.Limit limit = null;
+        for (final GrantedAuthority authority : authorities) {
+            final RateLimitProperties.Limit roleLimit = properties.getRoles().get(authority.getAuthority());
+            if (roleLimit != null && (limit == null || roleLimit.getRefillPerSecond() > limit.getRefillPerSecond())) {
+                limit = roleLimit;
+            }
+        }
+        if (limit == null) {
+            limit = properties.getDefault();
+        }
+        return new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond());
+    }
+
+    /**
+     * Convert nanoseconds to whole seconds, rounding up.
+     *
+     * @param nanos A duration in nanoseconds.
+     * @return A duration in seconds.
+     */
+    private static long toSeconds(final long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+}
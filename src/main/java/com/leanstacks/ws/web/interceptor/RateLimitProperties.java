@@ -0,0 +1,96 @@
+package com.leanstacks.ws.web.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * <p>
+ * The RateLimitProperties class holds the configuration of the per-account rate limits, bound from the
+ * <code>ws.ratelimit.*</code> properties.
+ * </p>
+ * <p>
+ * Limits are configured per Role code, e.g. <code>ws.ratelimit.roles.ROLE_USER.capacity</code>. An account with
+ * several Roles receives the most generous limit of its Roles. An account with no configured Role receives the
+ * <code>ws.ratelimit.default.*</code> limit.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@ConfigurationProperties(prefix = "ws.ratelimit")
+public class RateLimitProperties {
+
+    /**
+     * Indicates if rate limiting is enabled.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The limit applied to accounts with no configured Role.
+     */
+    private Limit defaultLimit = new Limit();
+
+    /**
+     * The limits keyed by Role code.
+     */
+    private Map<String, Limit> roles = new HashMap<String, Limit>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getDefault() {
+        return defaultLimit;
+    }
+
+    public void setDefault(final Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public Map<String, Limit> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(final Map<String, Limit> roles) {
+        this.roles = roles;
+    }
+
+    /**
+     * A token bucket rate limit.
+     */
+    public static class Limit {
+
+        /**
+         * The maximum number of requests which may be made in a burst.
+         */
+        private long capacity = 50;
+
+        /**
+         * The sustained number of requests per second.
+         */
+        private double refillPerSecond = 10;
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(final long capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(final double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+    }
+
+}
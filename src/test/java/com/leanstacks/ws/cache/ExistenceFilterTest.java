@@ -0,0 +1,62 @@
+package com.leanstacks.ws.cache;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the ExistenceFilter.
+ *
+ * @author Matt Warman
+ */
+public class ExistenceFilterTest extends AbstractTest {
+
+    private transient ExistenceFilter filter;
+
+    @Override
+    public void doBeforeEachTest() {
+        filter = new ExistenceFilter(1000, 0.001);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testFilterAdmitsAllUntilBuilt() {
+
+        Assert.assertTrue("failure - expected unbuilt filter to admit", filter.mightExist(42L));
+
+    }
+
+    @Test
+    public void testFilterRejectsIdsWhichNeverExisted() {
+
+        filter.beginRebuild();
+        filter.completeRebuild(Arrays.asList(1L, 2L, 3L));
+
+        Assert.assertTrue("failure - expected existing id admitted", filter.mightExist(2L));
+        Assert.assertFalse("failure - expected unknown id rejected", filter.mightExist(1000000L));
+
+        filter.add(1000000L);
+
+        Assert.assertTrue("failure - expected created id admitted", filter.mightExist(1000000L));
+
+    }
+
+    @Test
+    public void testFilterKeepsIdsAddedDuringRebuild() {
+
+        filter.beginRebuild();
+        filter.add(99L);
+        filter.completeRebuild(Arrays.asList(1L));
+
+        Assert.assertTrue("failure - expected id added during rebuild admitted", filter.mightExist(99L));
+
+    }
+
+}
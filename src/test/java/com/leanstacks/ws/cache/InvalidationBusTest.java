@@ -0,0 +1,289 @@
+package com.leanstacks.ws.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the InvalidationBus implementations.
+ *
+ * @author Matt Warman
+ */
+public class InvalidationBusTest extends AbstractTest {
+
+    private static final String ENTITY_NAME = "Greeting";
+
+    private static final String SECRET = "secret";
+
+    /**
+     * A peer list which admits connections from the local host. The port is not contacted, since the buses which
+     * receive in these tests do not publish.
+     */
+    private static final List<InetSocketAddress> LOCAL_PEER = Collections
+            .singletonList(InetSocketAddress.createUnresolved("localhost", 1));
+
+    private final transient List<PeerInvalidationBus> peerBuses = new ArrayList<PeerInvalidationBus>();
+
+    @Override
+    public void doBeforeEachTest() {
+        // perform test initialization
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        for (final PeerInvalidationBus peerBus : peerBuses) {
+            peerBus.stop();
+        }
+    }
+
+    @Test
+    public void testEncodeDecode() {
+
+        final Invalidation invalidation = Invalidation.decode(new Invalidation("node1", ENTITY_NAME, 1L).encode());
+        final Invalidation regionInvalidation = Invalidation.decode(new Invalidation("node1", ENTITY_NAME, null)
+                .encode());
+
+        Assert.assertEquals("failure - expected origin", "node1", invalidation.getOrigin());
+        Assert.assertEquals("failure - expected entity name", ENTITY_NAME, invalidation.getEntityName());
+        Assert.assertEquals("failure - expected id", Long.valueOf(1L), invalidation.getId());
+        Assert.assertNull("failure - expected null id", regionInvalidation.getId());
+        Assert.assertNull("failure - expected malformed message rejected", Invalidation.decode("node1\tGreeting\tx"));
+
+    }
+
+    @Test
+    public void testLocalBusDeliversToOtherNodes() {
+
+        final List<LocalInvalidationBus> group = new CopyOnWriteArrayList<LocalInvalidationBus>();
+        final LocalInvalidationBus busA = new LocalInvalidationBus("nodeA", group);
+        final LocalInvalidationBus busB = new LocalInvalidationBus("nodeB", group);
+        final List<Invalidation> receivedA = new ArrayList<Invalidation>();
+        final List<Invalidation> receivedB = new ArrayList<Invalidation>();
+        busA.subscribe(receivedA::add);
+        busB.subscribe(receivedB::add);
+
+        busA.publish(new Invalidation(busA.getNodeId(), ENTITY_NAME, 1L));
+
+        Assert.assertTrue("failure - expected no local delivery", receivedA.isEmpty());
+        Assert.assertEquals("failure - expected delivery to other node", 1, receivedB.size());
+        Assert.assertEquals("failure - expected id", Long.valueOf(1L), receivedB.get(0).getId());
+
+    }
+
+    @Test
+    public void testPeerBusDeliversToPeer() throws Exception {
+
+        final PeerInvalidationBus busB = peerBus("nodeB", SECRET, LOCAL_PEER, 16);
+        final BlockingQueue<Invalidation> receivedB = new LinkedBlockingQueue<Invalidation>();
+        busB.subscribe(receivedB::add);
+
+        final PeerInvalidationBus busA = new PeerInvalidationBus("nodeA", SECRET, null, 0,
+                Collections.singletonList(InetSocketAddress.createUnresolved("localhost", busB.getLocalPort())), 16,
+                1000, 1000);
+        peerBuses.add(busA);
+        busA.start();
+
+        busA.publish(new Invalidation(busA.getNodeId(), ENTITY_NAME, 2L));
+
+        final Invalidation invalidation = receivedB.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull("failure - expected delivery to peer", invalidation);
+        Assert.assertEquals("failure - expected origin", "nodeA", invalidation.getOrigin());
+        Assert.assertEquals("failure - expected id", Long.valueOf(2L), invalidation.getId());
+
+    }
+
+    @Test
+    public void testPeerBusIsNotDelayedByUnresponsivePeer() throws Exception {
+
+        // a peer whose accept queue is full does not complete connections, so connecting blocks until the timeout
+        final List<Socket> backlog = new ArrayList<Socket>();
+        try (ServerSocket unresponsive = new ServerSocket(0, 1)) {
+            for (int i = 0; i < 3; i++) {
+                final Socket socket = new Socket();
+                try {
+                    socket.connect(new InetSocketAddress("localhost", unresponsive.getLocalPort()), 200);
+                } catch (IOException ex) {
+                    // the accept queue is full
+                }
+                backlog.add(socket);
+            }
+
+            final PeerInvalidationBus busB = peerBus("nodeB", SECRET, LOCAL_PEER, 16);
+            final BlockingQueue<Invalidation> receivedB = new LinkedBlockingQueue<Invalidation>();
+            busB.subscribe(receivedB::add);
+
+            final PeerInvalidationBus busA = new PeerInvalidationBus("nodeA", SECRET, null, 0,
+                    Arrays.asList(InetSocketAddress.createUnresolved("localhost", unresponsive.getLocalPort()),
+                            InetSocketAddress.createUnresolved("localhost", busB.getLocalPort())),
+                    16, 5000, 1000);
+            peerBuses.add(busA);
+            busA.start();
+
+            busA.publish(new Invalidation(busA.getNodeId(), ENTITY_NAME, 3L));
+
+            final Invalidation invalidation = receivedB.poll(2, TimeUnit.SECONDS);
+            Assert.assertNotNull("failure - expected delivery to responsive peer", invalidation);
+            Assert.assertEquals("failure - expected id", Long.valueOf(3L), invalidation.getId());
+        } finally {
+            for (final Socket socket : backlog) {
+                socket.close();
+            }
+        }
+
+    }
+
+    @Test
+    public void testPeerBusIgnoresUnauthenticatedMessages() throws Exception {
+
+        final PeerInvalidationBus busB = peerBus("nodeB", SECRET, LOCAL_PEER, 16);
+        final BlockingQueue<Invalidation> receivedB = new LinkedBlockingQueue<Invalidation>();
+        busB.subscribe(receivedB::add);
+
+        final PeerInvalidationBus busA = new PeerInvalidationBus("nodeA", "other secret", null, 0,
+                Collections.singletonList(InetSocketAddress.createUnresolved("localhost", busB.getLocalPort())), 16,
+                1000, 1000);
+        peerBuses.add(busA);
+        busA.start();
+        busA.publish(new Invalidation(busA.getNodeId(), ENTITY_NAME, 4L));
+
+        try (Socket socket = connect(busB)) {
+            send(socket, new Invalidation("nodeC", ENTITY_NAME, null).encode() + '\n');
+            Assert.assertTrue("failure - expected connection closed", isClosedByPeer(socket));
+        }
+
+        Assert.assertNull("failure - expected unauthenticated messages ignored", receivedB.poll(1, TimeUnit.SECONDS));
+
+    }
+
+    @Test
+    public void testPeerBusClosesOversizedMessage() throws Exception {
+
+        final PeerInvalidationBus busB = peerBus("nodeB", SECRET, LOCAL_PEER, 16);
+
+        try (Socket socket = connect(busB)) {
+            final char[] line = new char[AbstractInvalidationBus.MAX_MESSAGE_LENGTH * 4];
+            Arrays.fill(line, 'x');
+            send(socket, new String(line));
+            Assert.assertTrue("failure - expected connection closed", isClosedByPeer(socket));
+        }
+
+    }
+
+    @Test
+    public void testPeerBusRejectsUnknownHost() throws Exception {
+
+        final PeerInvalidationBus busB = peerBus("nodeB", SECRET,
+                Collections.singletonList(InetSocketAddress.createUnresolved("192.0.2.1", 45567)), 16);
+
+        try (Socket socket = connect(busB)) {
+            Assert.assertTrue("failure - expected connection closed", isClosedByPeer(socket));
+        }
+
+    }
+
+    @Test
+    public void testPeerBusLimitsConnections() throws Exception {
+
+        final PeerInvalidationBus busB = peerBus("nodeB", SECRET, LOCAL_PEER, 1);
+
+        try (Socket first = connect(busB); Socket second = connect(busB)) {
+            Assert.assertTrue("failure - expected connection beyond limit closed", isClosedByPeer(second));
+            first.setSoTimeout(500);
+            try {
+                first.getInputStream().read();
+                Assert.fail("failure - expected first connection open");
+            } catch (SocketTimeoutException ex) {
+                // expected
+            }
+        }
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPeerBusRequiresSecret() {
+
+        new PeerInvalidationBus("nodeA", "", null, 0, LOCAL_PEER, 16, 1000, 1000);
+
+    }
+
+    /**
+     * Create and start a PeerInvalidationBus listening on the loopback address.
+     *
+     * @param nodeId The node identifier.
+     * @param secret The shared secret.
+     * @param peers The peer addresses.
+     * @param maxConnections The maximum number of inbound connections.
+     * @return A started PeerInvalidationBus.
+     * @throws IOException Thrown if the bus cannot be started.
+     */
+    private PeerInvalidationBus peerBus(final String nodeId, final String secret, final List<InetSocketAddress> peers,
+            final int maxConnections) throws IOException {
+        final PeerInvalidationBus bus = new PeerInvalidationBus(nodeId, secret, InetAddress.getLoopbackAddress(), 0,
+                peers, maxConnections, 1000, 1000);
+        peerBuses.add(bus);
+        bus.start();
+        return bus;
+    }
+
+    /**
+     * Open a connection to a PeerInvalidationBus.
+     *
+     * @param bus A started PeerInvalidationBus.
+     * @return A connected Socket.
+     * @throws IOException Thrown if the connection fails.
+     */
+    private static Socket connect(final PeerInvalidationBus bus) throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), bus.getLocalPort());
+    }
+
+    /**
+     * Write a value to a connection.
+     *
+     * @param socket A connected Socket.
+     * @param value The value to write.
+     * @throws IOException Thrown if the write fails.
+     */
+    private static void send(final Socket socket, final String value) throws IOException {
+        final OutputStream output = socket.getOutputStream();
+        output.write(value.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    /**
+     * Returns whether the remote end closes a connection within five seconds.
+     *
+     * @param socket A connected Socket.
+     * @return <code>true</code> if the connection was closed by the remote end.
+     * @throws IOException Thrown if the connection stays open.
+     */
+    private static boolean isClosedByPeer(final Socket socket) throws IOException {
+        socket.setSoTimeout(5000);
+        try {
+            return socket.getInputStream().read() == -1;
+        } catch (SocketTimeoutException ex) {
+            return false;
+        } catch (IOException ex) {
+            // the connection was reset
+            return true;
+        }
+    }
+
+}
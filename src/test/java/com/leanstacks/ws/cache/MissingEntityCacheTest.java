@@ -0,0 +1,75 @@
+package com.leanstacks.ws.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Greeting;
+
+/**
+ * Unit test methods for the MissingEntityCache.
+ *
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "ws.cache.negative.replica-lag=0" })
+public class MissingEntityCacheTest extends AbstractTest {
+
+    @Autowired
+    private transient MissingEntityCache missingEntityCache;
+
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    @Override
+    public void doBeforeEachTest() {
+        // perform test initialization
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testRecordMissing() {
+
+        final Long id = 1000001L;
+
+        missingEntityCache.recordMissing(Greeting.class, id, System.nanoTime());
+
+        Assert.assertTrue("failure - expected missing id", missingEntityCache.isMissing(Greeting.class, id));
+
+        missingEntityCache.created(Greeting.class, id);
+
+        Assert.assertFalse("failure - expected created id", missingEntityCache.isMissing(Greeting.class, id));
+
+    }
+
+    @Test
+    public void testLookupStartedBeforeCommitIsNotRecorded() {
+
+        final Long id = 1000002L;
+        final long readStart = System.nanoTime();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            missingEntityCache.created(Greeting.class, id);
+            return null;
+        });
+        missingEntityCache.recordMissing(Greeting.class, id, readStart);
+
+        Assert.assertFalse("failure - expected stale lookup ignored", missingEntityCache.isMissing(Greeting.class, id));
+
+        missingEntityCache.recordMissing(Greeting.class, id, System.nanoTime());
+
+        Assert.assertTrue("failure - expected later lookup recorded", missingEntityCache.isMissing(Greeting.class, id));
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.leanstacks.ws.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the NegativeCache.
+ *
+ * @author Matt Warman
+ */
+public class NegativeCacheTest extends AbstractTest {
+
+    private transient NegativeCache<Long> negativeCache;
+
+    @Override
+    public void doBeforeEachTest() {
+        negativeCache = new NegativeCache<Long>(100, 60000);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testNegativeCache() {
+
+        Assert.assertFalse("failure - expected unknown key", negativeCache.isMissing(5L));
+
+        negativeCache.recordMissing(5L);
+
+        Assert.assertTrue("failure - expected missing key", negativeCache.isMissing(5L));
+
+        negativeCache.invalidate(5L);
+
+        Assert.assertFalse("failure - expected invalidated key", negativeCache.isMissing(5L));
+
+    }
+
+}
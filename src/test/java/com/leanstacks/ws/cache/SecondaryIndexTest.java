@@ -0,0 +1,121 @@
+package com.leanstacks.ws.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the SecondaryIndex.
+ *
+ * @author Matt Warman
+ */
+public class SecondaryIndexTest extends AbstractTest {
+
+    private static final long TTL = 1000L;
+
+    private final transient AtomicLong clock = new AtomicLong();
+
+    private transient SecondaryIndex<String> index;
+
+    private transient AtomicInteger loads;
+
+    private transient Function<String, Collection<Long>> loader;
+
+    @Override
+    public void doBeforeEachTest() {
+        index = new SecondaryIndex<String>(100, TTL, clock::get);
+        loads = new AtomicInteger();
+        loader = key -> {
+            loads.incrementAndGet();
+            if ("English".equals(key)) {
+                return Arrays.asList(1L, 3L);
+            }
+            return "Spanish".equals(key) ? Arrays.asList(2L) : Collections.<Long> emptyList();
+        };
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testGetLoadsOnce() {
+
+        Assert.assertEquals("failure - expected loaded ids", 2, index.get("English", loader).size());
+        Assert.assertEquals("failure - expected held ids", 2, index.get("English", loader).size());
+        Assert.assertEquals("failure - expected one load", 1, loads.get());
+        Assert.assertTrue("failure - expected key loaded", index.isLoaded("English"));
+
+    }
+
+    @Test
+    public void testEmptyKeyIsNotHeld() {
+
+        Assert.assertTrue("failure - expected no ids", index.get("Unknown", loader).isEmpty());
+        Assert.assertFalse("failure - expected empty key not held", index.isLoaded("Unknown"));
+
+    }
+
+    @Test
+    public void testKeyExpires() {
+
+        index.get("English", loader);
+        clock.addAndGet(TTL + 1);
+
+        Assert.assertFalse("failure - expected key expired", index.isLoaded("English"));
+        Assert.assertEquals("failure - expected reloaded ids", 2, index.get("English", loader).size());
+        Assert.assertEquals("failure - expected reload", 2, loads.get());
+
+    }
+
+    @Test
+    public void testPutMovesBetweenKeys() {
+
+        index.get("English", loader);
+        index.get("Spanish", loader);
+
+        index.put("Spanish", 1L);
+
+        Assert.assertFalse("failure - expected id removed", index.get("English", loader).contains(1L));
+        Assert.assertTrue("failure - expected id added", index.get("Spanish", loader).contains(1L));
+
+        index.put("French", 2L);
+        index.remove(3L);
+
+        Assert.assertEquals("failure - expected moved Spanish id", Collections.singleton(1L),
+                index.get("Spanish", loader));
+        Assert.assertTrue("failure - expected no English ids", index.get("English", loader).isEmpty());
+        Assert.assertFalse("failure - expected unloaded key", index.isLoaded("French"));
+        Assert.assertEquals("failure - expected no reloads", 2, loads.get());
+
+    }
+
+    @Test
+    public void testOverlappingLoadIsNotHeld() {
+
+        final Collection<Long> ids = index.get("English", key -> {
+            final Collection<Long> loaded = loader.apply(key);
+            index.put("Spanish", 3L);
+            return loaded;
+        });
+
+        Assert.assertEquals("failure - expected loaded ids returned", 2, ids.size());
+        Assert.assertFalse("failure - expected key not loaded", index.isLoaded("English"));
+
+        index.get("Spanish", loader);
+        index.invalidateAll();
+
+        Assert.assertFalse("failure - expected keys discarded", index.isLoaded("Spanish"));
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.leanstacks.ws.datasource;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.leanstacks.ws.AbstractTest;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Unit test methods for the ChangelogChecksumLiquibase.
+ *
+ * @author Matt Warman
+ */
+public class ChangelogChecksumLiquibaseTest extends AbstractTest {
+
+    private static final String CHANGE_LOG = "classpath:/data/changelog/db.changelog-master.xml";
+
+    private transient SingleConnectionDataSource dataSource;
+
+    private transient JdbcTemplate jdbcTemplate;
+
+    private transient AtomicInteger updates;
+
+    private transient AtomicInteger listings;
+
+    @Override
+    public void doBeforeEachTest() {
+        dataSource = new SingleConnectionDataSource("jdbc:hsqldb:mem:changelogchecksum", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        updates = new AtomicInteger();
+        listings = new AtomicInteger();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        jdbcTemplate.execute("DROP SCHEMA PUBLIC CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testUnchangedChangeLogsSkipped() throws LiquibaseException {
+
+        create().afterPropertiesSet();
+
+        Assert.assertEquals("failure - expected first start to update", 1, updates.get());
+        Assert.assertEquals("failure - expected no unlocked listing without Liquibase tables", 0, listings.get());
+        Assert.assertEquals("failure - expected marker row", Integer.valueOf(1),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ChangelogChecksum", Integer.class));
+
+        create().afterPropertiesSet();
+
+        Assert.assertEquals("failure - expected second start to skip the update", 1, updates.get());
+
+    }
+
+    @Test
+    public void testChangedChecksumWithoutPendingChangeSetsSkipsLock() throws LiquibaseException {
+
+        create().afterPropertiesSet();
+        jdbcTemplate.update("UPDATE ChangelogChecksum SET checksum = 'stale'");
+
+        create().afterPropertiesSet();
+
+        Assert.assertEquals("failure - expected no locked update without pending change sets", 1, updates.get());
+        Assert.assertEquals("failure - expected pending change sets listed", 1, listings.get());
+        Assert.assertNotEquals("failure - expected marker row rewritten", "stale",
+                jdbcTemplate.queryForObject("SELECT checksum FROM ChangelogChecksum", String.class));
+
+    }
+
+    @Test
+    public void testStartupChecksumMatchesBuildChecksum() {
+
+        final ChangelogChecksumLiquibase fallback = create();
+        fallback.setChangeLogChecksumLocation(null);
+
+        Assert.assertEquals("failure - expected startup checksum to match build checksum",
+                create().computeChecksum(), fallback.computeChecksum());
+
+    }
+
+    private ChangelogChecksumLiquibase create() {
+        final ChangelogChecksumLiquibase liquibase = new ChangelogChecksumLiquibase() {
+            @Override
+            protected Liquibase createLiquibase(final Connection connection) throws LiquibaseException {
+                final ResourceAccessor resourceAccessor = createResourceOpener();
+                return new Liquibase(getChangeLog(), resourceAccessor, createDatabase(connection, resourceAccessor)) {
+                    @Override
+                    public List<ChangeSet> listUnrunChangeSets(final Contexts contexts,
+                            final LabelExpression labels) throws LiquibaseException {
+                        listings.incrementAndGet();
+                        return super.listUnrunChangeSets(contexts, labels);
+                    }
+
+                    @Override
+                    public void update(final Contexts contexts, final LabelExpression labels)
+                            throws LiquibaseException {
+                        updates.incrementAndGet();
+                        super.update(contexts, labels);
+                    }
+                };
+            }
+        };
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(CHANGE_LOG);
+        liquibase.setChangeLogLocations("classpath*:data/changelog/*.xml");
+        liquibase.setChangeLogChecksumLocation("classpath:data/changelog/changelog.sha256");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        return liquibase;
+    }
+
+}
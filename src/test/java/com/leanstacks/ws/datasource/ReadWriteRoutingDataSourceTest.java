@@ -0,0 +1,92 @@
+package com.leanstacks.ws.datasource;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the ReadWriteRoutingDataSource.
+ *
+ * @author Matt Warman
+ */
+public class ReadWriteRoutingDataSourceTest extends AbstractTest {
+
+    private transient DataSource primaryDataSource;
+
+    private transient DataSource replicaDataSource;
+
+    private transient Connection primaryConnection;
+
+    private transient Connection replicaConnection;
+
+    private transient ReadWriteRoutingDataSource routingDataSource;
+
+    @Override
+    public void doBeforeEachTest() {
+        primaryDataSource = mock(DataSource.class);
+        replicaDataSource = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                mock(CounterService.class), 60000L);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testWriteRoutesToPrimary() throws SQLException {
+
+        when(primaryDataSource.getConnection()).thenReturn(primaryConnection);
+
+        final Connection connection = routingDataSource.getConnection();
+
+        Assert.assertSame("failure - expected primary connection", primaryConnection, connection);
+
+    }
+
+    @Test
+    public void testReadOnlyRoutesToReplica() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+
+        final Connection connection = routingDataSource.getConnection();
+
+        Assert.assertSame("failure - expected replica connection", replicaConnection, connection);
+
+    }
+
+    @Test
+    public void testReadOnlyFallsBackToPrimary() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaDataSource.getConnection()).thenThrow(new SQLException("replica down"));
+        when(primaryDataSource.getConnection()).thenReturn(primaryConnection);
+
+        final Connection connection = routingDataSource.getConnection();
+        final Connection nextConnection = routingDataSource.getConnection();
+
+        Assert.assertSame("failure - expected primary connection", primaryConnection, connection);
+        Assert.assertSame("failure - expected primary connection", primaryConnection, nextConnection);
+        verify(replicaDataSource, times(1)).getConnection();
+
+    }
+
+}
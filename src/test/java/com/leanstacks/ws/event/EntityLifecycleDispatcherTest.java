@@ -0,0 +1,167 @@
+package com.leanstacks.ws.event;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.ChangeEvent;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+import com.leanstacks.ws.service.ChangeStreamService;
+import com.leanstacks.ws.service.ChangeStreamSubscriber;
+import com.leanstacks.ws.service.GreetingService;
+
+/**
+ * Unit test methods for the EntityLifecycleDispatcher and TransactionalEntityListener. Committed changes are observed
+ * through the ChangeStreamService, which is an EntityLifecycleSubscriber.
+ * 
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class EntityLifecycleDispatcherTest extends AbstractTest {
+
+    @Autowired
+    private transient GreetingService greetingService;
+
+    @Autowired
+    private transient ChangeStreamService changeStreamService;
+
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("entityLifecycleTaskExecutor")
+    private transient ThreadPoolTaskExecutor entityLifecycleTaskExecutor;
+
+    private final transient BlockingQueue<ChangeEvent> received = new LinkedBlockingQueue<ChangeEvent>();
+
+    private final transient ChangeStreamSubscriber subscriber = new ChangeStreamSubscriber() {
+
+        @Override
+        public void onChange(final ChangeEvent event) {
+            received.add(event);
+        }
+
+        @Override
+        public void onReset() throws IOException {
+            throw new IOException("unexpected reset");
+        }
+
+    };
+
+    @Override
+    public void doBeforeEachTest() {
+        changeStreamService.subscribe(Greeting.class, null, subscriber);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        changeStreamService.unsubscribe(subscriber);
+    }
+
+    @Test
+    public void testCommittedChangesAreDispatched() throws Exception {
+
+        final Greeting greeting = greetingService.create(new Greeting("lifecycle", "language"));
+        greeting.setText("lifecycle updated");
+        greetingService.update(greeting);
+        greetingService.delete(greeting.getId());
+
+        final ChangeEvent created = received.poll(5, TimeUnit.SECONDS);
+        final ChangeEvent updated = received.poll(5, TimeUnit.SECONDS);
+        final ChangeEvent deleted = received.poll(5, TimeUnit.SECONDS);
+
+        Assert.assertNotNull("failure - expected created event", created);
+        Assert.assertEquals("failure - expected CREATED", ChangeType.CREATED, created.getChangeType());
+        Assert.assertEquals("failure - expected id", greeting.getId(), created.getEntityId());
+        Assert.assertEquals("failure - expected version 0", Integer.valueOf(0), created.getEntityVersion());
+        Assert.assertNotNull("failure - expected updated event", updated);
+        Assert.assertEquals("failure - expected UPDATED", ChangeType.UPDATED, updated.getChangeType());
+        Assert.assertEquals("failure - expected version 1", Integer.valueOf(1), updated.getEntityVersion());
+        Assert.assertNotNull("failure - expected deleted event", deleted);
+        Assert.assertEquals("failure - expected DELETED", ChangeType.DELETED, deleted.getChangeType());
+        Assert.assertEquals("failure - expected referenceId", greeting.getReferenceId(), deleted.getReferenceId());
+
+    }
+
+    @Test
+    public void testRolledBackChangesAreDiscarded() throws Exception {
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            greetingService.create(new Greeting("rolled back", "language"));
+            status.setRollbackOnly();
+            return null;
+        });
+        final Greeting greeting = greetingService.create(new Greeting("committed", "language"));
+        greetingService.delete(greeting.getId());
+
+        final ChangeEvent created = received.poll(5, TimeUnit.SECONDS);
+
+        Assert.assertNotNull("failure - expected created event", created);
+        Assert.assertEquals("failure - expected committed change only", greeting.getId(), created.getEntityId());
+
+    }
+
+    @Test
+    public void testOverflowedChangeIsDispatched() throws Exception {
+
+        // occupy the dispatcher thread and fill its queue
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        entityLifecycleTaskExecutor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assert.assertTrue("failure - expected dispatcher busy", started.await(5, TimeUnit.SECONDS));
+        final int remaining = entityLifecycleTaskExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        for (int i = 0; i < remaining; i++) {
+            entityLifecycleTaskExecutor.execute(() -> {
+                // fill the queue
+            });
+        }
+
+        // the committing thread waits for queue space, which is released shortly
+        final ScheduledExecutorService releaser = Executors.newSingleThreadScheduledExecutor();
+        final Greeting greeting;
+        try {
+            releaser.schedule(release::countDown, 500, TimeUnit.MILLISECONDS);
+            greeting = greetingService.create(new Greeting("overflow", "language"));
+        } finally {
+            release.countDown();
+            releaser.shutdownNow();
+        }
+        greetingService.delete(greeting.getId());
+
+        final ChangeEvent created = received.poll(5, TimeUnit.SECONDS);
+        final ChangeEvent deleted = received.poll(5, TimeUnit.SECONDS);
+
+        Assert.assertNotNull("failure - expected overflowed event in the change stream", created);
+        Assert.assertEquals("failure - expected CREATED", ChangeType.CREATED, created.getChangeType());
+        Assert.assertEquals("failure - expected id", greeting.getId(), created.getEntityId());
+        Assert.assertNotNull("failure - expected deleted event", deleted);
+        Assert.assertEquals("failure - expected commit order", ChangeType.DELETED, deleted.getChangeType());
+
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.leanstacks.ws.repository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * <p>
+ * Runs every query method declared by the application's repositories against HSQLDB, records the SQL statements
+ * Hibernate prepares, and obtains each statement's execution plan with <code>EXPLAIN PLAN FOR</code>.
+ * </p>
+ * <p>
+ * The test fails when a statement with a <code>WHERE</code> clause reads a large table with a full scan, i.e. when a
+ * filtered access path is not supported by an index. Unfiltered statements, e.g. <code>findAll</code>, scan by design
+ * and small reference data tables are read in full by the ReferenceDataService, so neither is reported. The tables
+ * HSQLDB creates for <code>IN</code> lists are ignored.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.leanstacks.ws.repository.StatementRecorder")
+public class RepositoryQueryPlanTest extends AbstractTest {
+
+    /**
+     * Tables which are small by design and may be scanned.
+     */
+    private static final List<String> SMALL_TABLES = Arrays.asList("ROLE", "CHANGELOGCHECKSUM");
+
+    /**
+     * The name prefix of the tables HSQLDB creates for subqueries and IN lists.
+     */
+    private static final String SYSTEM_TABLE_PREFIX = "SYSTEM_";
+
+    /**
+     * Matches a table access in an HSQLDB plan, e.g. <code>table=GREETING ... access=FULL SCAN</code>.
+     */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("table=(\\w+).*?access=([A-Z ]+)", Pattern.DOTALL);
+
+    @Autowired
+    private transient ApplicationContext applicationContext;
+
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private transient DataSource dataSource;
+
+    @Override
+    public void doBeforeEachTest() {
+        // no set up required
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        StatementRecorder.stop();
+    }
+
+    @Test
+    public void testRepositoryQueriesUseIndexes() throws SQLException {
+
+        final Map<String, List<String>> statements = recordRepositoryStatements();
+        final List<String> fullScans = new ArrayList<String>();
+
+        for (final Map.Entry<String, List<String>> entry : statements.entrySet()) {
+            for (final String sql : entry.getValue()) {
+                if (!sql.toLowerCase(Locale.ENGLISH).contains(" where ")) {
+                    continue;
+                }
+                final Matcher matcher = TABLE_ACCESS.matcher(explain(sql));
+                while (matcher.find()) {
+                    final String table = matcher.group(1);
+                    if ("FULL SCAN".equals(matcher.group(2).trim()) && !SMALL_TABLES.contains(table)
+                            && !table.startsWith(SYSTEM_TABLE_PREFIX)) {
+                        fullScans.add(entry.getKey() + " scans " + table + ": " + sql);
+                    }
+                }
+            }
+        }
+
+        Assert.assertFalse("failure - expected repository statements", statements.isEmpty());
+        Assert.assertTrue("failure - expected no full scans of large tables " + fullScans, fullScans.isEmpty());
+
+    }
+
+    /**
+     * Invoke each query method declared by the application's repositories in a rolled back transaction.
+     *
+     * @return The recorded SQL statements keyed by repository method.
+     */
+    private Map<String, List<String>> recordRepositoryStatements() {
+        final Map<String, List<String>> statements = new LinkedHashMap<String, List<String>>();
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (final Object repository : applicationContext.getBeansOfType(JpaRepository.class).values()) {
+            for (final Class<?> repositoryInterface : repository.getClass().getInterfaces()) {
+                if (!repositoryInterface.getPackage().equals(RepositoryQueryPlanTest.class.getPackage())) {
+                    continue;
+                }
+                for (final Method method : repositoryInterface.getDeclaredMethods()) {
+                    StatementRecorder.start();
+                    transactionTemplate.execute(status -> {
+                        status.setRollbackOnly();
+                        return invoke(repository, method);
+                    });
+                    statements.put(repositoryInterface.getSimpleName() + "." + method.getName(),
+                            StatementRecorder.stop());
+                }
+            }
+        }
+        return statements;
+    }
+
+    private static Object invoke(final Object repository, final Method method) {
+        final Class<?>[] types = method.getParameterTypes();
+        final Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleValue(types[i]);
+        }
+        try {
+            return method.invoke(repository, args);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Failed to invoke " + method, ex);
+        }
+    }
+
+    private static Object sampleValue(final Class<?> type) {
+        if (Long.class.equals(type) || long.class.equals(type)) {
+            return Long.valueOf(1L);
+        }
+        if (Integer.class.equals(type) || int.class.equals(type)) {
+            return Integer.valueOf(0);
+        }
+        if (String.class.equals(type)) {
+            return "sample";
+        }
+        if (DateTime.class.equals(type)) {
+            return DateTime.now();
+        }
+        if (Pageable.class.equals(type)) {
+            return new PageRequest(0, 10);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return Collections.singletonList(Long.valueOf(1L));
+        }
+        return null;
+    }
+
+    /**
+     * Obtain the HSQLDB execution plan of a statement.
+     *
+     * @param sql A SQL statement with parameter markers.
+     * @return The execution plan.
+     * @throws SQLException Thrown if the plan cannot be obtained.
+     */
+    private String explain(final String sql) throws SQLException {
+        final StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("EXPLAIN PLAN FOR " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+}
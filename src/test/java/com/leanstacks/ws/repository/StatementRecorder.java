@@ -0,0 +1,50 @@
+package com.leanstacks.ws.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * A Hibernate StatementInspector which records the SQL statements prepared by the recording thread while recording is
+ * enabled. Statements prepared by background work, e.g. the cache warm-up, are not recorded.
+ *
+ * @author Matt Warman
+ */
+public class StatementRecorder implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final List<String> STATEMENTS = new ArrayList<String>();
+
+    private static Thread recordingThread;
+
+    /**
+     * Start recording the statements prepared by the current thread, discarding previously recorded statements.
+     */
+    public static synchronized void start() {
+        STATEMENTS.clear();
+        recordingThread = Thread.currentThread();
+    }
+
+    /**
+     * Stop recording.
+     *
+     * @return The statements recorded since recording started.
+     */
+    public static synchronized List<String> stop() {
+        recordingThread = null;
+        return new ArrayList<String>(STATEMENTS);
+    }
+
+    @Override
+    public String inspect(final String sql) {
+        synchronized (StatementRecorder.class) {
+            if (recordingThread == Thread.currentThread()) {
+                STATEMENTS.add(sql);
+            }
+        }
+        return sql;
+    }
+
+}
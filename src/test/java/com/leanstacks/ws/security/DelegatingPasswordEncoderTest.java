@@ -0,0 +1,103 @@
+package com.leanstacks.ws.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the DelegatingPasswordEncoder and the BCryptCostCalibrator.
+ *
+ * @author Matt Warman
+ */
+public class DelegatingPasswordEncoderTest extends AbstractTest {
+
+    private static final String PASSWORD = "password";
+
+    private transient DelegatingPasswordEncoder encoder;
+
+    @Override
+    public void doBeforeEachTest() {
+        encoder = create(DelegatingPasswordEncoder.BCRYPT, 5);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testEncodeIsPrefixed() {
+
+        final String encoded = encoder.encode(PASSWORD);
+
+        Assert.assertTrue("failure - expected bcrypt prefix", encoded.startsWith("{bcrypt}$2a$05$"));
+        Assert.assertTrue("failure - expected match", encoder.matches(PASSWORD, encoded));
+        Assert.assertFalse("failure - expected mismatch", encoder.matches("wrong", encoded));
+        Assert.assertFalse("failure - expected no upgrade", encoder.upgradeEncoding(encoded));
+
+    }
+
+    @Test
+    public void testUnprefixedBCryptMatchesAndUpgrades() {
+
+        final String legacy = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        Assert.assertTrue("failure - expected legacy match", encoder.matches(PASSWORD, legacy));
+        Assert.assertTrue("failure - expected legacy upgrade", encoder.upgradeEncoding(legacy));
+
+    }
+
+    @Test
+    public void testCostChangeUpgrades() {
+
+        final String encoded = create(DelegatingPasswordEncoder.BCRYPT, 4).encode(PASSWORD);
+
+        Assert.assertTrue("failure - expected match at other cost", encoder.matches(PASSWORD, encoded));
+        Assert.assertTrue("failure - expected cost upgrade", encoder.upgradeEncoding(encoded));
+        Assert.assertFalse("failure - expected no downgrade",
+                create(DelegatingPasswordEncoder.BCRYPT, 4).upgradeEncoding(encoder.encode(PASSWORD)));
+
+    }
+
+    @Test
+    public void testAlgorithmChangeUpgrades() {
+
+        final String encoded = encoder.encode(PASSWORD);
+        final DelegatingPasswordEncoder pbkdf2 = create("pbkdf2", 5);
+
+        Assert.assertTrue("failure - expected bcrypt match", pbkdf2.matches(PASSWORD, encoded));
+        Assert.assertTrue("failure - expected algorithm upgrade", pbkdf2.upgradeEncoding(encoded));
+        Assert.assertFalse("failure - expected unknown id mismatch", encoder.matches(PASSWORD, "{md5}abc"));
+
+    }
+
+    @Test
+    public void testSelectCost() {
+
+        final long millis = TimeUnit.MILLISECONDS.toNanos(1);
+
+        Assert.assertEquals("failure - expected cost within budget", 12,
+                BCryptCostCalibrator.selectCost(25 * millis, 100 * millis, 10, 14));
+        Assert.assertEquals("failure - expected minimum cost", 10,
+                BCryptCostCalibrator.selectCost(250 * millis, 100 * millis, 10, 14));
+        Assert.assertEquals("failure - expected maximum cost", 14,
+                BCryptCostCalibrator.selectCost(millis, 100 * millis, 10, 14));
+
+    }
+
+    private static DelegatingPasswordEncoder create(final String idForEncode, final int cost) {
+        final Map<String, PasswordEncoder> encoders = new HashMap<String, PasswordEncoder>();
+        encoders.put(DelegatingPasswordEncoder.BCRYPT, new BCryptPasswordEncoder(cost));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+        return new DelegatingPasswordEncoder(idForEncode, DelegatingPasswordEncoder.BCRYPT, encoders, cost);
+    }
+
+}
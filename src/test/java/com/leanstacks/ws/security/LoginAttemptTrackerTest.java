@@ -0,0 +1,105 @@
+package com.leanstacks.ws.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the LoginAttemptTracker.
+ *
+ * @author Matt Warman
+ */
+public class LoginAttemptTrackerTest extends AbstractTest {
+
+    private static final String USERNAME = "user";
+
+    private static final long WINDOW = 60L;
+
+    private static final long LOCKOUT = 300L;
+
+    private transient AtomicLong clock;
+
+    private transient LoginAttemptTracker tracker;
+
+    @Override
+    public void doBeforeEachTest() {
+        clock = new AtomicLong(1000L);
+        tracker = new LoginAttemptTracker(3, WINDOW, LOCKOUT, clock::get);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testLockAfterMaxFailures() {
+
+        Assert.assertFalse("failure - expected first failure not to lock", tracker.recordFailure(USERNAME));
+        Assert.assertFalse("failure - expected second failure not to lock", tracker.recordFailure(USERNAME));
+        Assert.assertFalse("failure - expected not locked", tracker.isLocked(USERNAME));
+        Assert.assertTrue("failure - expected third failure to lock", tracker.recordFailure(USERNAME));
+        Assert.assertTrue("failure - expected locked", tracker.isLocked(USERNAME));
+        Assert.assertFalse("failure - expected other username not locked", tracker.isLocked("other"));
+
+        clock.addAndGet(LOCKOUT);
+
+        Assert.assertFalse("failure - expected lockout expired", tracker.isLocked(USERNAME));
+
+    }
+
+    @Test
+    public void testFailuresOutsideWindowAreNotCounted() {
+
+        tracker.recordFailure(USERNAME);
+        tracker.recordFailure(USERNAME);
+        clock.addAndGet(WINDOW + 1);
+
+        Assert.assertFalse("failure - expected new window", tracker.recordFailure(USERNAME));
+        Assert.assertFalse("failure - expected not locked", tracker.isLocked(USERNAME));
+
+    }
+
+    @Test
+    public void testSuccessClearsFailures() {
+
+        tracker.recordFailure(USERNAME);
+        tracker.recordFailure(USERNAME);
+        tracker.recordSuccess(USERNAME);
+
+        Assert.assertFalse("failure - expected failures cleared", tracker.recordFailure(USERNAME));
+        Assert.assertFalse("failure - expected not locked", tracker.isLocked(USERNAME));
+
+    }
+
+    @Test
+    public void testUnknownUsernameIsLocked() {
+
+        tracker.recordUnknownFailure("unknown");
+        tracker.recordUnknownFailure("unknown");
+
+        Assert.assertTrue("failure - expected third failure to lock", tracker.recordUnknownFailure("unknown"));
+        Assert.assertTrue("failure - expected locked", tracker.isLocked("unknown"));
+        Assert.assertFalse("failure - expected existing username not locked", tracker.isLocked(USERNAME));
+
+    }
+
+    @Test
+    public void testLockoutSurvivesUnknownUsernameSpray() {
+
+        tracker.recordFailure(USERNAME);
+        tracker.recordFailure(USERNAME);
+        tracker.recordFailure(USERNAME);
+
+        for (int i = 0; i < 50000; i++) {
+            tracker.recordUnknownFailure("unknown" + i);
+        }
+
+        Assert.assertTrue("failure - expected lockout kept", tracker.isLocked(USERNAME));
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.leanstacks.ws.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Account;
+import com.leanstacks.ws.model.Role;
+import com.leanstacks.ws.service.ReferenceDataSet;
+
+/**
+ * Unit test methods for the RoleAuthorities.
+ *
+ * @author Matt Warman
+ */
+public class RoleAuthoritiesTest extends AbstractTest {
+
+    private static final DateTime JAN = new DateTime(2017, 1, 1, 0, 0);
+
+    private static final DateTime MAR = new DateTime(2017, 3, 1, 0, 0);
+
+    private transient RoleAuthorities roleAuthorities;
+
+    @Override
+    public void doBeforeEachTest() {
+        roleAuthorities = new RoleAuthorities(new ReferenceDataSet<Role>(Arrays.asList(role(1L, "ROLE_USER", 1, null),
+                role(2L, "ROLE_ADMIN", 2, MAR), role(3L, "ROLE_SYSADMIN", 3, null))));
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testUserDetailsCredentialsErased() {
+
+        final Account account = new Account();
+        account.setUsername("user");
+        account.setPassword("{bcrypt}hash");
+        final AccountUserDetails userDetails = new AccountUserDetails(account, roleAuthorities, 1L);
+
+        Assert.assertEquals("failure - expected password", "{bcrypt}hash", userDetails.getPassword());
+
+        userDetails.eraseCredentials();
+
+        Assert.assertNull("failure - expected password erased", userDetails.getPassword());
+        Assert.assertEquals("failure - expected authorities kept", 1, userDetails.getAuthorities().size());
+
+    }
+
+    @Test
+    public void testMaskOfCode() {
+
+        Assert.assertEquals("failure - expected bit 0", 1L, roleAuthorities.maskOf("ROLE_USER"));
+        Assert.assertEquals("failure - expected prefix optional", 4L, roleAuthorities.maskOf("SYSADMIN"));
+        Assert.assertEquals("failure - expected 0 for unknown role", 0L, roleAuthorities.maskOf("UNKNOWN"));
+
+    }
+
+    @Test
+    public void testMaskOfRoleIdsHonorsEffectiveTime() {
+
+        final Set<Long> roleIds = new HashSet<Long>(Arrays.asList(1L, 2L, 9L));
+
+        Assert.assertEquals("failure - expected USER and ADMIN", 3L,
+                roleAuthorities.maskOf(roleIds, JAN.plusDays(1).getMillis()));
+        Assert.assertEquals("failure - expected ADMIN expired", 1L, roleAuthorities.maskOf(roleIds, MAR.getMillis()));
+
+    }
+
+    @Test
+    public void testAuthoritiesInterned() {
+
+        final Collection<GrantedAuthority> first = roleAuthorities.authoritiesOf(5L);
+        final Collection<GrantedAuthority> second = roleAuthorities.authoritiesOf(5L);
+
+        Assert.assertSame("failure - expected interned collection", first, second);
+        Assert.assertEquals("failure - expected 2 authorities", 2, first.size());
+        Assert.assertSame("failure - expected shared authority", first.iterator().next(),
+                roleAuthorities.authoritiesOf(1L).iterator().next());
+
+    }
+
+    private static Role role(final Long id, final String code, final int ordinal, final DateTime expiresAt) {
+        final Role role = new Role();
+        role.setId(id);
+        role.setCode(code);
+        role.setLabel(code);
+        role.setOrdinal(ordinal);
+        role.setEffectiveAt(JAN);
+        role.setExpiresAt(expiresAt);
+        return role;
+    }
+
+}
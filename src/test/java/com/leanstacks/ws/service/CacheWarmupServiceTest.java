@@ -0,0 +1,97 @@
+package com.leanstacks.ws.service;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.Greeting;
+
+/**
+ * Unit test methods for the CacheWarmupService and CacheWarmupServiceBean.
+ * 
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+        properties = { "ws.cache.warmup.parallelism=1", "ws.cache.warmup.refresh-after-evict=true" })
+public class CacheWarmupServiceTest extends AbstractTest {
+
+    @Autowired
+    private transient CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void doBeforeEachTest() {
+        awaitWarmUp();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void testWarmUp() {
+
+        final Long id = new Long(1);
+
+        Assert.assertTrue("failure - expected warm after the background warm-up", cacheWarmupService.isWarm());
+        Assert.assertFalse("failure - expected greeting not cached",
+                entityManagerFactory.getCache().contains(Greeting.class, id));
+
+        cacheWarmupService.warmUp();
+
+        Assert.assertFalse("failure - expected warm-up complete", cacheWarmupService.isWarming());
+        Assert.assertTrue("failure - expected greeting cached",
+                entityManagerFactory.getCache().contains(Greeting.class, id));
+        Assert.assertTrue("failure - expected country cached",
+                entityManagerFactory.getCache().contains(Country.class, id));
+
+    }
+
+    @Test
+    public void testRefreshWithSingleThread() {
+
+        final Long id = new Long(1);
+
+        // with one thread, a refresh which waited for its batches on the executor would never complete
+        cacheWarmupService.refresh(Greeting.class);
+        cacheWarmupService.refresh(Country.class);
+
+        awaitWarmUp();
+
+        Assert.assertFalse("failure - expected refresh complete", cacheWarmupService.isWarming());
+        Assert.assertTrue("failure - expected greeting cached",
+                entityManagerFactory.getCache().contains(Greeting.class, id));
+        Assert.assertTrue("failure - expected country cached",
+                entityManagerFactory.getCache().contains(Country.class, id));
+
+    }
+
+    /**
+     * Wait up to five seconds for the startup warm-up and any refresh to complete.
+     */
+    private void awaitWarmUp() {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while ((!cacheWarmupService.isWarm() || cacheWarmupService.isWarming())
+                && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.leanstacks.ws.service;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.ChangeEvent;
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+
+/**
+ * Unit test methods for the ChangeStreamService and ChangeStreamServiceBean.
+ * 
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ChangeStreamServiceTest extends AbstractTest {
+
+    private static final String RESET = "reset";
+
+    @Autowired
+    private transient ChangeStreamService changeStreamService;
+
+    private final transient BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+
+    private final transient ChangeStreamSubscriber subscriber = new ChangeStreamSubscriber() {
+
+        @Override
+        public void onChange(final ChangeEvent event) {
+            received.add(event);
+        }
+
+        @Override
+        public void onReset() {
+            received.add(RESET);
+        }
+
+    };
+
+    @Override
+    public void doBeforeEachTest() {
+        received.clear();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        changeStreamService.unsubscribe(subscriber);
+    }
+
+    @Test
+    public void testSubscribeReceivesNewChanges() throws Exception {
+
+        changeStreamService.publish(Country.class, 1L, 1, "ref-1", ChangeType.UPDATED);
+        changeStreamService.subscribe(Country.class, null, subscriber);
+        changeStreamService.publish(Country.class, 2L, 3, "ref-2", ChangeType.UPDATED);
+
+        final ChangeEvent event = (ChangeEvent) received.poll(5, TimeUnit.SECONDS);
+
+        Assert.assertNotNull("failure - expected event", event);
+        Assert.assertEquals("failure - expected only the new change", Long.valueOf(2L), event.getEntityId());
+        Assert.assertEquals("failure - expected version", Integer.valueOf(3), event.getEntityVersion());
+
+    }
+
+    @Test
+    public void testSubscribeResumesFromLastEventId() throws Exception {
+
+        changeStreamService.publish(Country.class, 1L, 1, "ref-1", ChangeType.UPDATED);
+        changeStreamService.publish(Country.class, 1L, 2, "ref-1", ChangeType.UPDATED);
+
+        final ChangeEvent last = (ChangeEvent) pollUntilLastReplayed();
+        Assert.assertEquals("failure - expected last change", Integer.valueOf(2), last.getEntityVersion());
+
+        changeStreamService.unsubscribe(subscriber);
+        received.clear();
+        changeStreamService.subscribe(Country.class, last.getSequence() - 1, subscriber);
+
+        final ChangeEvent resumed = (ChangeEvent) received.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull("failure - expected resumed event", resumed);
+        Assert.assertEquals("failure - expected missed change", last.getSequence(), resumed.getSequence());
+
+    }
+
+    @Test
+    public void testSubscribeWithUnknownLastEventIdResets() throws Exception {
+
+        changeStreamService.subscribe(Country.class, Long.MAX_VALUE, subscriber);
+
+        Assert.assertEquals("failure - expected reset", RESET, received.poll(5, TimeUnit.SECONDS));
+
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotDelayOthers() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final ChangeStreamSubscriber slowSubscriber = new ChangeStreamSubscriber() {
+
+            @Override
+            public void onChange(final ChangeEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onReset() {
+                // not expected
+            }
+
+        };
+
+        try {
+            changeStreamService.subscribe(Country.class, null, slowSubscriber);
+            changeStreamService.subscribe(Country.class, null, subscriber);
+            changeStreamService.publish(Country.class, 4L, 1, "ref-4", ChangeType.UPDATED);
+
+            final ChangeEvent event = (ChangeEvent) received.poll(5, TimeUnit.SECONDS);
+
+            Assert.assertNotNull("failure - expected event despite slow subscriber", event);
+            Assert.assertEquals("failure - expected change", Long.valueOf(4L), event.getEntityId());
+        } finally {
+            release.countDown();
+            changeStreamService.unsubscribe(slowSubscriber);
+        }
+
+    }
+
+    /**
+     * Subscribe from the start of the buffer and return the last event replayed.
+     * 
+     * @return The last replayed event.
+     * @throws InterruptedException Thrown if interrupted while waiting.
+     */
+    private Object pollUntilLastReplayed() throws InterruptedException {
+        changeStreamService.subscribe(Country.class, 0L, subscriber);
+        Object last = null;
+        Object next = received.poll(5, TimeUnit.SECONDS);
+        while (next != null) {
+            last = next;
+            next = received.poll(500, TimeUnit.MILLISECONDS);
+        }
+        return last;
+    }
+
+}
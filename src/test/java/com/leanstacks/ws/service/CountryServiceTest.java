@@ -153,6 +153,84 @@ public class CountryServiceTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testPatchCountry() {
+
+        final Long id = new Long(1);
+
+        final Country country = countryService.findOne(id);
+
+        Assert.assertNotNull("failure - expected country not null", country);
+
+        final Integer version = country.getVersion();
+        final String updatedName = country.getName() + " test";
+
+        final Country patch = new Country();
+        patch.setId(id);
+        patch.setVersion(version);
+        patch.setName(updatedName);
+        patch.setCapital(country.getCapital());
+        final Integer updatedVersion = countryService.patch(patch);
+
+        Assert.assertEquals("failure - expected version incremented", Integer.valueOf(version + 1), updatedVersion);
+
+        final Country patchedCountry = countryService.findOne(id);
+
+        Assert.assertEquals("failure - expected patched country name match", updatedName, patchedCountry.getName());
+        Assert.assertEquals("failure - expected patched country version match", updatedVersion,
+                patchedCountry.getVersion());
+        Assert.assertEquals("failure - expected patched country updatedBy match", USERNAME,
+                patchedCountry.getUpdatedBy());
+
+    }
+
+    @Test
+    public void testPatchCountryVersionConflict() {
+
+        final Long id = new Long(1);
+
+        final Country country = countryService.findOne(id);
+        final Integer version = country.getVersion();
+
+        final Country patch = new Country();
+        patch.setId(id);
+        patch.setVersion(version + 1);
+        patch.setName(country.getName() + " test");
+
+        VersionConflictException exception = null;
+
+        try {
+            countryService.patch(patch);
+        } catch (VersionConflictException vce) {
+            exception = vce;
+        }
+
+        Assert.assertNotNull("failure - expected exception", exception);
+        Assert.assertEquals("failure - expected current version", version, exception.getCurrentVersion());
+
+    }
+
+    @Test
+    public void testPatchCountryNotFound() {
+
+        Exception exception = null;
+
+        final Country country = new Country();
+        country.setId(Long.MAX_VALUE);
+        country.setVersion(0);
+        country.setName("test");
+
+        try {
+            countryService.patch(country);
+        } catch (NoResultException nre) {
+            exception = nre;
+        }
+
+        Assert.assertNotNull("failure - expected exception", exception);
+        Assert.assertTrue("failure - expected NoResultException", exception instanceof NoResultException);
+
+    }
+
     @Test
     public void testDeleteCountry() {
 
@@ -3,6 +3,7 @@ package com.leanstacks.ws.service;
 import java.util.Collection;
 
 import javax.persistence.EntityExistsException;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.NoResultException;
 
 import org.junit.Assert;
@@ -32,6 +33,9 @@ public class GreetingServiceTest extends AbstractTest {
     @Autowired
     private transient GreetingService greetingService;
 
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
     @Override
     public void doBeforeEachTest() {
         greetingService.evictCache();
@@ -52,6 +56,19 @@ public class GreetingServiceTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testGetGreetingsByLanguage() {
+
+        final Collection<Greeting> greetings = greetingService.findByLanguage("English");
+
+        Assert.assertEquals("failure - expected 1 greeting", 1, greetings.size());
+        Assert.assertEquals("failure - expected English greeting", "English",
+                greetings.iterator().next().getLanguage());
+        Assert.assertTrue("failure - expected no greetings",
+                greetingService.findByLanguage("Unknown").isEmpty());
+
+    }
+
     @Test
     public void testGetGreeting() {
 
@@ -75,6 +92,26 @@ public class GreetingServiceTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testGetGreetingCached() {
+
+        final Long id = new Long(1);
+
+        Assert.assertFalse("failure - expected greeting not cached",
+                entityManagerFactory.getCache().contains(Greeting.class, id));
+
+        greetingService.findOne(id);
+
+        Assert.assertTrue("failure - expected greeting cached",
+                entityManagerFactory.getCache().contains(Greeting.class, id));
+
+        greetingService.evictCache();
+
+        Assert.assertFalse("failure - expected greeting evicted",
+                entityManagerFactory.getCache().contains(Greeting.class, id));
+
+    }
+
     @Test
     public void testCreateGreeting() {
 
@@ -153,6 +190,106 @@ public class GreetingServiceTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testPatchGreeting() {
+
+        final Long id = new Long(1);
+
+        final Greeting greeting = greetingService.findOne(id);
+
+        Assert.assertNotNull("failure - expected greeting not null", greeting);
+
+        final Integer version = greeting.getVersion();
+        final String updatedText = greeting.getText() + " test";
+
+        final Greeting patch = new Greeting();
+        patch.setId(id);
+        patch.setVersion(version);
+        patch.setText(updatedText);
+        patch.setLanguage(greeting.getLanguage());
+        final Integer updatedVersion = greetingService.patch(patch);
+
+        Assert.assertEquals("failure - expected version incremented", Integer.valueOf(version + 1), updatedVersion);
+
+        final Greeting patchedGreeting = greetingService.findOne(id);
+
+        Assert.assertEquals("failure - expected patched greeting text match", updatedText, patchedGreeting.getText());
+        Assert.assertEquals("failure - expected patched greeting version match", updatedVersion,
+                patchedGreeting.getVersion());
+        Assert.assertEquals("failure - expected patched greeting updatedBy match", USERNAME,
+                patchedGreeting.getUpdatedBy());
+
+    }
+
+    @Test
+    public void testPatchGreetingLeavesNullValuesUnchanged() {
+
+        final Long id = new Long(1);
+
+        final Greeting greeting = greetingService.findOne(id);
+        final String text = greeting.getText();
+        final String language = greeting.getLanguage();
+
+        final Greeting patch = new Greeting();
+        patch.setId(id);
+        patch.setVersion(greeting.getVersion());
+        final Integer updatedVersion = greetingService.patch(patch);
+
+        final Greeting patchedGreeting = greetingService.findOne(id);
+
+        Assert.assertEquals("failure - expected version incremented", updatedVersion, patchedGreeting.getVersion());
+        Assert.assertEquals("failure - expected text unchanged", text, patchedGreeting.getText());
+        Assert.assertEquals("failure - expected language unchanged", language, patchedGreeting.getLanguage());
+
+    }
+
+    @Test
+    public void testPatchGreetingVersionConflict() {
+
+        final Long id = new Long(1);
+
+        final Greeting greeting = greetingService.findOne(id);
+        final Integer version = greeting.getVersion();
+
+        final Greeting patch = new Greeting();
+        patch.setId(id);
+        patch.setVersion(version + 1);
+        patch.setText(greeting.getText() + " test");
+
+        VersionConflictException exception = null;
+
+        try {
+            greetingService.patch(patch);
+        } catch (VersionConflictException vce) {
+            exception = vce;
+        }
+
+        Assert.assertNotNull("failure - expected exception", exception);
+        Assert.assertEquals("failure - expected current version", version, exception.getCurrentVersion());
+
+    }
+
+    @Test
+    public void testPatchGreetingNotFound() {
+
+        Exception exception = null;
+
+        final Greeting greeting = new Greeting();
+        greeting.setId(Long.MAX_VALUE);
+        greeting.setVersion(0);
+        greeting.setText("test");
+
+        try {
+            greetingService.patch(greeting);
+        } catch (NoResultException nre) {
+            exception = nre;
+        }
+
+        Assert.assertNotNull("failure - expected exception", exception);
+        Assert.assertTrue("failure - expected NoResultException", exception instanceof NoResultException);
+
+    }
+
     @Test
     public void testDeleteGreeting() {
 
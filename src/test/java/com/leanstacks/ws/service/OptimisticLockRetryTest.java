@@ -0,0 +1,194 @@
+package com.leanstacks.ws.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Country;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.repository.CountryRepository;
+import com.leanstacks.ws.repository.GreetingRepository;
+
+/**
+ * Unit test methods for the optimistic locking retry of the GreetingServiceBean and CountryServiceBean updates.
+ * 
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OptimisticLockRetryTest extends AbstractTest {
+
+    @Autowired
+    private transient GreetingService greetingService;
+
+    @Autowired
+    private transient CountryService countryService;
+
+    /**
+     * The number of remaining saveAndFlush invocations which fail with an optimistic locking conflict.
+     */
+    private static final AtomicInteger CONFLICTS = new AtomicInteger();
+
+    /**
+     * The number of saveAndFlush invocations.
+     */
+    private static final AtomicInteger SAVES = new AtomicInteger();
+
+    private transient Greeting greeting;
+
+    private transient Country country;
+
+    @Override
+    public void doBeforeEachTest() {
+        greeting = new Greeting();
+        greeting.setText("retry");
+        greeting.setLanguage("test");
+        greeting = greetingService.create(greeting);
+
+        country = new Country();
+        country.setName("retry");
+        country.setCapital("retry");
+        country = countryService.create(country);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        CONFLICTS.set(0);
+        greetingService.delete(greeting.getId());
+        countryService.delete(country.getId());
+    }
+
+    @Test
+    public void testUpdateGreetingRetriedAfterConflict() {
+
+        conflicts(1);
+
+        greeting.setText("updated");
+        final Greeting updatedGreeting = greetingService.update(greeting);
+
+        Assert.assertEquals("failure - expected one retry", 2, SAVES.get());
+        Assert.assertEquals("failure - expected text updated on retry", "updated", updatedGreeting.getText());
+        Assert.assertEquals("failure - expected version incremented once", Integer.valueOf(1),
+                updatedGreeting.getVersion());
+
+    }
+
+    @Test
+    public void testUpdateGreetingConflictAfterRetriesExhausted() {
+
+        conflicts(Integer.MAX_VALUE);
+
+        greeting.setText("updated");
+        VersionConflictException exception = null;
+        try {
+            greetingService.update(greeting);
+        } catch (VersionConflictException vce) {
+            exception = vce;
+        }
+
+        Assert.assertEquals("failure - expected three attempts", 3, SAVES.get());
+        Assert.assertNotNull("failure - expected VersionConflictException", exception);
+        Assert.assertEquals("failure - expected current version", Integer.valueOf(0), exception.getCurrentVersion());
+
+    }
+
+    @Test
+    public void testUpdateCountryRetriedAfterConflict() {
+
+        conflicts(1);
+
+        country.setCapital("updated");
+        final Country updatedCountry = countryService.update(country);
+
+        Assert.assertEquals("failure - expected one retry", 2, SAVES.get());
+        Assert.assertEquals("failure - expected capital updated on retry", "updated", updatedCountry.getCapital());
+
+    }
+
+    @Test
+    public void testUpdateCountryConflictAfterRetriesExhausted() {
+
+        conflicts(Integer.MAX_VALUE);
+
+        country.setCapital("updated");
+        VersionConflictException exception = null;
+        try {
+            countryService.update(country);
+        } catch (VersionConflictException vce) {
+            exception = vce;
+        }
+
+        Assert.assertEquals("failure - expected three attempts", 3, SAVES.get());
+        Assert.assertNotNull("failure - expected VersionConflictException", exception);
+        Assert.assertEquals("failure - expected current version", Integer.valueOf(0), exception.getCurrentVersion());
+
+    }
+
+    /**
+     * Make the supplied number of subsequent saveAndFlush invocations fail with an optimistic locking conflict.
+     * 
+     * @param count The number of conflicts.
+     */
+    private static void conflicts(final int count) {
+        SAVES.set(0);
+        CONFLICTS.set(count);
+    }
+
+    /**
+     * Wraps the GreetingRepository and CountryRepository so that saveAndFlush fails with an optimistic locking
+     * conflict while conflicts remain.
+     */
+    @TestConfiguration
+    static class ConflictConfiguration {
+
+        @Bean
+        public static BeanPostProcessor conflictingRepositoryPostProcessor() {
+            return new BeanPostProcessor() {
+
+                @Override
+                public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+                    return bean;
+                }
+
+                @Override
+                public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                    if (!(bean instanceof GreetingRepository) && !(bean instanceof CountryRepository)) {
+                        return bean;
+                    }
+                    final Class<?> entityClass = bean instanceof GreetingRepository ? Greeting.class : Country.class;
+                    final InvocationHandler handler = (proxy, method, args) -> {
+                        if ("saveAndFlush".equals(method.getName())) {
+                            SAVES.incrementAndGet();
+                            if (CONFLICTS.getAndUpdate(count -> count > 0 ? count - 1 : 0) > 0) {
+                                throw new ObjectOptimisticLockingFailureException(entityClass, "conflict");
+                            }
+                        }
+                        try {
+                            return method.invoke(bean, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    };
+                    return Proxy.newProxyInstance(bean.getClass().getClassLoader(), bean.getClass().getInterfaces(),
+                            handler);
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.leanstacks.ws.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.model.OutboxEvent;
+import com.leanstacks.ws.model.OutboxEvent.ChangeType;
+
+/**
+ * Unit test methods for the OutboxService and OutboxServiceBean.
+ * 
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OutboxServiceTest extends AbstractTest {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private transient OutboxService outboxService;
+
+    @Autowired
+    private transient GreetingService greetingService;
+
+    private final transient List<OutboxEvent> published = new ArrayList<OutboxEvent>();
+
+    @Override
+    public void doBeforeEachTest() {
+        greetingService.evictCache();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testRelayChangeEvents() {
+
+        final Greeting createdGreeting = greetingService.create(new Greeting("test", "language"));
+        createdGreeting.setText("updated");
+        greetingService.update(createdGreeting);
+        greetingService.delete(createdGreeting.getId());
+
+        outboxService.relay(BATCH_SIZE, published::addAll);
+
+        final List<OutboxEvent> events = new ArrayList<OutboxEvent>();
+        for (final OutboxEvent event : published) {
+            if ("Greeting".equals(event.getEntityType()) && createdGreeting.getId().equals(event.getEntityId())) {
+                events.add(event);
+            }
+        }
+
+        Assert.assertEquals("failure - expected 3 events", 3, events.size());
+        Assert.assertEquals("failure - expected CREATED", ChangeType.CREATED, events.get(0).getChangeType());
+        Assert.assertEquals("failure - expected version 0", Integer.valueOf(0), events.get(0).getEntityVersion());
+        Assert.assertEquals("failure - expected UPDATED", ChangeType.UPDATED, events.get(1).getChangeType());
+        Assert.assertEquals("failure - expected version 1", Integer.valueOf(1), events.get(1).getEntityVersion());
+        Assert.assertEquals("failure - expected DELETED", ChangeType.DELETED, events.get(2).getChangeType());
+        Assert.assertEquals("failure - expected referenceId", createdGreeting.getReferenceId(),
+                events.get(2).getReferenceId());
+
+        published.clear();
+        outboxService.relay(BATCH_SIZE, published::addAll);
+
+        for (final OutboxEvent event : published) {
+            Assert.assertNotEquals("failure - expected events not relayed twice", createdGreeting.getId(),
+                    event.getEntityId());
+        }
+
+    }
+
+    @Test
+    public void testRelayResolvesPatchReferenceId() {
+
+        final Greeting createdGreeting = greetingService.create(new Greeting("test", "language"));
+        final Greeting patch = new Greeting();
+        patch.setId(createdGreeting.getId());
+        patch.setVersion(createdGreeting.getVersion());
+        patch.setText("patched");
+        greetingService.patch(patch);
+
+        outboxService.relay(BATCH_SIZE, published::addAll);
+
+        OutboxEvent patchEvent = null;
+        for (final OutboxEvent event : published) {
+            if (createdGreeting.getId().equals(event.getEntityId()) && event.getChangeType() == ChangeType.UPDATED) {
+                patchEvent = event;
+            }
+        }
+
+        Assert.assertNotNull("failure - expected patch event relayed", patchEvent);
+        Assert.assertEquals("failure - expected referenceId resolved", createdGreeting.getReferenceId(),
+                patchEvent.getReferenceId());
+
+    }
+
+    @Test
+    public void testRelayFailureLeavesEventsUnpublished() {
+
+        final Greeting createdGreeting = greetingService.create(new Greeting("test", "language"));
+
+        try {
+            outboxService.relay(BATCH_SIZE, events -> {
+                throw new IllegalStateException("sink unavailable");
+            });
+            Assert.fail("failure - expected exception");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        outboxService.relay(BATCH_SIZE, published::addAll);
+
+        boolean relayed = false;
+        for (final OutboxEvent event : published) {
+            relayed |= createdGreeting.getId().equals(event.getEntityId());
+        }
+        Assert.assertTrue("failure - expected event relayed after failure", relayed);
+
+    }
+
+}
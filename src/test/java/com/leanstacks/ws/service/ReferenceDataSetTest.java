@@ -0,0 +1,99 @@
+package com.leanstacks.ws.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Role;
+
+/**
+ * Unit test methods for the ReferenceDataSet.
+ *
+ * @author Matt Warman
+ */
+public class ReferenceDataSetTest extends AbstractTest {
+
+    private static final DateTime JAN = new DateTime(2017, 1, 1, 0, 0);
+
+    private static final DateTime FEB = new DateTime(2017, 2, 1, 0, 0);
+
+    private static final DateTime MAR = new DateTime(2017, 3, 1, 0, 0);
+
+    private transient ReferenceDataSet<Role> roles;
+
+    @Override
+    public void doBeforeEachTest() {
+        roles = new ReferenceDataSet<Role>(Arrays.asList(role(3L, "ROLE_SYSADMIN", 3, FEB, null),
+                role(1L, "ROLE_USER", 1, JAN, null), role(2L, "ROLE_ADMIN", 2, JAN, MAR)));
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testFindAllInOrdinalOrder() {
+
+        final List<Role> list = roles.findAll();
+
+        Assert.assertEquals("failure - expected 3 roles", 3, list.size());
+        Assert.assertEquals("failure - expected ordinal order", "ROLE_USER", list.get(0).getCode());
+        Assert.assertEquals("failure - expected ordinal order", "ROLE_ADMIN", list.get(1).getCode());
+        Assert.assertEquals("failure - expected ordinal order", "ROLE_SYSADMIN", list.get(2).getCode());
+
+    }
+
+    @Test
+    public void testFindByIdAndCode() {
+
+        Assert.assertEquals("failure - expected role by id", "ROLE_ADMIN", roles.findById(2L).getCode());
+        Assert.assertEquals("failure - expected role by code", Long.valueOf(3L), roles.findByCode("ROLE_SYSADMIN")
+                .getId());
+        Assert.assertNull("failure - expected null for unknown id", roles.findById(9L));
+        Assert.assertNull("failure - expected null for unknown code", roles.findByCode("ROLE_UNKNOWN"));
+
+    }
+
+    @Test
+    public void testFindEffective() {
+
+        Assert.assertTrue("failure - expected none before first effectiveAt",
+                roles.findEffective(JAN.minusMillis(1)).isEmpty());
+        Assert.assertEquals("failure - expected 2 roles in January", 2, roles.findEffective(JAN.plusDays(1)).size());
+        Assert.assertEquals("failure - expected 3 roles at February boundary", 3, roles.findEffective(FEB).size());
+
+        final List<Role> afterExpiry = roles.findEffective(MAR);
+        Assert.assertEquals("failure - expected 2 roles after expiry", 2, afterExpiry.size());
+        Assert.assertEquals("failure - expected ordinal order", "ROLE_USER", afterExpiry.get(0).getCode());
+        Assert.assertEquals("failure - expected ordinal order", "ROLE_SYSADMIN", afterExpiry.get(1).getCode());
+
+    }
+
+    @Test
+    public void testFindEffectiveById() {
+
+        Assert.assertNotNull("failure - expected role effective", roles.findEffectiveById(2L, FEB));
+        Assert.assertNull("failure - expected role expired", roles.findEffectiveById(2L, MAR));
+        Assert.assertNull("failure - expected role not yet effective", roles.findEffectiveById(3L, JAN));
+        Assert.assertNull("failure - expected null for unknown id", roles.findEffectiveById(9L, FEB));
+
+    }
+
+    private static Role role(final Long id, final String code, final int ordinal, final DateTime effectiveAt,
+            final DateTime expiresAt) {
+        final Role role = new Role();
+        role.setId(id);
+        role.setCode(code);
+        role.setLabel(code);
+        role.setOrdinal(ordinal);
+        role.setEffectiveAt(effectiveAt);
+        role.setExpiresAt(expiresAt);
+        return role;
+    }
+
+}
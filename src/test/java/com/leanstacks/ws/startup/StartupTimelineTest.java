@@ -0,0 +1,95 @@
+package com.leanstacks.ws.startup;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the StartupTimeline.
+ *
+ * @author Matt Warman
+ */
+public class StartupTimelineTest extends AbstractTest {
+
+    private transient AnnotationConfigApplicationContext context;
+
+    @Override
+    public void doBeforeEachTest() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(SlowConfiguration.class);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        context.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReportExcludesDependencyTime() {
+
+        context.refresh();
+        final StartupTimeline timeline = context.getBean(StartupTimeline.class);
+
+        Assert.assertTrue("failure - expected empty report before ready", timeline.getReport().isEmpty());
+
+        timeline.onApplicationEvent(new ApplicationReadyEvent(new SpringApplication(), new String[0], context));
+        final Map<String, Object> report = timeline.getReport();
+        final List<Map<String, Object>> beans = (List<Map<String, Object>>) report.get("beans");
+        final Map<String, Object> slow = find(beans, "slowBean");
+        final Map<String, Object> slower = find(beans, "slowerBean");
+
+        Assert.assertNotNull("failure - expected slowBean recorded", slow);
+        Assert.assertNotNull("failure - expected slowerBean recorded", slower);
+        Assert.assertTrue("failure - expected slowerBean self time", (Double) slower.get("selfMillis") >= 60.0);
+        Assert.assertTrue("failure - expected slowBean total time includes dependency",
+                (Double) slow.get("totalMillis") >= 90.0);
+        Assert.assertEquals("failure - expected slowBean self time excludes dependency",
+                (Double) slow.get("totalMillis") - (Double) slower.get("totalMillis"), (Double) slow.get("selfMillis"),
+                0.2);
+        Assert.assertEquals("failure - expected configuration class source", SlowConfiguration.class.getName(),
+                slow.get("source"));
+
+    }
+
+    private static Map<String, Object> find(final List<Map<String, Object>> beans, final String name) {
+        for (final Map<String, Object> bean : beans) {
+            if (name.equals(bean.get("name"))) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    @Configuration
+    static class SlowConfiguration {
+
+        @Bean
+        public static StartupTimeline startupTimeline() {
+            return new StartupTimeline(10, "");
+        }
+
+        @Bean
+        public StringBuilder slowBean(final Long slowerBean) throws InterruptedException {
+            Thread.sleep(30L);
+            return new StringBuilder().append(slowerBean);
+        }
+
+        @Bean
+        public Long slowerBean() throws InterruptedException {
+            Thread.sleep(60L);
+            return Long.valueOf(60L);
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.leanstacks.ws.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the AimdConcurrencyLimiter.
+ *
+ * @author Matt Warman
+ */
+public class AimdConcurrencyLimiterTest extends AbstractTest {
+
+    private static final long LATENCY_THRESHOLD = 100L;
+
+    private transient AimdConcurrencyLimiter limiter;
+
+    @Override
+    public void doBeforeEachTest() {
+        limiter = new AimdConcurrencyLimiter(2, 1, 4, 0.5, LATENCY_THRESHOLD);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testRejectsAtLimit() {
+
+        Assert.assertTrue("failure - expected first permit", limiter.tryAcquire());
+        Assert.assertTrue("failure - expected second permit", limiter.tryAcquire());
+        Assert.assertFalse("failure - expected rejection at limit", limiter.tryAcquire());
+
+        limiter.release();
+
+        Assert.assertTrue("failure - expected permit after release", limiter.tryAcquire());
+
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(1L, false);
+
+        Assert.assertEquals("failure - expected limit increased", 3, limiter.getLimit());
+        Assert.assertEquals("failure - expected one permit in flight", 1, limiter.getInFlight());
+
+    }
+
+    @Test
+    public void testMultiplicativeDecrease() {
+
+        limiter.tryAcquire();
+        limiter.release(LATENCY_THRESHOLD + 1, false);
+
+        Assert.assertEquals("failure - expected limit decreased", 1, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(1L, true);
+
+        Assert.assertEquals("failure - expected limit at minimum", 1, limiter.getLimit());
+
+    }
+
+    @Test
+    public void testLimitBounded() {
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(1L, false);
+            limiter.release(1L, false);
+        }
+
+        Assert.assertEquals("failure - expected limit at maximum", 4, limiter.getLimit());
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the LogSampler.
+ *
+ * @author Matt Warman
+ */
+public class LogSamplerTest extends AbstractTest {
+
+    private static final String KEY = "java.lang.IllegalStateException";
+
+    private static final long INTERVAL = 100L;
+
+    private transient AtomicLong clock;
+
+    private transient LogSampler sampler;
+
+    @Override
+    public void doBeforeEachTest() {
+        clock = new AtomicLong(1000L);
+        sampler = new LogSampler(INTERVAL, clock::get);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testFirstEventSampled() {
+
+        Assert.assertEquals("failure - expected first event sampled", 0L, sampler.sample(KEY));
+
+    }
+
+    @Test
+    public void testEventsWithinIntervalSuppressed() {
+
+        sampler.sample(KEY);
+        clock.addAndGet(INTERVAL - 1);
+
+        Assert.assertEquals("failure - expected suppressed", LogSampler.SUPPRESSED, sampler.sample(KEY));
+        Assert.assertEquals("failure - expected suppressed", LogSampler.SUPPRESSED, sampler.sample(KEY));
+
+        clock.incrementAndGet();
+
+        Assert.assertEquals("failure - expected suppressed count", 2L, sampler.sample(KEY));
+        Assert.assertEquals("failure - expected suppressed", LogSampler.SUPPRESSED, sampler.sample(KEY));
+
+    }
+
+    @Test
+    public void testKeysSampledIndependently() {
+
+        sampler.sample(KEY);
+
+        Assert.assertEquals("failure - expected other key sampled", 0L, sampler.sample("java.lang.RuntimeException"));
+        Assert.assertEquals("failure - expected suppressed", LogSampler.SUPPRESSED, sampler.sample(KEY));
+
+    }
+
+}
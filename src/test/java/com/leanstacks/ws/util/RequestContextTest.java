@@ -0,0 +1,76 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the RequestContext.
+ *
+ * @author Matt Warman
+ */
+public class RequestContextTest extends AbstractTest {
+
+    private static final String VALUE_REQUEST_ID = "request-1";
+
+    private transient ExecutorService executorService;
+
+    @Override
+    public void doBeforeEachTest() {
+        RequestContext.setRequestId(VALUE_REQUEST_ID);
+        RequestContext.setStartTime(1000L);
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        executorService.shutdownNow();
+        RequestContext.init();
+    }
+
+    @Test
+    public void testSnapshotRestore() {
+
+        final RequestContext.Snapshot snapshot = RequestContext.snapshot();
+        RequestContext.init();
+
+        Assert.assertNull("failure - expected username null", RequestContext.getUsername());
+
+        final RequestContext.Snapshot previous = RequestContext.restore(snapshot);
+
+        Assert.assertNull("failure - expected previous username null", previous.getUsername());
+        Assert.assertEquals("failure - expected username restored", USERNAME, RequestContext.getUsername());
+        Assert.assertEquals("failure - expected requestId restored", VALUE_REQUEST_ID, RequestContext.getRequestId());
+        Assert.assertEquals("failure - expected startTime restored", Long.valueOf(1000L),
+                RequestContext.getStartTime());
+
+    }
+
+    @Test
+    public void testWrapPropagatesToExecutingThread() throws Exception {
+
+        final Future<String> username = executorService.submit(RequestContext.wrap(RequestContext::getUsername));
+        final Future<String> unwrapped = executorService.submit(() -> RequestContext.getUsername());
+
+        Assert.assertEquals("failure - expected username propagated", USERNAME, username.get());
+        Assert.assertNull("failure - expected username cleared after execution", unwrapped.get());
+
+    }
+
+    @Test
+    public void testWrapExecutor() throws Exception {
+
+        final String requestId = CompletableFuture
+                .supplyAsync(RequestContext::getRequestId, RequestContext.wrap(executorService)).get();
+
+        Assert.assertEquals("failure - expected requestId propagated", VALUE_REQUEST_ID, requestId);
+
+    }
+
+}
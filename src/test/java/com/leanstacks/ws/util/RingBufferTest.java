@@ -0,0 +1,56 @@
+package com.leanstacks.ws.util;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the RingBuffer.
+ *
+ * @author Matt Warman
+ */
+public class RingBufferTest extends AbstractTest {
+
+    private transient RingBuffer<String> buffer;
+
+    @Override
+    public void doBeforeEachTest() {
+        buffer = new RingBuffer<String>(3);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testSince() {
+
+        buffer.add(sequence -> "a" + sequence);
+        buffer.add(sequence -> "b" + sequence);
+
+        Assert.assertEquals("failure - expected last sequence 2", 2L, buffer.getLastSequence());
+        Assert.assertEquals("failure - expected all items", Arrays.asList("a1", "b2"), buffer.since(0));
+        Assert.assertEquals("failure - expected newest item", Arrays.asList("b2"), buffer.since(1));
+        Assert.assertTrue("failure - expected no items", buffer.since(2).isEmpty());
+        Assert.assertNull("failure - expected unknown sequence", buffer.since(3));
+
+    }
+
+    @Test
+    public void testOverwrite() {
+
+        for (int i = 0; i < 5; i++) {
+            buffer.add(sequence -> "item" + sequence);
+        }
+
+        Assert.assertNull("failure - expected overwritten items", buffer.since(1));
+        Assert.assertEquals("failure - expected retained items", Arrays.asList("item3", "item4", "item5"),
+                buffer.since(2));
+
+    }
+
+}
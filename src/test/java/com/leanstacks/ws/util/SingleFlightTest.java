@@ -0,0 +1,109 @@
+package com.leanstacks.ws.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the SingleFlight.
+ *
+ * @author Matt Warman
+ */
+public class SingleFlightTest extends AbstractTest {
+
+    private static final int FOLLOWERS = 4;
+
+    private transient ExecutorService executorService;
+
+    private transient CountDownLatch coalesced;
+
+    private transient SingleFlight<Long, String> singleFlight;
+
+    @Override
+    public void doBeforeEachTest() {
+        executorService = Executors.newFixedThreadPool(FOLLOWERS + 1);
+        coalesced = new CountDownLatch(FOLLOWERS);
+        singleFlight = new SingleFlight<Long, String>(coalesced::countDown);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentLoadsShareOneExecution() throws Exception {
+
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+
+        final Future<String> leader = executorService.submit(() -> singleFlight.execute(1L, () -> {
+            leaderStarted.countDown();
+            loads.incrementAndGet();
+            try {
+                coalesced.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "value";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+
+        final List<Future<String>> followers = new ArrayList<Future<String>>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executorService.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+
+        Assert.assertEquals("failure - expected leader value", "value", leader.get(5, TimeUnit.SECONDS));
+        for (final Future<String> follower : followers) {
+            Assert.assertEquals("failure - expected shared value", "value", follower.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals("failure - expected one load", 1, loads.get());
+
+    }
+
+    @Test
+    public void testSequentialLoadsExecuteSeparately() {
+
+        final AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute(1L, () -> "value" + loads.incrementAndGet());
+        final String value = singleFlight.execute(1L, () -> "value" + loads.incrementAndGet());
+
+        Assert.assertEquals("failure - expected second load value", "value2", value);
+        Assert.assertEquals("failure - expected two loads", 2, loads.get());
+
+    }
+
+    @Test
+    public void testExceptionReleasesKey() {
+
+        IllegalStateException exception = null;
+        try {
+            singleFlight.execute(1L, () -> {
+                throw new IllegalStateException("load failed");
+            });
+        } catch (IllegalStateException ex) {
+            exception = ex;
+        }
+
+        Assert.assertNotNull("failure - expected exception", exception);
+        Assert.assertEquals("failure - expected value after failure", "value",
+                singleFlight.execute(1L, () -> "value"));
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.leanstacks.ws.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the TokenBucket.
+ *
+ * @author Matt Warman
+ */
+public class TokenBucketTest extends AbstractTest {
+
+    private transient AtomicLong clock;
+
+    private transient TokenBucket bucket;
+
+    @Override
+    public void doBeforeEachTest() {
+        clock = new AtomicLong();
+        bucket = new TokenBucket(2, 1.0, clock::get);
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testBurstUpToCapacity() {
+
+        final TokenBucket.Probe first = bucket.tryConsume();
+        final TokenBucket.Probe second = bucket.tryConsume();
+        final TokenBucket.Probe third = bucket.tryConsume();
+
+        Assert.assertTrue("failure - expected first token consumed", first.isConsumed());
+        Assert.assertEquals("failure - expected 1 token remaining", 1L, first.getRemaining());
+        Assert.assertTrue("failure - expected second token consumed", second.isConsumed());
+        Assert.assertEquals("failure - expected 0 tokens remaining", 0L, second.getRemaining());
+        Assert.assertFalse("failure - expected third request rejected", third.isConsumed());
+        Assert.assertEquals("failure - expected 1 second wait", TimeUnit.SECONDS.toNanos(1), third.getNanosToWait());
+
+    }
+
+    @Test
+    public void testRefill() {
+
+        bucket.tryConsume();
+        bucket.tryConsume();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        final TokenBucket.Probe probe = bucket.tryConsume();
+
+        Assert.assertTrue("failure - expected token consumed after refill", probe.isConsumed());
+        Assert.assertFalse("failure - expected bucket empty", bucket.tryConsume().isConsumed());
+
+    }
+
+    @Test
+    public void testIdleBucketDoesNotExceedCapacity() {
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        Assert.assertTrue("failure - expected first token consumed", bucket.tryConsume().isConsumed());
+        Assert.assertTrue("failure - expected second token consumed", bucket.tryConsume().isConsumed());
+        Assert.assertFalse("failure - expected third request rejected", bucket.tryConsume().isConsumed());
+
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.leanstacks.ws.web.api;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leanstacks.ws.AbstractTest;
+import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.service.GreetingService;
+
+/**
+ * <p>
+ * Unit tests for the AsyncGreetingController using mocked business components.
+ * </p>
+ * <p>
+ * Read requests are executed on a simple asynchronous executor. Write requests are submitted to an executor which
+ * rejects all tasks, simulating a saturated write executor.
+ * </p>
+ *
+ * @author Matt Warman
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(AsyncGreetingController.class)
+@ActiveProfiles("async")
+public class AsyncGreetingControllerTest extends AbstractTest {
+
+    /**
+     * The base resource URI.
+     */
+    private static final String RESOURCE_URI = "/api/greetings";
+    /**
+     * The resource single item URI.
+     */
+    private static final String RESOURCE_ITEM_URI = "/api/greetings/{id}";
+
+    /**
+     * Test executors for the read and write workload classes.
+     */
+    @TestConfiguration
+    static class ExecutorConfiguration {
+
+        @Bean
+        public AsyncTaskExecutor readTaskExecutor() {
+            return new SimpleAsyncTaskExecutor();
+        }
+
+        @Bean
+        public AsyncTaskExecutor writeTaskExecutor() {
+            return new SimpleAsyncTaskExecutor() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public void execute(final Runnable task) {
+                    throw new TaskRejectedException("The write executor is saturated.");
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * A mocked GreetingService.
+     */
+    @MockBean
+    private transient GreetingService greetingService;
+
+    /**
+     * A mock servlet environment.
+     */
+    @Autowired
+    private transient MockMvc mvc;
+
+    /**
+     * A Jackson ObjectMapper for JSON conversion.
+     */
+    @Autowired
+    private transient ObjectMapper mapper;
+
+    @Override
+    public void doBeforeEachTest() {
+        // perform test initialization
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetGreeting() throws Exception {
+
+        // Create some test data
+        final Long id = new Long(1);
+        final Greeting entity = getEntityStubData();
+
+        // Stub the GreetingService.findOne method return value
+        when(greetingService.findOne(id)).thenReturn(entity);
+
+        // Perform the behavior being tested
+        final MvcResult asyncResult = mvc
+                .perform(MockMvcRequestBuilders.get(RESOURCE_ITEM_URI, id).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+        // Extract the response status and body
+        final String content = result.getResponse().getContentAsString();
+        final int status = result.getResponse().getStatus();
+
+        // Verify the GreetingService.findOne method was invoked once
+        verify(greetingService, times(1)).findOne(id);
+
+        // Perform standard JUnit assertions on the response
+        Assert.assertEquals("failure - expected HTTP status 200", 200, status);
+
+        final Greeting resultEntity = mapper.readValue(content, Greeting.class);
+
+        Assert.assertEquals("failure - expected text attribute match", entity.getText(), resultEntity.getText());
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetGreetingNotFound() throws Exception {
+
+        // Create some test data
+        final Long id = Long.MAX_VALUE;
+
+        // Stub the GreetingService.findOne method return value
+        when(greetingService.findOne(id)).thenReturn(null);
+
+        // Perform the behavior being tested
+        final MvcResult asyncResult = mvc
+                .perform(MockMvcRequestBuilders.get(RESOURCE_ITEM_URI, id).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+        // Perform standard JUnit assertions on the response
+        Assert.assertEquals("failure - expected HTTP status 404", 404, result.getResponse().getStatus());
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testCreateGreetingRejected() throws Exception {
+
+        // Create some test data
+        final Greeting entity = new Greeting();
+        entity.setText("test");
+
+        // Perform the behavior being tested
+        final String inputJson = mapper.writeValueAsString(entity);
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.post(RESOURCE_URI)
+                .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(inputJson))
+                .andReturn();
+
+        // Verify the GreetingService.create method was not invoked
+        verify(greetingService, never()).create(any(Greeting.class));
+
+        // Perform standard JUnit assertions on the response
+        Assert.assertEquals("failure - expected HTTP status 503", 503, result.getResponse().getStatus());
+        Assert.assertNotNull("failure - expected Retry-After header",
+                result.getResponse().getHeader("Retry-After"));
+
+    }
+
+    private Greeting getEntityStubData() {
+        final Greeting entity = new Greeting();
+        entity.setId(1L);
+        entity.setText("hello");
+        return entity;
+    }
+
+}
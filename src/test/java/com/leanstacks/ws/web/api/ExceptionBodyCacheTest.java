@@ -0,0 +1,65 @@
+package com.leanstacks.ws.web.api;
+
+import java.io.IOException;
+
+import javax.persistence.NoResultException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leanstacks.ws.AbstractTest;
+
+/**
+ * Unit test methods for the ExceptionBodyCache.
+ *
+ * @author Matt Warman
+ */
+public class ExceptionBodyCacheTest extends AbstractTest {
+
+    private transient ExceptionBodyCache bodyCache;
+
+    private transient ObjectMapper mapper;
+
+    @Override
+    public void doBeforeEachTest() {
+        bodyCache = new ExceptionBodyCache(10);
+        mapper = new ObjectMapper();
+    }
+
+    @Override
+    public void doAfterEachTest() {
+        // perform test clean up
+    }
+
+    @Test
+    public void testBodyMatchesExceptionDetail() throws IOException {
+
+        assertBody(new NoResultException("No entity with id 1."), "/api/greetings/1");
+        assertBody(new NoResultException("No entity with id \"2\"."), "/api/greetings/2");
+        assertBody(new NoResultException(), "/api/greetings/3");
+
+    }
+
+    private void assertBody(final Exception ex, final String path) throws IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+
+        final ExceptionDetail expected = new ExceptionDetailBuilder().exception(ex).httpStatus(HttpStatus.NOT_FOUND)
+                .httpServletRequest(request).build();
+        final ExceptionDetail actual = mapper.readValue(bodyCache.body(HttpStatus.NOT_FOUND, ex, request),
+                ExceptionDetail.class);
+
+        Assert.assertEquals("failure - expected method", expected.getMethod(), actual.getMethod());
+        Assert.assertEquals("failure - expected path", expected.getPath(), actual.getPath());
+        Assert.assertEquals("failure - expected status", expected.getStatus(), actual.getStatus());
+        Assert.assertEquals("failure - expected statusText", expected.getStatusText(), actual.getStatusText());
+        Assert.assertEquals("failure - expected exceptionClass", expected.getExceptionClass(),
+                actual.getExceptionClass());
+        Assert.assertEquals("failure - expected exceptionMessage", expected.getExceptionMessage(),
+                actual.getExceptionMessage());
+    }
+
+}
@@ -25,7 +25,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import com.leanstacks.ws.AbstractTest;
 import com.leanstacks.ws.model.Greeting;
+import com.leanstacks.ws.service.DuplicateEntityException;
 import com.leanstacks.ws.service.GreetingService;
+import com.leanstacks.ws.service.VersionConflictException;
 
 /**
  * <p>
@@ -110,6 +112,35 @@ public class GreetingControllerTest extends AbstractTest {
 
     }
 
+    @Test
+    @WithMockUser
+    public void testGetGreetingsByLanguage() throws Exception {
+
+        // Create some test data
+        final String language = "English";
+        final Collection<Greeting> list = getEntityListStubData();
+
+        // Stub the GreetingService.findByLanguage method return value
+        when(greetingService.findByLanguage(language)).thenReturn(list);
+
+        // Perform the behavior being tested
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get(RESOURCE_URI).param("language", language)
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+
+        // Extract the response status and body
+        final String content = result.getResponse().getContentAsString();
+        final int status = result.getResponse().getStatus();
+
+        // Verify the GreetingService.findByLanguage method was invoked instead of findAll
+        verify(greetingService, times(1)).findByLanguage(language);
+        verify(greetingService, times(0)).findAll();
+
+        // Perform standard JUnit assertions on the response
+        Assert.assertEquals("failure - expected HTTP status 200", 200, status);
+        Assert.assertTrue("failure - expected HTTP response body to have a value", !Strings.isNullOrEmpty(content));
+
+    }
+
     @Test
     @WithMockUser
     public void testGetGreeting() throws Exception {
@@ -241,6 +272,120 @@ public class GreetingControllerTest extends AbstractTest {
 
     }
 
+    @Test
+    @WithMockUser
+    public void testUpdateGreetingVersionConflict() throws Exception {
+
+        // Create some test data
+        final Greeting entity = getEntityStubData();
+        final Long id = new Long(1);
+
+        // Stub the GreetingService.update method to report a concurrent modification
+        when(greetingService.update(any(Greeting.class)))
+                .thenThrow(new VersionConflictException("Requested Greeting was modified concurrently.", 2));
+
+        // Perform the behavior being tested
+        final String inputJson = mapper.writeValueAsString(entity);
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.put(RESOURCE_ITEM_URI, id)
+                .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(inputJson))
+                .andReturn();
+
+        // Extract the response status and headers
+        final int status = result.getResponse().getStatus();
+        final String etag = result.getResponse().getHeader("ETag");
+
+        // Verify the GreetingService.update method was invoked once
+        verify(greetingService, times(1)).update(any(Greeting.class));
+
+        // Perform standard JUnit assertions on the test results
+        Assert.assertEquals("failure - expected HTTP status 409", 409, status);
+        Assert.assertEquals("failure - expected ETag to contain current version", "\"2\"", etag);
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testCreateGreetingWithId() throws Exception {
+
+        // Create some test data
+        final Greeting entity = getEntityStubData();
+
+        // Stub the GreetingService.create method to reject the supplied id
+        when(greetingService.create(any(Greeting.class)))
+                .thenThrow(new DuplicateEntityException("The id attribute must be null to persist a new entity."));
+
+        // Perform the behavior being tested
+        final String inputJson = mapper.writeValueAsString(entity);
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.post(RESOURCE_URI)
+                .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(inputJson))
+                .andReturn();
+
+        // Extract the response status and body
+        final String content = result.getResponse().getContentAsString();
+        final int status = result.getResponse().getStatus();
+
+        // Perform standard JUnit assertions on the test results
+        Assert.assertEquals("failure - expected HTTP status 409", 409, status);
+        Assert.assertTrue("failure - expected exception detail in response body",
+                content.contains(DuplicateEntityException.class.getName()));
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testPatchGreeting() throws Exception {
+
+        // Create some test data
+        final Greeting entity = getEntityStubData();
+        entity.setVersion(1);
+        final Long id = new Long(1);
+
+        // Stub the GreetingService.patch method return value
+        when(greetingService.patch(any(Greeting.class))).thenReturn(2);
+
+        // Perform the behavior being tested
+        final String inputJson = mapper.writeValueAsString(entity);
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.patch(RESOURCE_ITEM_URI, id)
+                .contentType(MediaType.APPLICATION_JSON).content(inputJson)).andReturn();
+
+        // Extract the response status and headers
+        final int status = result.getResponse().getStatus();
+        final String etag = result.getResponse().getHeader("ETag");
+
+        // Verify the GreetingService.patch method was invoked once
+        verify(greetingService, times(1)).patch(any(Greeting.class));
+
+        // Perform standard JUnit assertions on the test results
+        Assert.assertEquals("failure - expected HTTP status 204", 204, status);
+        Assert.assertEquals("failure - expected ETag to contain new version", "\"2\"", etag);
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testPatchGreetingWithoutVersion() throws Exception {
+
+        // Create some test data
+        final Long id = new Long(1);
+
+        // Perform the behavior being tested
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.patch(RESOURCE_ITEM_URI, id)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"text\":\"hello\"}")).andReturn();
+
+        // Extract the response status
+        final int status = result.getResponse().getStatus();
+
+        // Verify the GreetingService.patch method was not invoked
+        verify(greetingService, times(0)).patch(any(Greeting.class));
+
+        // Perform standard JUnit assertions on the test results
+        Assert.assertEquals("failure - expected HTTP status 400", 400, status);
+
+    }
+
     @Test
     @WithMockUser
     public void testDeleteGreeting() throws Exception {